@@ -0,0 +1,10 @@
+@echo off
+title asteria_benchmark
+rem Compiles and runs the JMH benchmarks in benchmarks/src against the server
+rem classes in bin. The JMH jars (jmh-core, jmh-generator-annprocess and their
+rem dependencies) must be placed in deps/jmh. Results are written as json to
+rem benchmarks/results.json so runs from different builds can be compared.
+if not exist benchmarks\bin mkdir benchmarks\bin
+"C:/Program Files/Java/jdk1.8.0_11/bin/javac.exe" -cp bin;deps/gson-2.2.4.jar;deps/jmh/* -d benchmarks/bin benchmarks/src/com/asteria/benchmark/*.java
+"C:/Program Files/Java/jdk1.8.0_11/bin/java.exe" -cp benchmarks/bin;bin;deps/gson-2.2.4.jar;deps/jmh/* org.openjdk.jmh.Main -rf json -rff benchmarks/results.json %*
+pause
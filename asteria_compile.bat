@@ -0,0 +1,13 @@
+@echo off
+title asteria_compile
+rem Compiles the server into bin. The packet decoder processor in processor/src
+rem is compiled first, and is run while the server is compiled to generate the
+rem index of packet decoders. The server must always be compiled as a whole so
+rem that no decoder is left out of the index.
+if not exist processor\bin mkdir processor\bin
+if not exist bin mkdir bin
+"C:/Program Files/Java/jdk1.8.0_11/bin/javac.exe" -d processor/bin processor/src/com/asteria/processor/*.java
+dir /s /b src\*.java > sources.txt
+"C:/Program Files/Java/jdk1.8.0_11/bin/javac.exe" -processorpath processor/bin -processor com.asteria.processor.PacketDecoderProcessor -cp deps/gson-2.2.4.jar -d bin @sources.txt
+del sources.txt
+pause
\ No newline at end of file
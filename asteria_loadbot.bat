@@ -0,0 +1,5 @@
+@echo off
+title asteria_loadbot
+rem Arguments: [bots] [logins per second] [seconds] [spread] [host] [port]
+"C:/Program Files/Java/jdk1.8.0_11/bin/java.exe" -Xmx512m -cp bin;deps/gson-2.2.4.jar; com.asteria.bot.LoadBot %*
+pause
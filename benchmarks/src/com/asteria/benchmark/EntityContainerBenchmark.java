@@ -0,0 +1,92 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asteria.world.entity.EntityContainer;
+import com.asteria.world.entity.npc.Npc;
+
+/**
+ * Benchmarks adding, removing and iterating over the entities in an
+ * {@link EntityContainer} that is the same size as the npc container.
+ *
+ * @author lare96
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntityContainerBenchmark {
+
+    /** The capacity of the container, the same as the world's npcs. */
+    private static final int CAPACITY = 1500;
+
+    /** The amount of entities in the container. */
+    @Param({ "100", "1000", "1500" })
+    private int entities;
+
+    /** The container that starts out empty. */
+    private EntityContainer<Npc> empty;
+
+    /** The container that is filled with the entities. */
+    private EntityContainer<Npc> filled;
+
+    /** The entities that are added and removed. */
+    private Npc[] npcs;
+
+    /**
+     * Creates the entities and fills one of the containers with them.
+     *
+     * @throws Exception
+     *             if any errors occur while loading the definitions.
+     */
+    @Setup
+    public void setup() throws Exception {
+        SyntheticWorld.load();
+        empty = new EntityContainer<>(CAPACITY);
+        filled = new EntityContainer<>(CAPACITY);
+        npcs = new Npc[entities];
+
+        for (int i = 0; i < entities; i++) {
+            npcs[i] = new Npc(1, SyntheticWorld.CENTER.clone().move(i % 64,
+                i / 64));
+            filled.add(new Npc(1, npcs[i].getPosition()));
+        }
+    }
+
+    /**
+     * Adds every entity to the container, and then removes them in the same
+     * order they were added.
+     *
+     * @return the emptied container.
+     */
+    @Benchmark
+    public EntityContainer<Npc> addRemove() {
+        for (Npc npc : npcs) {
+            empty.add(npc);
+        }
+        for (Npc npc : npcs) {
+            empty.remove(npc);
+        }
+        return empty;
+    }
+
+    /**
+     * Iterates over every entity in the filled container.
+     *
+     * @param blackhole
+     *            consumes the entities so the loop is not optimized away.
+     */
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        filled.forEach(blackhole::consume);
+    }
+}
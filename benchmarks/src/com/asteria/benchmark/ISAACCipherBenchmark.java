@@ -0,0 +1,39 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.asteria.engine.net.ISAACCipher;
+
+/**
+ * Benchmarks {@link ISAACCipher#getKey()}, which is called for the opcode of
+ * every packet that is sent or received.
+ *
+ * @author lare96
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ISAACCipherBenchmark {
+
+    /** The cipher that keys are generated from. */
+    private final ISAACCipher cipher = new ISAACCipher(new int[] { 1, 2, 3,
+            4 });
+
+    /**
+     * Generates a single key, every <tt>256</tt> invocations this will include
+     * the cost of generating the next set of results.
+     *
+     * @return the generated key.
+     */
+    @Benchmark
+    public int getKey() {
+        return cipher.getKey();
+    }
+}
@@ -0,0 +1,77 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.asteria.world.item.Item;
+import com.asteria.world.item.ItemContainer;
+import com.asteria.world.item.ItemContainer.Policy;
+
+/**
+ * Benchmarks filling and emptying an {@link ItemContainer} one item at a time
+ * with each of the stacking policies, using both a stackable and a
+ * non-stackable item.
+ *
+ * @author lare96
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemContainerBenchmark {
+
+    /** The stacking policy of the container. */
+    @Param({ "NORMAL", "STACK_ALWAYS", "STACK_NEVER" })
+    private Policy policy;
+
+    /** The item added to the container, coins or an abyssal whip. */
+    @Param({ "995", "4151" })
+    private int id;
+
+    /** The capacity of the container, the size of an inventory or bank. */
+    @Param({ "28", "250" })
+    private int capacity;
+
+    /** The container items are added to and removed from. */
+    private ItemContainer container;
+
+    /** The item that is added and removed. */
+    private Item item;
+
+    /**
+     * Loads the item definitions and creates the container.
+     *
+     * @throws Exception
+     *             if any errors occur while loading the definitions.
+     */
+    @Setup
+    public void setup() throws Exception {
+        SyntheticWorld.load();
+        container = new ItemContainer(policy, capacity);
+        item = new Item(id);
+    }
+
+    /**
+     * Adds the item to the container until it is full, and then removes it
+     * the same amount of times.
+     *
+     * @return the container that was filled and emptied.
+     */
+    @Benchmark
+    public ItemContainer addRemove() {
+        for (int i = 0; i < capacity; i++) {
+            container.add(item);
+        }
+        for (int i = 0; i < capacity; i++) {
+            container.remove(item);
+        }
+        return container;
+    }
+}
@@ -0,0 +1,119 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.asteria.world.entity.Animation;
+import com.asteria.world.entity.npc.Npc;
+import com.asteria.world.entity.npc.NpcUpdating;
+import com.asteria.world.entity.player.Player;
+
+/**
+ * Benchmarks {@link NpcUpdating#update(Player)} for a single player that is
+ * surrounded by npcs.
+ *
+ * @author lare96
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NpcUpdatingBenchmark {
+
+    /** The identifier of the npc that is spawned, a non-aggressive man. */
+    private static final int NPC_ID = 1;
+
+    /** The amount of npcs in view of the player. */
+    @Param({ "10", "100", "255" })
+    private int npcs;
+
+    /** The world the player and npcs are created in. */
+    private SyntheticWorld world;
+
+    /** The player that npcs are updated for. */
+    private Player player;
+
+    /** The animation that is played by every npc. */
+    private final Animation animation = new Animation(422);
+
+    /**
+     * Creates the npcs and updates the player until every npc is in their
+     * local list.
+     *
+     * @throws Exception
+     *             if any errors occur while creating the player.
+     */
+    @Setup
+    public void setup() throws Exception {
+        world = new SyntheticWorld();
+        player = world.addPlayer();
+
+        for (int i = 0; i < npcs; i++) {
+            world.addNpc(NPC_ID);
+        }
+        for (int i = 0; i <= npcs / 15; i++) {
+            cycle();
+        }
+    }
+
+    /**
+     * Removes the player and npcs from the world.
+     *
+     * @throws Exception
+     *             if any errors occur while closing the sockets.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        world.close();
+    }
+
+    /**
+     * Updates the player when none of the npcs have moved or changed.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    @Benchmark
+    public void idle() throws Exception {
+        cycle();
+    }
+
+    /**
+     * Updates the player when every npc is playing an animation, so an update
+     * block is written for every npc.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    @Benchmark
+    public void animated() throws Exception {
+        for (Npc npc : world.getNpcs()) {
+            npc.animation(animation);
+        }
+        cycle();
+    }
+
+    /**
+     * Updates the player and then resets every npc, the same way the world
+     * does every cycle.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    private void cycle() throws Exception {
+        NpcUpdating.update(player);
+
+        for (Npc npc : world.getNpcs()) {
+            npc.reset();
+        }
+        world.discardOutput();
+    }
+}
@@ -0,0 +1,115 @@
+package com.asteria.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.asteria.engine.net.packet.PacketDecoder;
+import com.asteria.engine.net.packet.PacketIndex;
+import com.asteria.engine.net.packet.PacketIndex.Framing;
+import com.asteria.engine.net.packet.PacketOpcodeHeader;
+
+/**
+ * Benchmarks loading the packet decoders from the generated index against the
+ * old lookup, which listed the decoder sources in <tt>./src</tt> and loaded
+ * each one reflectively. The old lookup needs the sources, so this benchmark
+ * must be run from the server directory as done by
+ * <tt>asteria_benchmark.bat</tt>. The check that every outgoing packet header
+ * is put through is benchmarked as well.
+ *
+ * @author lare96
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PacketIndexBenchmark {
+
+    /** The directory the old lookup listed the decoder sources from. */
+    private static final File DECODER_SOURCES = new File(
+        "./src/com/asteria/engine/net/packet/impl/");
+
+    /** The opcodes of the packets that the server sends. */
+    private final int[] opcodes;
+
+    /** The framing of each opcode, in the same order. */
+    private final Framing[] framing;
+
+    /** Creates a new {@link PacketIndexBenchmark}. */
+    public PacketIndexBenchmark() {
+        int amount = 0;
+
+        for (int opcode = 0; opcode < 256; opcode++) {
+            if (PacketIndex.getFraming(opcode) != null) {
+                amount++;
+            }
+        }
+        opcodes = new int[amount];
+        framing = new Framing[amount];
+
+        for (int opcode = 0, slot = 0; opcode < 256; opcode++) {
+            if (PacketIndex.getFraming(opcode) != null) {
+                opcodes[slot] = opcode;
+                framing[slot++] = PacketIndex.getFraming(opcode);
+            }
+        }
+    }
+
+    /**
+     * Loads the decoders the way the server did before they were indexed.
+     *
+     * @return the table of decoders.
+     * @throws Exception
+     *             if any errors occur while loading the decoders.
+     */
+    @Benchmark
+    public PacketDecoder[] scanDecoders() throws Exception {
+        PacketDecoder[] table = new PacketDecoder[256];
+
+        for (File file : DECODER_SOURCES.listFiles()) {
+            Class<?> c = Class.forName("com.asteria.engine.net.packet.impl."
+                + file.getName().replaceAll(".java", ""));
+            PacketDecoder packet = (PacketDecoder) c.getDeclaredConstructor()
+                .newInstance();
+
+            for (int opcode : packet.getClass().getAnnotation(
+                PacketOpcodeHeader.class).value()) {
+                table[opcode] = packet;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Loads the decoders from the index generated when the server was
+     * compiled.
+     *
+     * @return the table of decoders.
+     * @throws Exception
+     *             if any errors occur while loading the decoders.
+     */
+    @Benchmark
+    public PacketDecoder[] indexDecoders() throws Exception {
+        PacketDecoder.loadDecoders();
+        return PacketDecoder.getPackets();
+    }
+
+    /**
+     * Checks the framing of every opcode the server sends, which is done once
+     * for every packet header that is built.
+     *
+     * @return the amount of opcodes checked.
+     */
+    @Benchmark
+    public int checkEncoders() {
+        for (int i = 0; i < opcodes.length; i++) {
+            PacketIndex.checkEncoder(opcodes[i], framing[i]);
+        }
+        return opcodes.length;
+    }
+}
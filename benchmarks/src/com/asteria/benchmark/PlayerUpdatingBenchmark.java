@@ -0,0 +1,112 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.asteria.world.entity.UpdateFlags.Flag;
+import com.asteria.world.entity.player.Player;
+import com.asteria.world.entity.player.PlayerUpdating;
+
+/**
+ * Benchmarks {@link PlayerUpdating#update(Player)} for every player in a
+ * crowd of players that can all see each other, which is the same work done
+ * by the updating phase of a single cycle.
+ *
+ * @author lare96
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayerUpdatingBenchmark {
+
+    /** The amount of players in view of each other. */
+    @Param({ "1", "50", "200" })
+    private int players;
+
+    /** The world the players are created in. */
+    private SyntheticWorld world;
+
+    /**
+     * Creates the players and updates them until every player has every other
+     * player in their local list.
+     *
+     * @throws Exception
+     *             if any errors occur while creating the players.
+     */
+    @Setup
+    public void setup() throws Exception {
+        world = new SyntheticWorld();
+
+        for (int i = 0; i < players; i++) {
+            world.addPlayer();
+        }
+        for (int i = 0; i <= players / 15; i++) {
+            cycle();
+        }
+    }
+
+    /**
+     * Removes the players from the world and closes their sockets.
+     *
+     * @throws Exception
+     *             if any errors occur while closing the sockets.
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        world.close();
+    }
+
+    /**
+     * Updates every player when nobody has moved or changed, so only the
+     * movement bits are written.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    @Benchmark
+    public void idle() throws Exception {
+        cycle();
+    }
+
+    /**
+     * Updates every player when every player has changed their appearance, so
+     * an appearance block is written for every player in view.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    @Benchmark
+    public void appearance() throws Exception {
+        for (Player player : world.getPlayers()) {
+            player.getFlags().flag(Flag.APPEARANCE);
+        }
+        cycle();
+    }
+
+    /**
+     * Updates and then resets every player, the same way the world does every
+     * cycle.
+     *
+     * @throws Exception
+     *             if any errors occur while updating.
+     */
+    private void cycle() throws Exception {
+        for (Player player : world.getPlayers()) {
+            PlayerUpdating.update(player);
+        }
+        for (Player player : world.getPlayers()) {
+            player.reset();
+            player.setCachedUpdateBlock(null);
+        }
+        world.discardOutput();
+    }
+}
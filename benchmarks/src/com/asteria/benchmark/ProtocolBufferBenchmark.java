@@ -0,0 +1,85 @@
+package com.asteria.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.asteria.engine.net.ProtocolBuffer;
+import com.asteria.engine.net.ProtocolBuffer.ByteOrder;
+import com.asteria.engine.net.ProtocolBuffer.ValueType;
+
+/**
+ * Benchmarks the bit and byte writing methods of the {@link ProtocolBuffer},
+ * which every outgoing packet and update block is built with.
+ *
+ * @author lare96
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProtocolBufferBenchmark {
+
+    /** The buffer that is cleared and reused by every invocation. */
+    private final ProtocolBuffer buffer = new ProtocolBuffer(4096);
+
+    /**
+     * Writes the bits for 255 local players walking, which is the worst case
+     * of the player updating bit block.
+     *
+     * @return the buffer that was written to.
+     */
+    @Benchmark
+    public ProtocolBuffer writeBits() {
+        buffer.clear().startBitAccess();
+        buffer.writeBits(8, 255);
+
+        for (int i = 0; i < 255; i++) {
+            buffer.writeBit(true);
+            buffer.writeBits(2, 1);
+            buffer.writeBits(3, i & 7);
+            buffer.writeBit(false);
+        }
+        buffer.finishBitAccess();
+        return buffer;
+    }
+
+    /**
+     * Writes a mix of the value types and byte orders used by the update
+     * blocks.
+     *
+     * @return the buffer that was written to.
+     */
+    @Benchmark
+    public ProtocolBuffer writeBytes() {
+        buffer.clear();
+
+        for (int i = 0; i < 128; i++) {
+            buffer.writeByte(i, ValueType.C);
+            buffer.writeShort(i, ValueType.A, ByteOrder.LITTLE);
+            buffer.writeInt(i, ByteOrder.MIDDLE);
+            buffer.writeLong(i);
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes strings into a new buffer with the default capacity, so the cost
+     * of growing the buffer is included.
+     *
+     * @return the buffer that was written to.
+     */
+    @Benchmark
+    public ProtocolBuffer writeGrowing() {
+        ProtocolBuffer growing = new ProtocolBuffer();
+
+        for (int i = 0; i < 64; i++) {
+            growing.writeString("Welcome to Asteria!");
+        }
+        return growing;
+    }
+}
@@ -0,0 +1,214 @@
+package com.asteria.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import com.asteria.engine.net.ISAACCipher;
+import com.asteria.engine.net.Session;
+import com.asteria.engine.net.Session.Stage;
+import com.asteria.util.Utility;
+import com.asteria.world.World;
+import com.asteria.world.entity.npc.Npc;
+import com.asteria.world.entity.npc.NpcDefinition;
+import com.asteria.world.entity.player.Player;
+import com.asteria.world.entity.player.skill.Skills;
+import com.asteria.world.item.ItemDefinition;
+import com.asteria.world.map.Position;
+
+/**
+ * A small fake world used by the benchmarks to populate the {@link World} with
+ * logged in players and npcs without running the networking or login code.
+ * Every player is given a real loopback socket so packets can be queued like
+ * they would be on a live server, but the queued data is discarded instead of
+ * being written.
+ *
+ * @author lare96
+ */
+public final class SyntheticWorld implements AutoCloseable {
+
+    /** The position that everything in the synthetic world is placed around. */
+    public static final Position CENTER = new Position(3222, 3222);
+
+    /** If the definitions have been loaded yet. */
+    private static boolean loaded;
+
+    /** The random generator used to scatter entities, seeded for repeat runs. */
+    private final Random random = new Random(0x5eed);
+
+    /** The selector that the server sided channels are registered with. */
+    private final Selector selector;
+
+    /** The server channel that accepts the loopback connections. */
+    private final ServerSocketChannel server;
+
+    /** The client sided channels, kept so they are not closed early. */
+    private final List<SocketChannel> clients = new LinkedList<>();
+
+    /** The players that have been created in this world. */
+    private final List<Player> players = new LinkedList<>();
+
+    /** The npcs that have been created in this world. */
+    private final List<Npc> npcs = new LinkedList<>();
+
+    /**
+     * Create a new {@link SyntheticWorld}.
+     *
+     * @throws Exception
+     *             if any errors occur while loading definitions or opening the
+     *             loopback server.
+     */
+    public SyntheticWorld() throws Exception {
+        load();
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    /**
+     * Loads the definitions that players and npcs depend on. The benchmarks
+     * must be ran from the root directory of the server for the data files to
+     * be found.
+     *
+     * @throws Exception
+     *             if any errors occur while loading the definitions.
+     */
+    public static synchronized void load() throws Exception {
+        if (loaded)
+            return;
+
+        ItemDefinition.parseItems().load();
+        NpcDefinition.parseNpcs().load();
+        loaded = true;
+    }
+
+    /**
+     * Creates a new logged in player within viewing distance of the
+     * {@link #CENTER} and registers it with the world.
+     *
+     * @return the player that was created.
+     * @throws Exception
+     *             if any errors occur while creating the session.
+     */
+    public Player addPlayer() throws Exception {
+        SocketChannel client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel channel = server.accept();
+        channel.configureBlocking(false);
+        clients.add(client);
+
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Session session = new Session(key);
+        key.attach(session);
+        set(session, "stage", Stage.LOGGED_IN);
+        set(session, "encryptor", new ISAACCipher(new int[4]));
+
+        Player player = session.getPlayer();
+        player.setUsername("bot" + players.size());
+        player.setUsernameHash(Utility.nameToHash(player.getUsername()));
+        Skills.create(player);
+        player.getPosition().setAs(scatter());
+        World.getPlayers().add(player);
+        players.add(player);
+        return player;
+    }
+
+    /**
+     * Creates a new npc within viewing distance of the {@link #CENTER} and
+     * registers it with the world.
+     *
+     * @param id
+     *            the identifier of the npc to create.
+     * @return the npc that was created.
+     */
+    public Npc addNpc(int id) {
+        Npc npc = new Npc(id, scatter());
+        World.getNpcs().add(npc);
+        npcs.add(npc);
+        return npc;
+    }
+
+    /**
+     * Discards all of the data that has been queued for every player in this
+     * world, as if it had been written to the socket.
+     */
+    public void discardOutput() {
+        for (Player player : players) {
+            Session session = player.getSession();
+
+            synchronized (session) {
+                session.getOutData().clear();
+            }
+        }
+    }
+
+    /**
+     * Gets the players that have been created in this world.
+     *
+     * @return the players in this world.
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Gets the npcs that have been created in this world.
+     *
+     * @return the npcs in this world.
+     */
+    public List<Npc> getNpcs() {
+        return npcs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        players.forEach(World.getPlayers()::remove);
+        npcs.forEach(World.getNpcs()::remove);
+
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        server.close();
+    }
+
+    /**
+     * Picks a random position that is viewable from the {@link #CENTER}.
+     *
+     * @return the random position.
+     */
+    private Position scatter() {
+        return new Position(CENTER.getX() + random.nextInt(15) - 7, CENTER
+            .getY() + random.nextInt(15) - 7);
+    }
+
+    /**
+     * Sets a private field of a session that is normally only set during the
+     * login process.
+     *
+     * @param session
+     *            the session to set the field of.
+     * @param name
+     *            the name of the field.
+     * @param value
+     *            the new value of the field.
+     * @throws Exception
+     *             if the field could not be set.
+     */
+    private static void set(Session session, String name, Object value)
+        throws Exception {
+        Field field = Session.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(session, value);
+    }
+}
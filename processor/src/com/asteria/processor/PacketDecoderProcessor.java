@@ -0,0 +1,165 @@
+package com.asteria.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * An annotation processor that generates the index of packet decoders while
+ * the server is being compiled. Every concrete subclass of
+ * <code>PacketDecoder</code> is listed in the generated
+ * <code>PacketDecoderIndex</code>, so the server never has to search for its
+ * decoders when it starts. A decoder without a
+ * <code>PacketOpcodeHeader</code>, or a header on a class that is not a
+ * decoder, fails the compilation.
+ * <p>
+ * The index is generated from the sources being compiled, so the server must
+ * always be compiled as a whole with this processor, as done by
+ * <tt>asteria_compile.bat</tt>.
+ *
+ * @author lare96
+ */
+@SupportedAnnotationTypes("*")
+public final class PacketDecoderProcessor extends AbstractProcessor {
+
+    /** The package that the decoder types and the index are in. */
+    private static final String PACKAGE = "com.asteria.engine.net.packet";
+
+    /** The name of the base class of every decoder. */
+    private static final String DECODER = PACKAGE + ".PacketDecoder";
+
+    /** The name of the header that every decoder must have. */
+    private static final String HEADER = PACKAGE + ".PacketOpcodeHeader";
+
+    /** The name of the index that is generated. */
+    private static final String INDEX = "PacketDecoderIndex";
+
+    /** If the index has already been generated. */
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+        RoundEnvironment roundEnv) {
+        TypeElement decoder = processingEnv.getElementUtils().getTypeElement(
+            DECODER);
+
+        // Only the first round has the server sources, the rounds after it
+        // only have the sources that were generated.
+        if (generated || decoder == null || roundEnv.processingOver()) {
+            return false;
+        }
+        TypeMirror decoderType = processingEnv.getTypeUtils().erasure(
+            decoder.asType());
+        Set<String> decoders = new TreeSet<>();
+
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            boolean isDecoder = !element.equals(decoder) && processingEnv
+                .getTypeUtils().isSubtype(element.asType(), decoderType);
+            boolean hasHeader = hasHeader(element);
+
+            if (isDecoder && element.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            } else if (isDecoder && !hasHeader) {
+                error(element, "Packet decoder has no @PacketOpcodeHeader: "
+                    + element);
+            } else if (!isDecoder && hasHeader) {
+                error(element, "@PacketOpcodeHeader on a class that is not a"
+                    + " packet decoder: " + element);
+            } else if (isDecoder) {
+                decoders.add(((TypeElement) element).getQualifiedName()
+                    .toString());
+            }
+        }
+        generated = true;
+
+        try {
+            write(decoders);
+        } catch (IOException e) {
+            error(null, "Unable to write the packet decoder index: " + e);
+        }
+
+        // The server has no other processors, so the headers are claimed.
+        return true;
+    }
+
+    /**
+     * Writes the source of the index of the argued decoders.
+     *
+     * @param decoders
+     *            the names of the decoders, in the order they are listed.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private void write(Set<String> decoders) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+            PACKAGE + "." + INDEX);
+
+        try (Writer out = file.openWriter()) {
+            out.write("package " + PACKAGE + ";\n\n");
+            out.write("/**\n");
+            out.write(" * The index of every packet decoder, generated by the"
+                + " PacketDecoderProcessor\n");
+            out.write(" * when the server was compiled. Do not edit.\n");
+            out.write(" */\n");
+            out.write("final class " + INDEX + " {\n\n");
+            out.write("    static PacketDecoder[] decoders() {\n");
+            out.write("        return new PacketDecoder[] {\n");
+
+            for (String name : decoders) {
+                out.write("            new " + name + "(),\n");
+            }
+            out.write("        };\n");
+            out.write("    }\n\n");
+            out.write("    private " + INDEX + "() {}\n");
+            out.write("}\n");
+        }
+    }
+
+    /**
+     * Determines if the argued element has a packet opcode header.
+     *
+     * @param element
+     *            the element to check.
+     * @return <code>true</code> if it has the header, <code>false</code>
+     *         otherwise.
+     */
+    private static boolean hasHeader(Element element) {
+        return element.getAnnotationMirrors().stream().anyMatch(
+            m -> ((TypeElement) m.getAnnotationType().asElement())
+                .getQualifiedName().contentEquals(HEADER));
+    }
+
+    /**
+     * Reports an error that fails the compilation.
+     *
+     * @param element
+     *            the element the error is for, or <code>null</code> if it is
+     *            not for any element.
+     * @param message
+     *            the message describing the error.
+     */
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+    }
+}
@@ -4,6 +4,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.asteria.engine.GameEngine;
+import com.asteria.engine.ThreadPoolBuilder.BlockingThreadPool;
 import com.asteria.engine.net.HostGateway;
 import com.asteria.engine.net.ServerEngine;
 import com.asteria.engine.net.packet.PacketDecoder;
@@ -14,6 +15,7 @@ import com.asteria.world.entity.npc.Npc;
 import com.asteria.world.entity.npc.NpcAggression;
 import com.asteria.world.entity.npc.NpcDefinition;
 import com.asteria.world.entity.npc.NpcDropTable;
+import com.asteria.world.entity.player.content.ActionButtons;
 import com.asteria.world.entity.player.content.RestoreStatTask;
 import com.asteria.world.entity.player.content.SkillRequirements;
 import com.asteria.world.entity.player.content.WeaponAnimations;
@@ -22,6 +24,7 @@ import com.asteria.world.entity.player.minigame.Minigames;
 import com.asteria.world.entity.player.skill.Skills;
 import com.asteria.world.item.ItemDefinition;
 import com.asteria.world.item.ground.GroundItemManager;
+import com.asteria.world.map.CollisionMap;
 import com.asteria.world.object.WorldObjectManager;
 import com.asteria.world.shop.Shop;
 
@@ -53,23 +56,32 @@ public final class Main {
             // The stopwatch for timing how long all this takes.
             Stopwatch timer = new Stopwatch().reset();
 
-            // Load all utilities.
-            NpcDropTable.parseDrops().load();
-            ItemDefinition.parseItems().load();
+            // Load all utilities that do not depend on each other in
+            // parallel.
+            BlockingThreadPool pool = new BlockingThreadPool();
+            pool.append(() -> NpcDropTable.parseDrops().load());
+            pool.append(() -> ItemDefinition.parseItems().load());
+            pool.append(() -> CollisionMap.load());
+            pool.append(() -> NpcDefinition.parseNpcs().load());
+            pool.append(() -> SkillRequirements.parseRequirements().load());
+            pool.append(() -> WeaponAnimations.parseAnimations().load());
+            pool.append(() -> WeaponInterfaces.parseInterfaces().load());
+            pool.append(() -> HostGateway.loadBannedHosts());
+            pool.append(() -> Skills.loadSkills());
+            pool.append(() -> PacketDecoder.loadDecoders());
+            pool.append(() -> ActionButtons.load());
+            pool.append(() -> Minigames.loadMinigames());
+            pool.append(() -> CombatPoisonData.loadPoisonData());
+            pool.append(() -> NpcAggression.loadPolicies());
+            pool.fireAndAwait();
+
+            // Then load the utilities that need the definitions or the
+            // collision map, which place things in the world and so are
+            // loaded one after another.
             WorldObjectManager.parseObjects().load();
-            NpcDefinition.parseNpcs().load();
             Shop.parseShops().load();
             GroundItemManager.parseItems().load();
             Npc.parseNpcs().load();
-            SkillRequirements.parseRequirements().load();
-            WeaponAnimations.parseAnimations().load();
-            WeaponInterfaces.parseInterfaces().load();
-            HostGateway.loadBannedHosts();
-            Skills.loadSkills();
-            PacketDecoder.loadDecoders();
-            Minigames.loadMinigames();
-            CombatPoisonData.loadPoisonData();
-            NpcAggression.loadPolicies();
             logger.info("Sucessfully loaded all utilities!");
 
             // Initialize and start the reactor.
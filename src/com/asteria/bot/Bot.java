@@ -0,0 +1,411 @@
+package com.asteria.bot;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.asteria.engine.net.ISAACCipher;
+import com.asteria.engine.net.ProtocolBuffer;
+import com.asteria.util.Utility;
+
+/**
+ * A single headless client that logs into the server using the same login
+ * handshake as the <tt>317</tt> client, and then sends scripted
+ * {@link BotAction}s every cycle. Bots are only ever used by the
+ * {@link LoadBot} thread, so none of the code in here is thread safe.
+ *
+ * @author lare96
+ */
+public final class Bot {
+
+    /** The public RSA modulus that matches the private key of the server. */
+    private static final BigInteger RSA_MODULUS = new BigInteger(
+        "94306533927366675756465748344550949689550982334568289470527341681445613288505954291473168510012417401156971344988779343797488043615702971738296505168869556915772193568338164756326915583511871429998053169912492097791139829802309908513249248934714848531624001166946082342750924060600795950241816621880914628143");
+
+    /** The public RSA exponent that matches the private key of the server. */
+    private static final BigInteger RSA_EXPONENT = BigInteger.valueOf(65537);
+
+    /** The password that every bot logs in with. */
+    private static final String PASSWORD = "loadbot";
+
+    /** The load test this bot is a part of. */
+    private final LoadBot load;
+
+    /** The username of this bot. */
+    private final String username;
+
+    /** The buffer that incoming data is read into. */
+    private final ByteBuffer inData = ByteBuffer.allocate(4096);
+
+    /** The buffer that outgoing data is queued in. */
+    private ByteBuffer outData = ByteBuffer.allocate(512);
+
+    /** The socket channel for this bot. */
+    private SocketChannel channel;
+
+    /** The selection key for this bot. */
+    private SelectionKey key;
+
+    /** The cipher used to encrypt outgoing packet opcodes. */
+    private ISAACCipher encryptor;
+
+    /** The current stage of this bot. */
+    private Stage stage = Stage.CONNECTING;
+
+    /** The position that this bot wanders around, once it has logged in. */
+    private int anchorX, anchorY;
+
+    /** When this bot started connecting, in nanoseconds. */
+    private long connectStart;
+
+    /** When data was last read, in nanoseconds. */
+    private long lastRead;
+
+    /** When the last burst of data from the server started, in nanoseconds. */
+    private long burstStart;
+
+    /**
+     * Create a new {@link Bot}.
+     *
+     * @param load
+     *            the load test this bot is a part of.
+     * @param username
+     *            the username of this bot.
+     */
+    public Bot(LoadBot load, String username) {
+        this.load = load;
+        this.username = username;
+    }
+
+    /**
+     * Starts connecting this bot to the server.
+     *
+     * @param selector
+     *            the selector that will handle this bot's events.
+     * @param address
+     *            the address of the server.
+     * @throws IOException
+     *             if any errors occur while opening the socket.
+     */
+    public void connect(Selector selector, InetSocketAddress address)
+        throws IOException {
+        connectStart = System.nanoTime();
+        channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+
+        if (channel.connect(address))
+            finishConnect();
+    }
+
+    /**
+     * Finishes connecting this bot and sends the login request.
+     *
+     * @throws IOException
+     *             if any errors occur while connecting.
+     */
+    public void finishConnect() throws IOException {
+        if (!channel.finishConnect())
+            return;
+
+        key.interestOps(SelectionKey.OP_READ);
+        ProtocolBuffer out = new ProtocolBuffer(2);
+        out.writeByte(14);
+        out.writeByte((int) (Utility.nameToHash(username) >> 16 & 31));
+        queue(out);
+        stage = Stage.HANDSHAKE;
+    }
+
+    /**
+     * Reads and handles all of the data that is available from the server.
+     *
+     * @throws IOException
+     *             if any errors occur while reading.
+     */
+    public void read() throws IOException {
+        int read = channel.read(inData);
+
+        if (read == -1) {
+            close();
+            return;
+        }
+
+        long now = System.nanoTime();
+        inData.flip();
+
+        switch (stage) {
+        case HANDSHAKE:
+            if (inData.remaining() < 17)
+                break;
+
+            // Skip the ignored bytes and the response, and send the login
+            // block using the server's session key.
+            inData.getLong();
+            inData.get();
+            login(inData.getLong());
+            stage = Stage.LOGGING_IN;
+            break;
+        case LOGGING_IN:
+            if (inData.remaining() < 3)
+                break;
+
+            int response = inData.get();
+            inData.get();
+            inData.get();
+
+            if (response != Utility.LOGIN_RESPONSE_OK) {
+                load.loginFailed(this, response);
+                close();
+                return;
+            }
+            stage = Stage.ONLINE;
+            lastRead = now;
+            load.loggedIn(this, now - connectStart);
+            break;
+        case ONLINE:
+
+            // The server writes to each socket once per cycle, so a read
+            // after a long enough pause is the start of a new cycle.
+            if (now - lastRead > LoadBot.BURST_GAP) {
+                if (burstStart > 0)
+                    load.cycleObserved(now - burstStart);
+                burstStart = now;
+            }
+            lastRead = now;
+            load.bytesReceived(read);
+            inData.position(inData.limit());
+            break;
+        default:
+            break;
+        }
+        inData.compact();
+    }
+
+    /**
+     * Writes as much of the queued outgoing data as the socket will accept.
+     *
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    public void write() throws IOException {
+        outData.flip();
+        channel.write(outData);
+
+        if (outData.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+        outData.compact();
+    }
+
+    /**
+     * Sends a scripted action for this cycle, if this bot is online.
+     *
+     * @param random
+     *            the random generator used to pick the action.
+     * @param online
+     *            the amount of bots that are currently online.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    public void act(Random random, int online) throws IOException {
+        if (stage != Stage.ONLINE)
+            return;
+
+        ProtocolBuffer payload = new ProtocolBuffer(64);
+        BotAction action = BotAction.random(random);
+        action.write(this, payload, random, online);
+        send(action.getOpcode(), action.isVariable(), payload);
+    }
+
+    /**
+     * Sends a command to the server, as if it was typed after <tt>::</tt>.
+     *
+     * @param command
+     *            the command to send.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    public void command(String command) throws IOException {
+        ProtocolBuffer payload = new ProtocolBuffer(command.length() + 1);
+        payload.writeString(command);
+        send(103, true, payload);
+    }
+
+    /**
+     * Sets the position this bot will wander around, and teleports the bot
+     * there.
+     *
+     * @param x
+     *            the x coordinate to wander around.
+     * @param y
+     *            the y coordinate to wander around.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    public void anchor(int x, int y) throws IOException {
+        anchorX = x;
+        anchorY = y;
+        command("tele " + x + " " + y);
+    }
+
+    /**
+     * Closes the connection for this bot.
+     */
+    public void close() {
+        if (stage == Stage.CLOSED)
+            return;
+
+        boolean online = stage == Stage.ONLINE;
+        stage = Stage.CLOSED;
+
+        try {
+            if (key != null)
+                key.cancel();
+            if (channel != null)
+                channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        load.closed(this, online);
+    }
+
+    /**
+     * Encrypts and sends the login block.
+     *
+     * @param serverSeed
+     *            the session key sent by the server.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private void login(long serverSeed) throws IOException {
+        long clientSeed = load.getRandom().nextLong();
+
+        // Build and encrypt the secure block.
+        ProtocolBuffer rsa = new ProtocolBuffer(64);
+        rsa.writeByte(10);
+        rsa.writeLong(clientSeed);
+        rsa.writeLong(serverSeed);
+        rsa.writeInt(0);
+        rsa.writeString(username);
+        rsa.writeString(PASSWORD);
+        byte[] secure = Arrays.copyOf(rsa.getBuffer().array(), rsa
+            .getBuffer().position());
+        byte[] block = new BigInteger(secure).modPow(RSA_EXPONENT,
+            RSA_MODULUS).toByteArray();
+
+        // Then the rest of the login block.
+        ProtocolBuffer out = new ProtocolBuffer(block.length + 43);
+        out.writeByte(16);
+        out.writeByte(block.length + 41);
+        out.writeByte(255);
+        out.writeShort(317);
+        out.writeByte(0);
+
+        for (int i = 0; i < 9; i++) {
+            out.writeInt(0);
+        }
+        out.writeByte(block.length);
+        out.writeBytes(block, block.length);
+        queue(out);
+
+        // The server decrypts with the seed we just sent.
+        encryptor = new ISAACCipher(new int[] { (int) (clientSeed >> 32),
+                (int) clientSeed, (int) (serverSeed >> 32), (int) serverSeed });
+    }
+
+    /**
+     * Sends a packet with an encrypted opcode to the server.
+     *
+     * @param opcode
+     *            the opcode of the packet.
+     * @param variable
+     *            if the length of the packet should be written.
+     * @param payload
+     *            the contents of the packet.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private void send(int opcode, boolean variable, ProtocolBuffer payload)
+        throws IOException {
+        int length = payload.getBuffer().position();
+        ProtocolBuffer out = new ProtocolBuffer(length + 2);
+        out.writeByte(opcode + encryptor.getKey());
+
+        if (variable)
+            out.writeByte(length);
+        out.writeBytes(payload.getBuffer().array(), length);
+        load.bytesSent(out.getBuffer().position());
+        queue(out);
+    }
+
+    /**
+     * Queues the contents of the argued buffer and attempts to write it.
+     *
+     * @param out
+     *            the buffer to queue.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private void queue(ProtocolBuffer out) throws IOException {
+        ByteBuffer buf = out.getBuffer();
+        buf.flip();
+
+        if (outData.remaining() < buf.remaining()) {
+            ByteBuffer old = outData;
+            outData = ByteBuffer.allocate(old.capacity() * 2 + buf.remaining());
+            old.flip();
+            outData.put(old);
+        }
+        outData.put(buf);
+        write();
+    }
+
+    /**
+     * Gets the username of this bot.
+     *
+     * @return the username.
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the x coordinate this bot wanders around.
+     *
+     * @return the anchor x coordinate.
+     */
+    public int getAnchorX() {
+        return anchorX;
+    }
+
+    /**
+     * Gets the y coordinate this bot wanders around.
+     *
+     * @return the anchor y coordinate.
+     */
+    public int getAnchorY() {
+        return anchorY;
+    }
+
+    /**
+     * The stages of a bot's connection.
+     *
+     * @author lare96
+     */
+    private enum Stage {
+        CONNECTING,
+        HANDSHAKE,
+        LOGGING_IN,
+        ONLINE,
+        CLOSED
+    }
+}
@@ -0,0 +1,147 @@
+package com.asteria.bot;
+
+import java.util.Random;
+
+import com.asteria.engine.net.ProtocolBuffer;
+import com.asteria.engine.net.ProtocolBuffer.ByteOrder;
+import com.asteria.engine.net.ProtocolBuffer.ValueType;
+import com.asteria.util.Utility;
+
+/**
+ * The scripted actions that a {@link Bot} can perform every cycle. Each action
+ * writes the contents of the same packet that the <tt>317</tt> client would
+ * send, and is picked at random based on its weight.
+ *
+ * @author lare96
+ */
+public enum BotAction {
+    IDLE(0, false, 4) {
+        @Override
+        public void write(Bot bot, ProtocolBuffer out, Random random,
+            int online) {}
+    },
+    WALK(164, true, 4) {
+        @Override
+        public void write(Bot bot, ProtocolBuffer out, Random random,
+            int online) {
+            out.writeShort(bot.getAnchorX() + random.nextInt(11) - 5,
+                ValueType.A, ByteOrder.LITTLE);
+            out.writeShort(bot.getAnchorY() + random.nextInt(11) - 5,
+                ByteOrder.LITTLE);
+            out.writeByte(random.nextBoolean() ? 1 : 0, ValueType.C);
+        }
+    },
+    CHAT(4, true, 1) {
+        @Override
+        public void write(Bot bot, ProtocolBuffer out, Random random,
+            int online) {
+            byte[] text = Utility.textPack(MESSAGES[random
+                .nextInt(MESSAGES.length)]);
+            out.writeByte(0, ValueType.S);
+            out.writeByte(random.nextInt(12), ValueType.S);
+
+            for (int i = text.length - 1; i >= 0; i--) {
+                out.writeByte(text[i], ValueType.A);
+            }
+        }
+    },
+    ATTACK(73, false, 1) {
+        @Override
+        public void write(Bot bot, ProtocolBuffer out, Random random,
+            int online) {
+            out.writeShort(random.nextInt(online) + 1, ByteOrder.LITTLE);
+        }
+    },
+    TRADE(139, false, 1) {
+        @Override
+        public void write(Bot bot, ProtocolBuffer out, Random random,
+            int online) {
+            out.writeShort(random.nextInt(online) + 1, ByteOrder.LITTLE);
+        }
+    };
+
+    /** The messages that bots pick from when chatting. */
+    private static final String[] MESSAGES = { "hello", "selling lobsters",
+            "buying logs", "anyone want to trade?", "fight me", "lol" };
+
+    /** The total weight of every action. */
+    private static final int TOTAL_WEIGHT = 11;
+
+    /** The opcode of the packet sent for this action. */
+    private final int opcode;
+
+    /** If the packet sent for this action has a variable length. */
+    private final boolean variable;
+
+    /** How likely this action is to be picked. */
+    private final int weight;
+
+    /**
+     * Create a new {@link BotAction}.
+     *
+     * @param opcode
+     *            the opcode of the packet sent for this action.
+     * @param variable
+     *            if the packet sent for this action has a variable length.
+     * @param weight
+     *            how likely this action is to be picked.
+     */
+    private BotAction(int opcode, boolean variable, int weight) {
+        this.opcode = opcode;
+        this.variable = variable;
+        this.weight = weight;
+    }
+
+    /**
+     * Writes the contents of the packet for this action.
+     *
+     * @param bot
+     *            the bot performing this action.
+     * @param out
+     *            the buffer to write the contents to.
+     * @param random
+     *            the random generator used to pick targets.
+     * @param online
+     *            the amount of bots that are currently online.
+     */
+    public abstract void write(Bot bot, ProtocolBuffer out, Random random,
+        int online);
+
+    /**
+     * Picks a random action based on the weight of every action.
+     *
+     * @param random
+     *            the random generator used to pick the action.
+     * @return the action that was picked.
+     */
+    public static BotAction random(Random random) {
+        int roll = random.nextInt(TOTAL_WEIGHT);
+
+        for (BotAction action : values()) {
+            roll -= action.weight;
+
+            if (roll < 0)
+                return action;
+        }
+        return IDLE;
+    }
+
+    /**
+     * Gets the opcode of the packet sent for this action.
+     *
+     * @return the opcode.
+     */
+    public int getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * Determines if the packet sent for this action has a variable length.
+     *
+     * @return <code>true</code> if the length is variable, <code>false</code>
+     *         otherwise.
+     */
+    public boolean isVariable() {
+        return variable;
+    }
+}
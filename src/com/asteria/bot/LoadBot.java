@@ -0,0 +1,402 @@
+package com.asteria.bot;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.asteria.engine.GameEngine;
+import com.asteria.util.Histogram;
+
+/**
+ * A headless load generator that logs thousands of {@link Bot}s into a local
+ * server from a single thread, and has them perform scripted
+ * {@link BotAction}s every cycle. While running it reports the login
+ * throughput, how often the server is observed sending each cycle, and how
+ * many bytes each player sends and receives per cycle. When finished, a
+ * summary is appended to <tt>./benchmarks/loadbot.txt</tt>.
+ * <p>
+ * The arguments are, in order and all optional: the amount of bots, the
+ * amount of logins started per second, the duration in seconds, the radius
+ * around home that bots are spread across, the host and the port.
+ *
+ * @author lare96
+ */
+public final class LoadBot {
+
+    /** A logger for printing the reports. */
+    private static Logger logger = Logger.getLogger(LoadBot.class
+        .getSimpleName());
+
+    /** The prefix of every bot's username. */
+    public static final String USERNAME_PREFIX = "loadbot";
+
+    /**
+     * The pause in nanoseconds between reads that marks the start of a new
+     * cycle, half of the cycle rate.
+     */
+    public static final long BURST_GAP = TimeUnit.MILLISECONDS
+        .toNanos(GameEngine.CYCLE_RATE / 2);
+
+    /** The coordinates that bots are spread around. */
+    private static final int HOME_X = 3093, HOME_Y = 3244;
+
+    /** The amount of seconds between each report. */
+    private static final int REPORT_RATE = 10;
+
+    /** The random generator used by every bot, seeded for repeat runs. */
+    private final Random random = new Random(317);
+
+    /** The bots that have been started. */
+    private final List<Bot> bots = new ArrayList<>();
+
+    /** The time between logging in and the login response in milliseconds. */
+    private final Histogram loginTimes = new Histogram();
+
+    /** The observed time between cycles in milliseconds. */
+    private final Histogram cycleTimes = new Histogram();
+
+    /** The amount of bots to log in. */
+    private final int amount;
+
+    /** The amount of logins to start every second. */
+    private final int loginRate;
+
+    /** The amount of seconds to run for. */
+    private final int duration;
+
+    /** The radius around home that bots are spread across. */
+    private final int spread;
+
+    /** The address of the server. */
+    private final InetSocketAddress address;
+
+    /** The amount of bots currently online. */
+    private int online;
+
+    /** The amount of bots that have logged in, in total and this report. */
+    private int logins, reportLogins;
+
+    /** The amount of bots that failed to log in. */
+    private int failures;
+
+    /** The amount of bots that were disconnected after logging in. */
+    private int disconnects;
+
+    /** The bytes received and sent since the last report. */
+    private long bytesIn, bytesOut;
+
+    /** The bytes received and sent in total. */
+    private long totalBytesIn, totalBytesOut;
+
+    /** The sum of the bots online at each cycle, used for averages. */
+    private long onlineCycles, reportOnlineCycles;
+
+    /** If the load test has finished and the bots are being closed. */
+    private boolean finished;
+
+    /**
+     * Create a new {@link LoadBot}.
+     *
+     * @param amount
+     *            the amount of bots to log in.
+     * @param loginRate
+     *            the amount of logins to start every second.
+     * @param duration
+     *            the amount of seconds to run for.
+     * @param spread
+     *            the radius around home that bots are spread across.
+     * @param address
+     *            the address of the server.
+     */
+    public LoadBot(int amount, int loginRate, int duration, int spread,
+        InetSocketAddress address) {
+        this.amount = amount;
+        this.loginRate = loginRate;
+        this.duration = duration;
+        this.spread = spread;
+        this.address = address;
+    }
+
+    /**
+     * The main method that starts the load test.
+     *
+     * @param args
+     *            the arguments, described in the class documentation.
+     * @throws Exception
+     *             if any errors occur during the load test.
+     */
+    public static void main(String[] args) throws Exception {
+        int amount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int loginRate = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int duration = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int spread = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        String host = args.length > 4 ? args[4] : "127.0.0.1";
+        int port = args.length > 5 ? Integer.parseInt(args[5]) : 43594;
+
+        // Check that the arguments are valid before any bots are started.
+        if (amount <= 0 || loginRate <= 0 || duration <= 0) {
+            throw new IllegalArgumentException("The amount, login rate and "
+                + "duration must be above 0! Were: " + amount + ", "
+                + loginRate + ", " + duration);
+        } else if (spread < 0) {
+            throw new IllegalArgumentException(
+                "The spread cannot be below 0! Spread was: " + spread);
+        }
+
+        new LoadBot(amount, loginRate, duration, spread, new InetSocketAddress(
+            host, port)).run();
+    }
+
+    /**
+     * Runs the load test on the calling thread until the duration has passed,
+     * and then disconnects every bot.
+     *
+     * @throws IOException
+     *             if any errors occur with the selector.
+     */
+    public void run() throws IOException {
+        logger.info("Starting " + amount + " bots at " + loginRate
+            + "/s for " + duration + "s against " + address + "...");
+
+        try (Selector selector = Selector.open()) {
+            long start = System.currentTimeMillis();
+            long end = start + TimeUnit.SECONDS.toMillis(duration);
+            long nextCycle = start + GameEngine.CYCLE_RATE;
+            long nextReport = start + TimeUnit.SECONDS.toMillis(REPORT_RATE);
+
+            while (System.currentTimeMillis() < end) {
+                long now = System.currentTimeMillis();
+
+                // Start new connections at the login rate.
+                long due = Math.min(amount, (now - start) * loginRate
+                    / 1000 + 1);
+
+                while (bots.size() < due) {
+                    Bot bot = new Bot(this, USERNAME_PREFIX + bots.size());
+                    bots.add(bot);
+
+                    try {
+                        bot.connect(selector, address);
+                    } catch (IOException e) {
+                        failures++;
+                        bot.close();
+                    }
+                }
+
+                // Handle the network events for every bot, waking up in time
+                // for the next login, cycle or report.
+                long wake = Math.min(nextCycle, nextReport);
+
+                if (bots.size() < amount)
+                    wake = Math.min(wake, now + Math.max(1, 1000 / loginRate));
+                selector.select(Math.max(1, wake - now));
+
+                for (Iterator<SelectionKey> it = selector.selectedKeys()
+                    .iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Bot bot = (Bot) key.attachment();
+
+                    try {
+                        if (key.isConnectable())
+                            bot.finishConnect();
+                        if (key.isValid() && key.isReadable())
+                            bot.read();
+                        if (key.isValid() && key.isWritable())
+                            bot.write();
+                    } catch (IOException e) {
+                        bot.close();
+                    }
+                }
+
+                // Send the scripted actions once every cycle.
+                now = System.currentTimeMillis();
+
+                if (now >= nextCycle) {
+                    nextCycle += GameEngine.CYCLE_RATE;
+                    onlineCycles += online;
+                    reportOnlineCycles += online;
+
+                    for (Bot bot : bots) {
+                        try {
+                            bot.act(random, Math.max(1, online));
+                        } catch (IOException e) {
+                            bot.close();
+                        }
+                    }
+                }
+
+                // Print a report of the last few seconds.
+                if (now >= nextReport) {
+                    nextReport += TimeUnit.SECONDS.toMillis(REPORT_RATE);
+                    logger.info(report());
+                    reportLogins = 0;
+                    reportOnlineCycles = 0;
+                    bytesIn = 0;
+                    bytesOut = 0;
+                }
+            }
+            finished = true;
+            bots.forEach(Bot::close);
+        }
+        summarize();
+    }
+
+    /**
+     * Called by a bot when it has successfully logged in.
+     *
+     * @param bot
+     *            the bot that logged in.
+     * @param elapsed
+     *            the time in nanoseconds from connecting until the login
+     *            response.
+     * @throws IOException
+     *             if any errors occur while spreading the bot out.
+     */
+    public void loggedIn(Bot bot, long elapsed) throws IOException {
+        online++;
+        logins++;
+        reportLogins++;
+        loginTimes.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        bot.anchor(HOME_X + random.nextInt(spread * 2 + 1) - spread, HOME_Y
+            + random.nextInt(spread * 2 + 1) - spread);
+    }
+
+    /**
+     * Called by a bot when the server rejected its login.
+     *
+     * @param bot
+     *            the bot that failed to log in.
+     * @param response
+     *            the login response sent by the server.
+     */
+    public void loginFailed(Bot bot, int response) {
+        failures++;
+        logger.warning(bot.getUsername() + " failed to log in, response: "
+            + response);
+    }
+
+    /**
+     * Called by a bot when its connection is closed.
+     *
+     * @param bot
+     *            the bot that was closed.
+     * @param wasOnline
+     *            if the bot was logged in when it was closed.
+     */
+    public void closed(Bot bot, boolean wasOnline) {
+        if (wasOnline) {
+            online--;
+
+            if (!finished)
+                disconnects++;
+        }
+    }
+
+    /**
+     * Called by a bot when it observes the start of a new cycle.
+     *
+     * @param elapsed
+     *            the time in nanoseconds since the start of the last cycle.
+     */
+    public void cycleObserved(long elapsed) {
+        cycleTimes.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Called by a bot when it receives data after logging in.
+     *
+     * @param amount
+     *            the amount of bytes received.
+     */
+    public void bytesReceived(int amount) {
+        bytesIn += amount;
+        totalBytesIn += amount;
+    }
+
+    /**
+     * Called by a bot when it sends a packet after logging in.
+     *
+     * @param amount
+     *            the amount of bytes sent.
+     */
+    public void bytesSent(int amount) {
+        bytesOut += amount;
+        totalBytesOut += amount;
+    }
+
+    /**
+     * Builds a single line report of the statistics since the last report.
+     *
+     * @return the report.
+     */
+    private String report() {
+        return "online=" + online + " logins="
+            + (reportLogins / (double) REPORT_RATE) + "/s failed=" + failures
+            + " dropped=" + disconnects + " login(ms) p50="
+            + loginTimes.percentile(50) + " p99=" + loginTimes.percentile(99)
+            + " cycle(ms) p50=" + cycleTimes.percentile(50) + " p99="
+            + cycleTimes.percentile(99) + " max=" + cycleTimes.max()
+            + " bytes/player/cycle in=" + perPlayer(bytesIn, reportOnlineCycles)
+            + " out=" + perPlayer(bytesOut, reportOnlineCycles);
+    }
+
+    /**
+     * Appends a summary of the entire load test to
+     * <tt>./benchmarks/loadbot.txt</tt>.
+     */
+    private void summarize() {
+        String summary = "bots=" + amount + " rate=" + loginRate
+            + "/s duration=" + duration + "s spread=" + spread + "\nlogins="
+            + logins + " failed=" + failures + " dropped=" + disconnects
+            + " login(ms) p50=" + loginTimes.percentile(50) + " p99="
+            + loginTimes.percentile(99) + " max=" + loginTimes.max()
+            + "\ncycle(ms) p50=" + cycleTimes.percentile(50) + " p99="
+            + cycleTimes.percentile(99) + " max=" + cycleTimes.max()
+            + "\nbytes/player/cycle in=" + perPlayer(totalBytesIn, onlineCycles)
+            + " out=" + perPlayer(totalBytesOut, onlineCycles);
+        logger.info("Finished!\n" + summary);
+
+        try (
+            FileWriter writer = new FileWriter(new File(
+                "./benchmarks/loadbot.txt"), true)) {
+            writer.write("[loadbot] " + new Date() + "\n");
+            writer.write(summary);
+            writer.write("\n\n\n");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Calculates the average amount of bytes per player per cycle.
+     *
+     * @param bytes
+     *            the amount of bytes.
+     * @param playerCycles
+     *            the sum of the players online at every cycle.
+     * @return the average amount of bytes.
+     */
+    private static long perPlayer(long bytes, long playerCycles) {
+        return playerCycles == 0 ? 0 : bytes / playerCycles;
+    }
+
+    /**
+     * Gets the random generator used by every bot.
+     *
+     * @return the random generator.
+     */
+    public Random getRandom() {
+        return random;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import com.asteria.engine.TickProfiler.Phase;
 import com.asteria.engine.net.ServerEngine;
 import com.asteria.engine.task.TaskManager;
 import com.asteria.world.World;
@@ -18,6 +19,9 @@ import com.asteria.world.World;
  */
 public final class GameEngine implements Runnable {
 
+    /** The amount of time in milliseconds that one game cycle should take. */
+    public static final int CYCLE_RATE = 600;
+
     /** A sequential executor that acts as the main game thread. */
     private static final ScheduledExecutorService gameExecutor = Executors
         .newSingleThreadScheduledExecutor(new ThreadBuilder("Game-Thread",
@@ -32,23 +36,30 @@ public final class GameEngine implements Runnable {
         .build("Service-Thread", 1, Thread.MIN_PRIORITY);
 
     /**
-     * Schedule the task that will execute game code at 600ms intervals. This
-     * method should only be called <b>once</b> when the server is launched.
+     * Schedule the task that will execute game code every {@link #CYCLE_RATE}
+     * milliseconds. This method should only be called <b>once</b> when the
+     * server is launched.
      */
     public static void init() {
-        gameExecutor.scheduleAtFixedRate(new GameEngine(), 0, 600,
+        gameExecutor.scheduleAtFixedRate(new GameEngine(), 0, CYCLE_RATE,
             TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void run() {
+        long cycle = TickProfiler.start();
+
         try {
 
             // Handle all cycle-based tasks.
+            long start = TickProfiler.start();
             TaskManager.tick();
+            TickProfiler.record(Phase.TASKS, start);
 
             // Handle all networking events.
+            start = TickProfiler.start();
             ServerEngine.tick();
+            TickProfiler.record(Phase.NETWORK, start);
 
             // Handle processing for entities.
             World.tick();
@@ -58,6 +69,8 @@ public final class GameEngine implements Runnable {
             // they are then we print the error and save all online players.
             e.printStackTrace();
             World.savePlayers();
+        } finally {
+            TickProfiler.endCycle(cycle);
         }
     }
 
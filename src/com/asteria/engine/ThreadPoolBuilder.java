@@ -7,6 +7,7 @@ import java.util.concurrent.Phaser;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -90,6 +91,9 @@ public final class ThreadPoolBuilder {
         /** A queue that will hold all of the pending tasks. */
         private final Queue<Runnable> pendingTasks = new ArrayDeque<>();
 
+        /** The first error thrown by any of the tasks. */
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
         /**
          * Create a new {@link BlockingThreadPool} with the argued size.
          * 
@@ -120,7 +124,7 @@ public final class ThreadPoolBuilder {
          * @param r
          *            the task to add to the queue of pending tasks.
          */
-        public void append(Runnable r) {
+        public void append(BlockingTask r) {
 
             // Register a new party for the phaser.
             phaser.register();
@@ -131,7 +135,7 @@ public final class ThreadPoolBuilder {
                 try {
                     r.run();
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    failure.compareAndSet(null, e);
                 } finally {
                     phaser.arrive();
                 }
@@ -142,8 +146,12 @@ public final class ThreadPoolBuilder {
          * Submit all of the pending tasks to the backing thread pool and wait
          * for them to complete. Once all of the tasks have completed the
          * backing thread pool will shutdown.
+         * 
+         * @throws Exception
+         *             the first error thrown by any of the tasks, once all of
+         *             them have completed.
          */
-        public void fireAndAwait() {
+        public void fireAndAwait() throws Exception {
 
             // Submit all pending tasks to the executor.
             Runnable r;
@@ -156,8 +164,30 @@ public final class ThreadPoolBuilder {
 
             // Then shutdown the executor.
             executor.shutdownNow();
+
+            if (failure.get() != null) {
+                throw failure.get();
+            }
         }
     }
 
+    /**
+     * A task that is executed by a {@link BlockingThreadPool}, which unlike a
+     * {@link Runnable} is able to throw errors.
+     * 
+     * @author lare96
+     */
+    @FunctionalInterface
+    public interface BlockingTask {
+
+        /**
+         * Executes this task.
+         * 
+         * @throws Exception
+         *             if any errors occur while executing.
+         */
+        void run() throws Exception;
+    }
+
     private ThreadPoolBuilder() {}
 }
@@ -0,0 +1,247 @@
+package com.asteria.engine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.asteria.util.Histogram;
+
+/**
+ * A static utility that records how long each phase of the {@link GameEngine}
+ * takes to execute, how long each packet takes to decode, and how many bytes
+ * are sent and received every cycle. Everything is recorded into
+ * {@link Histogram}s so the profiler can be left on at all times, the results
+ * can be viewed in game with the <code>::profile</code> command or written to
+ * <tt>./benchmarks/tick-profile.txt</tt>.
+ *
+ * @author lare96
+ */
+public final class TickProfiler {
+
+    /** The latencies recorded for each phase in microseconds. */
+    private static final Map<Phase, Histogram> phases = new EnumMap<>(
+        Phase.class);
+
+    /** The decode latencies recorded for each packet in microseconds. */
+    private static final Histogram[] decodes = new Histogram[256];
+
+    /** The amount of bytes received every cycle. */
+    private static final Histogram bytesIn = new Histogram();
+
+    /** The amount of bytes sent every cycle. */
+    private static final Histogram bytesOut = new Histogram();
+
+    /** The amount of bytes received so far this cycle. */
+    private static final AtomicLong cycleBytesIn = new AtomicLong();
+
+    /** The amount of bytes sent so far this cycle. */
+    private static final AtomicLong cycleBytesOut = new AtomicLong();
+
+    /**
+     * The amount of cycles that took longer than
+     * {@link GameEngine#CYCLE_RATE}.
+     */
+    private static final AtomicLong overruns = new AtomicLong();
+
+    /** When the statistics started being recorded. */
+    private static volatile Date started = new Date();
+
+    static {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new Histogram());
+        }
+        for (int i = 0; i < decodes.length; i++) {
+            decodes[i] = new Histogram();
+        }
+    }
+
+    /** This class cannot be instantiated. */
+    private TickProfiler() {
+        throw new UnsupportedOperationException(
+            "This class cannot be instantiated!");
+    }
+
+    /**
+     * Gets a timestamp that should be passed back into one of the recording
+     * methods once the operation being timed has finished.
+     *
+     * @return the timestamp in nanoseconds.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records how long the argued phase took to execute.
+     *
+     * @param phase
+     *            the phase that finished executing.
+     * @param start
+     *            the timestamp from when the phase started.
+     */
+    public static void record(Phase phase, long start) {
+        phases.get(phase).record(elapsed(start));
+    }
+
+    /**
+     * Records how long the argued packet took to decode.
+     *
+     * @param opcode
+     *            the opcode of the packet that was decoded.
+     * @param start
+     *            the timestamp from when the packet started decoding.
+     */
+    public static void recordDecode(int opcode, long start) {
+        decodes[opcode & 0xff].record(elapsed(start));
+    }
+
+    /**
+     * Adds the argued amount of bytes to the amount received this cycle.
+     *
+     * @param amount
+     *            the amount of bytes received.
+     */
+    public static void recordBytesIn(int amount) {
+        if (amount > 0)
+            cycleBytesIn.addAndGet(amount);
+    }
+
+    /**
+     * Adds the argued amount of bytes to the amount sent this cycle.
+     *
+     * @param amount
+     *            the amount of bytes sent.
+     */
+    public static void recordBytesOut(int amount) {
+        if (amount > 0)
+            cycleBytesOut.addAndGet(amount);
+    }
+
+    /**
+     * Records how long the entire cycle took to execute, and how many bytes
+     * were sent and received during it. This should be called once at the end
+     * of every cycle.
+     *
+     * @param start
+     *            the timestamp from when the cycle started.
+     */
+    public static void endCycle(long start) {
+        long elapsed = elapsed(start);
+        phases.get(Phase.CYCLE).record(elapsed);
+
+        if (elapsed > TimeUnit.MILLISECONDS.toMicros(GameEngine.CYCLE_RATE))
+            overruns.incrementAndGet();
+
+        bytesIn.record(cycleBytesIn.getAndSet(0));
+        bytesOut.record(cycleBytesOut.getAndSet(0));
+    }
+
+    /**
+     * Builds a readable report of all the statistics recorded. Latencies are
+     * in microseconds and only packets that have been decoded are included.
+     *
+     * @return the lines of the report.
+     */
+    public static List<String> report() {
+        List<String> lines = new LinkedList<>();
+        lines.add("Profiled " + phases.get(Phase.CYCLE).count()
+            + " cycles since " + started + ", " + overruns.get()
+            + " overran.");
+
+        for (Phase phase : Phase.values()) {
+            lines.add(format(phase.name().toLowerCase(), phases.get(phase)));
+        }
+        lines.add(format("bytes in", bytesIn));
+        lines.add(format("bytes out", bytesOut));
+
+        for (int i = 0; i < decodes.length; i++) {
+            if (decodes[i].count() > 0)
+                lines.add(format("packet " + i, decodes[i]));
+        }
+        return lines;
+    }
+
+    /**
+     * Appends the report built by {@link #report()} to
+     * <tt>./benchmarks/tick-profile.txt</tt> using the service executor.
+     */
+    public static void dump() {
+        List<String> lines = report();
+
+        // No use doing this on the game thread, send it to the sequential pool.
+        GameEngine.getServiceExecutor().execute(() -> {
+            try (
+                FileWriter writer = new FileWriter(new File(
+                    "./benchmarks/tick-profile.txt"), true)) {
+                writer.write("[tick-profile] " + new Date() + "\n");
+
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write("\n");
+                }
+                writer.write("\n\n");
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /** Discards all of the statistics that have been recorded so far. */
+    public static void reset() {
+        phases.values().forEach(Histogram::reset);
+
+        for (Histogram h : decodes) {
+            h.reset();
+        }
+        bytesIn.reset();
+        bytesOut.reset();
+        overruns.set(0);
+        started = new Date();
+    }
+
+    /**
+     * Formats the argued histogram into a single line of the report.
+     *
+     * @param name
+     *            the name of the histogram.
+     * @param h
+     *            the histogram to format.
+     * @return the formatted line.
+     */
+    private static String format(String name, Histogram h) {
+        return name + ": p50=" + h.percentile(50) + " p99="
+            + h.percentile(99) + " max=" + h.max() + " avg=" + h.average()
+            + " n=" + h.count();
+    }
+
+    /**
+     * Calculates the amount of microseconds since the argued timestamp.
+     *
+     * @param start
+     *            the timestamp in nanoseconds.
+     * @return the elapsed time in microseconds.
+     */
+    private static long elapsed(long start) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+
+    /**
+     * The phases of a game cycle that are timed by the profiler.
+     *
+     * @author lare96
+     */
+    public enum Phase {
+        TASKS,
+        NETWORK,
+        PRE_UPDATE,
+        UPDATE,
+        POST_UPDATE,
+        CYCLE
+    }
+}
@@ -0,0 +1,188 @@
+package com.asteria.engine.net;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.logging.Logger;
+
+import com.asteria.engine.GameEngine;
+import com.asteria.engine.ThreadPoolBuilder;
+import com.asteria.engine.net.Session.Stage;
+import com.asteria.util.Utility;
+import com.asteria.world.entity.player.PlayerFileTask.ReadPlayerFileTask;
+
+/**
+ * A staged pipeline that takes the expensive parts of logging in off of the
+ * game thread. Once a session has received its entire login block the block
+ * is handed to this pipeline, where it moves through the following stages:
+ * <ol>
+ * <li>The RSA block is decrypted, the ISAAC ciphers are created and the
+ * credentials are validated on a login worker thread.</li>
+ * <li>The character file is loaded on the service thread, which makes sure
+ * that it is always read after any save for the same character that is still
+ * pending.</li>
+ * <li>The session is placed in a bounded queue of ready sessions, blocking
+ * the login worker if the game thread is falling behind.</li>
+ * <li>The game thread admits a limited amount of ready sessions every cycle
+ * through {@link #admit()}, adding their players to the world.</li>
+ * </ol>
+ * The amount of sessions admitted each cycle is limited so that a mass
+ * reconnect after a restart or a network outage is spread out over several
+ * cycles instead of stalling a single one.
+ *
+ * @author lare96
+ */
+public final class LoginPipeline {
+
+    /** The maximum amount of sessions admitted into the world every cycle. */
+    public static final int LOGINS_PER_CYCLE = 50;
+
+    /** The maximum amount of sessions that can be waiting for admission. */
+    private static final int READY_CAPACITY = 500;
+
+    /** The response code for a login block that could not be decoded. */
+    static final int RESPONSE_MALFORMED = -1;
+
+    /** A logger for printing debugging info. */
+    private static Logger logger = Logger.getLogger(LoginPipeline.class
+        .getSimpleName());
+
+    /** The thread pool that login blocks are decoded on. */
+    private static final ThreadPoolExecutor loginExecutor = ThreadPoolBuilder
+        .build("Login-Thread", Runtime.getRuntime().availableProcessors(),
+            Thread.NORM_PRIORITY);
+
+    /** The sessions that are ready to be admitted into the world. */
+    private static final BlockingQueue<PendingLogin> ready = new ArrayBlockingQueue<>(
+        READY_CAPACITY);
+
+    /**
+     * Submits the login block of the argued session to be decoded and loaded
+     * asynchronously.
+     *
+     * @param session
+     *            the session that is logging in.
+     * @param block
+     *            the contents of the login block, after the login type and
+     *            block length.
+     */
+    static void submit(Session session, byte[] block) {
+        loginExecutor.execute(() -> {
+
+            // The session stays in the authenticating stage until the login
+            // is admitted, so a response is queued no matter how this ends.
+            int response = Utility.LOGIN_RESPONSE_COULD_NOT_COMPLETE_LOGIN;
+
+            try {
+                response = session.decodeLogin(block);
+
+                // Load the character on the service thread, so that any save
+                // for this character is finished before it is read.
+                if (response == Utility.LOGIN_RESPONSE_OK) {
+                    response = GameEngine.getServiceExecutor().submit(
+                        new ReadPlayerFileTask(session.getPlayer())).get();
+                }
+            } catch (InterruptedException e) {
+                response = Utility.LOGIN_RESPONSE_COULD_NOT_COMPLETE_LOGIN;
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                e.printStackTrace();
+                response = Utility.LOGIN_RESPONSE_COULD_NOT_COMPLETE_LOGIN;
+            } finally {
+                queue(new PendingLogin(session, response));
+            }
+        });
+    }
+
+    /**
+     * Places the argued login in the queue of ready sessions, waiting for
+     * space if the queue is full. The login is queued even if the thread is
+     * interrupted while waiting, otherwise the session would never receive a
+     * response.
+     *
+     * @param login
+     *            the login to queue.
+     */
+    private static void queue(PendingLogin login) {
+        boolean interrupted = false;
+
+        while (true) {
+            try {
+                ready.put(login);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Admits up to {@link #LOGINS_PER_CYCLE} ready sessions into the world.
+     * This should only ever be called on the game thread.
+     */
+    public static void admit() {
+        for (int i = 0; i < LOGINS_PER_CYCLE; i++) {
+            PendingLogin login = ready.poll();
+
+            if (login == null) {
+                break;
+            }
+
+            // The session disconnected while it was being loaded.
+            if (login.session.getStage() != Stage.AUTHENTICATING) {
+                continue;
+            }
+
+            try {
+                login.session.finishLogin(login.response);
+            } catch (Exception e) {
+                logger.warning("Unable to complete login for " + login.session);
+                e.printStackTrace();
+                login.session.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of sessions waiting to be admitted into the world.
+     *
+     * @return the amount of waiting sessions.
+     */
+    public static int getWaiting() {
+        return ready.size();
+    }
+
+    /**
+     * A session that has been decoded and loaded, and is waiting to be
+     * admitted into the world.
+     *
+     * @author lare96
+     */
+    private static final class PendingLogin {
+
+        /** The session that is logging in. */
+        private final Session session;
+
+        /** The login response determined while decoding and loading. */
+        private final int response;
+
+        /**
+         * Create a new {@link PendingLogin}.
+         *
+         * @param session
+         *            the session that is logging in.
+         * @param response
+         *            the login response determined while decoding and loading.
+         */
+        public PendingLogin(Session session, int response) {
+            this.session = session;
+            this.response = response;
+        }
+    }
+
+    private LoginPipeline() {}
+}
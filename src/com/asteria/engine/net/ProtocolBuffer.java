@@ -2,6 +2,9 @@ package com.asteria.engine.net;
 
 import java.nio.ByteBuffer;
 
+import com.asteria.engine.net.packet.PacketIndex;
+import com.asteria.engine.net.packet.PacketIndex.Framing;
+
 /**
  * A resizable buffer implementation backed by a byte buffer, that is used for
  * reading and writing data.
@@ -99,22 +102,64 @@ public final class ProtocolBuffer {
 
     /**
      * Checks if the buffer can hold the amount of requested bytes. If the
-     * buffer cannot hold the specified amount, it will double in size until it
-     * is able to.
+     * buffer cannot hold the specified amount, it will grow so that it is able
+     * to.
      * 
      * @param requested
      *            the amount of requested bytes.
      */
     private void requestSpace(int requested) {
-        if ((buf.position() + requested + 1) >= buf.capacity()) {
-            int oldPosition = buf.position();
-            byte[] oldBuffer = buf.array();
-            int newLength = (buf.capacity() * 2);
-            buf = ByteBuffer.allocate(newLength);
-            buf.position(oldPosition);
-            System.arraycopy(oldBuffer, 0, buf.array(), 0, oldBuffer.length);
-            requestSpace(requested);
+        ensureCapacity(buf.position() + requested);
+    }
+
+    /**
+     * Ensures that the buffer has a capacity of at least the argued amount of
+     * bytes. If it does not, the buffer is replaced with one that has double
+     * the capacity (or the argued capacity, whichever is larger) and all of
+     * the bytes in the old buffer are copied over. Since reusable buffers keep
+     * their grown capacity, this should only happen a few times for each one.
+     * 
+     * @param minimum
+     *            the minimum capacity.
+     */
+    private void ensureCapacity(int minimum) {
+        if (minimum <= buf.capacity()) {
+            return;
         }
+
+        ByteBuffer old = buf;
+        buf = ByteBuffer.allocate(Math.max(minimum, old.capacity() * 2));
+        System.arraycopy(old.array(), 0, buf.array(), 0, old.capacity());
+        buf.position(old.position());
+    }
+
+    /**
+     * Clears this buffer so it can be reused to build another packet. The
+     * backing byte buffer is kept, so no new memory is allocated.
+     * 
+     * @return this protocol buffer.
+     */
+    public ProtocolBuffer clear() {
+        buf.clear();
+        session = null;
+        variableLengthPos = 0;
+        bitPosition = 0;
+        return this;
+    }
+
+    /**
+     * Creates a {@link ThreadLocal} that holds a reusable buffer for every
+     * thread that requests one. Code that builds the same kind of packet over
+     * and over again, such as updating, should use this to avoid creating new
+     * buffers every time. The buffer must be cleared with {@link #clear()}
+     * before being reused.
+     * 
+     * @param cap
+     *            the initial capacity of the buffers.
+     * @return the thread local holding the buffers.
+     */
+    public static ThreadLocal<ProtocolBuffer> newThreadLocal(int cap) {
+        return ThreadLocal.withInitial(() -> new ProtocolBuffer(cap));
     }
 
     /**
@@ -127,9 +172,8 @@ public final class ProtocolBuffer {
      * @return this protocol buffer.
      */
     public ProtocolBuffer build(int opcode, Session session) {
-        writeByte(opcode + session.getEncryptor().getKey());
-        this.session = session;
-        return this;
+        PacketIndex.checkEncoder(opcode, Framing.FIXED);
+        return header(opcode, session);
     }
 
     /**
@@ -144,7 +188,8 @@ public final class ProtocolBuffer {
      * @return this protocol buffer.
      */
     public ProtocolBuffer buildVar(int opcode, Session session) {
-        build(opcode, session);
+        PacketIndex.checkEncoder(opcode, Framing.VARIABLE);
+        header(opcode, session);
         variableLengthPos = buf.position();
         writeByte(0);
         return this;
@@ -163,12 +208,28 @@ public final class ProtocolBuffer {
      * @return this protocol buffer.
      */
     public ProtocolBuffer buildVarShort(int opcode, Session session) {
-        build(opcode, session);
+        PacketIndex.checkEncoder(opcode, Framing.VARIABLE_SHORT);
+        header(opcode, session);
         variableLengthPos = buf.position();
         writeShort(0);
         return this;
     }
 
+    /**
+     * Writes the opcode of a new packet header.
+     * 
+     * @param opcode
+     *            the opcode of the packet.
+     * @param session
+     *            the session we are building this packet header for.
+     * @return this protocol buffer.
+     */
+    private ProtocolBuffer header(int opcode, Session session) {
+        writeByte(opcode + session.getEncryptor().getKey());
+        this.session = session;
+        return this;
+    }
+
     /**
      * Finishes a variable packet header by writing the actual packet length at
      * the length byte's position. Call this when the construction of the actual
@@ -207,6 +268,9 @@ public final class ProtocolBuffer {
      * @return this protocol buffer.
      */
     public ProtocolBuffer writeBytes(ByteBuffer from) {
+        if (from.hasArray()) {
+            return writeBytes(from.array(), from.position());
+        }
         for (int i = 0; i < from.position(); i++) {
             writeByte(from.get(i));
         }
@@ -263,30 +327,24 @@ public final class ProtocolBuffer {
         bitPosition = bitPosition + amount;
 
         // Re-size the buffer if need be.
-        int requiredSpace = bytePos - buf.position() + 1;
-        requiredSpace += (amount + 7) / 8;
-        if (buf.remaining() < requiredSpace) {
-            ByteBuffer old = buf;
-            buf = ByteBuffer.allocate(old.capacity() + requiredSpace);
-            old.flip();
-            buf.put(old);
-        }
+        ensureCapacity(bytePos + 1 + (amount + 7) / 8);
 
-        // Write the bits.
+        // Write the bits, bytes that are written for the first time are zeroed
+        // because reused buffers will still hold old data.
         for (; amount > bitOffset; bitOffset = 8) {
-            byte tmp = buf.get(bytePos);
+            byte tmp = bitOffset == 8 ? 0 : buf.get(bytePos);
             tmp &= ~BIT_MASK[bitOffset];
             tmp |= (value >> (amount - bitOffset)) & BIT_MASK[bitOffset];
             buf.put(bytePos++, tmp);
             amount -= bitOffset;
         }
         if (amount == bitOffset) {
-            byte tmp = buf.get(bytePos);
+            byte tmp = bitOffset == 8 ? 0 : buf.get(bytePos);
             tmp &= ~BIT_MASK[bitOffset];
             tmp |= value & BIT_MASK[bitOffset];
             buf.put(bytePos, tmp);
         } else {
-            byte tmp = buf.get(bytePos);
+            byte tmp = bitOffset == 8 ? 0 : buf.get(bytePos);
             tmp &= ~(BIT_MASK[amount] << (bitOffset - amount));
             tmp |= (value & BIT_MASK[amount]) << (bitOffset - amount);
             buf.put(bytePos, tmp);
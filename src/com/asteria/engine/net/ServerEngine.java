@@ -7,12 +7,15 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.asteria.Main;
 import com.asteria.engine.GameEngine;
+import com.asteria.engine.TickProfiler;
 import com.asteria.engine.net.Session.Stage;
 import com.asteria.engine.net.packet.PacketDecoder;
 import com.asteria.util.Utility;
@@ -41,6 +44,9 @@ public final class ServerEngine {
     /** The maximum amount of packets to decode for a single player. */
     public static final int PACKET_LIMIT = 15;
 
+    /** The sessions that have outgoing data waiting to be written. */
+    private static final Queue<Session> flushQueue = new ConcurrentLinkedQueue<>();
+
     /**
      * Starts the core components of the reactor.
      * 
@@ -170,10 +176,13 @@ public final class ServerEngine {
         try {
 
             // Decode packets for the key, and handle login if needed.
-            if (session.getSocketChannel().read(session.getInData()) == -1) {
+            int received = session.getSocketChannel().read(session.getInData());
+
+            if (received == -1) {
                 session.disconnect();
                 return;
             }
+            TickProfiler.recordBytesIn(received);
 
             session.getInData().flip();
 
@@ -201,8 +210,6 @@ public final class ServerEngine {
 
                     if (session.getPacketLength() == -1) {
                         if (!session.getInData().hasRemaining()) {
-                            session.getInData().flip();
-                            session.getInData().compact();
                             break;
                         }
 
@@ -228,9 +235,12 @@ public final class ServerEngine {
                                 break;
                             }
 
+                            long start = TickProfiler.start();
                             PacketDecoder.getPackets()[session
                                 .getPacketOpcode()].decode(session.getPlayer(),
                                 new ProtocolBuffer(session.getInData()));
+                            TickProfiler.recordDecode(session
+                                .getPacketOpcode(), start);
                             session.incrementPacketCount();
                         } else {
                             if (Main.DEBUG)
@@ -250,14 +260,12 @@ public final class ServerEngine {
                     session.setPacketOpcode(-1);
                     session.setPacketLength(-1);
                 } else {
-                    session.getInData().flip();
-                    session.getInData().compact();
                     break;
                 }
             }
 
-            // Clear the buffer for the next cycle.
-            session.getInData().clear();
+            // Keep any partially received data for the next read.
+            session.getInData().compact();
         } catch (Exception e) {
             e.printStackTrace();
             session.disconnect();
@@ -283,20 +291,43 @@ public final class ServerEngine {
         try {
 
             // Send any previously queued data if needed.
-            session.getOutData().flip();
-            session.getSocketChannel().write(session.getOutData());
-
-            if (!session.getOutData().hasRemaining()) {
-                session.getOutData().clear();
-            } else {
-                session.getOutData().compact();
-            }
+            session.flushQueuedData();
         } catch (IOException e) {
             e.printStackTrace();
             session.disconnect();
         }
     }
 
+    /**
+     * Queues the argued session to have its outgoing data written to its
+     * socket channel the next time {@link #flush()} is called.
+     * 
+     * @param session
+     *            the session to queue.
+     */
+    public static void queueFlush(Session session) {
+        flushQueue.add(session);
+    }
+
+    /**
+     * Writes the outgoing data of every session that has queued data since the
+     * last call to this method. This should be called once at the end of every
+     * cycle so that each session only makes a single write to its socket per
+     * cycle.
+     */
+    public static void flush() {
+        Session session;
+
+        while ((session = flushQueue.poll()) != null) {
+            try {
+                session.flushQueuedData();
+            } catch (IOException e) {
+                e.printStackTrace();
+                session.disconnect();
+            }
+        }
+    }
+
     /**
      * Determines which clients are ready for networking events and handles
      * those events straight away for them. Accept events are pushed to the
@@ -305,6 +336,9 @@ public final class ServerEngine {
      */
     public static void tick() {
 
+        // Admit the sessions that have finished logging in.
+        LoginPipeline.admit();
+
         // Selects the keys ready for network events.
         try {
             selector.selectNow();
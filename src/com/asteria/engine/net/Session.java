@@ -1,5 +1,6 @@
 package com.asteria.engine.net;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
@@ -7,6 +8,7 @@ import java.nio.channels.SocketChannel;
 import java.security.SecureRandom;
 import java.util.logging.Logger;
 
+import com.asteria.engine.TickProfiler;
 import com.asteria.engine.net.packet.PacketEncoder;
 import com.asteria.engine.task.TaskManager;
 import com.asteria.util.Stopwatch;
@@ -18,11 +20,12 @@ import com.asteria.world.entity.combat.effect.CombatSkullEffect;
 import com.asteria.world.entity.combat.effect.CombatTeleblockEffect;
 import com.asteria.world.entity.combat.prayer.CombatPrayer;
 import com.asteria.world.entity.player.Player;
-import com.asteria.world.entity.player.PlayerFileTask.ReadPlayerFileTask;
 import com.asteria.world.entity.player.content.WeaponAnimations;
 import com.asteria.world.entity.player.content.WeaponInterfaces;
 import com.asteria.world.entity.player.minigame.Minigames;
 import com.asteria.world.entity.player.skill.Skills;
+import com.asteria.world.item.ground.GroundItemManager;
+import com.asteria.world.shop.Shop;
 
 /**
  * The class behind a Player that handles all networking-related things.
@@ -35,18 +38,14 @@ public final class Session {
     /** If RSA should be decoded in the login block. */
     public static final boolean DECODE_RSA = true;
 
-    /**
-     * Players that don't have a username equal to
-     * <code>SOCKET_FLOOD_USERNAME</code> are moved within 200 squares of the
-     * home area on login.
-     */
-    public static final boolean SOCKET_FLOOD = false;
+    /** The initial capacity of the buffer for writing data. */
+    private static final int OUT_DATA_CAPACITY = 8192;
 
     /**
-     * Players that don't have this username are moved within 200 squares of the
-     * home area on login, if the <code>SOCKET_FLOOD</code> boolean is flagged.
+     * The maximum amount of outgoing data that can be queued for a single
+     * session before it is disconnected.
      */
-    public static final String SOCKET_FLOOD_USERNAME = "lare96";
+    private static final int OUT_DATA_LIMIT = 262144;
 
     /** The private RSA modulus and exponent key pairs. */
     private static final BigInteger RSA_MODULUS = new BigInteger(
@@ -54,6 +53,9 @@ public final class Session {
         RSA_EXPONENT = new BigInteger(
             "58942123322685908809689084302625256728774551587748168286651364002223076520293763732441711633712538400732268844501356343764421742749024359146319836858905124072353297696448255112361453630421295623429362610999525258756790291981270575779800669035081348981858658116089267888135561190976376091835832053427710797233");
 
+    /** The generator for the server half of the ISAAC seeds. */
+    private static final SecureRandom SESSION_KEYS = new SecureRandom();
+
     /** A logger for printing debugging info. */
     private static Logger logger = Logger.getLogger(Session.class
         .getSimpleName());
@@ -64,8 +66,18 @@ public final class Session {
     /** The buffer for reading data. */
     private final ByteBuffer inData;
 
-    /** The buffer for writing data. */
-    private final ByteBuffer outData;
+    /**
+     * The buffer that outgoing data is appended to, which is flushed to the
+     * socket once per cycle. Data that could not be written to the socket
+     * remains in this buffer until the socket is ready for writing again.
+     */
+    private ByteBuffer outData;
+
+    /** If this session is waiting to have its outgoing data flushed. */
+    private boolean flushQueued;
+
+    /** If this session has queued more outgoing data than it is allowed to. */
+    private boolean outOverflow;
 
     /** The socket channel for this session. */
     private SocketChannel socketChannel;
@@ -108,6 +120,7 @@ public final class Session {
     public enum Stage {
         CONNECTED,
         LOGGING_IN,
+        AUTHENTICATING,
         LOGGED_IN,
         LOGGED_OUT
     }
@@ -122,7 +135,7 @@ public final class Session {
         this.key = key;
         stage = Stage.CONNECTED;
         inData = ByteBuffer.allocateDirect(512);
-        outData = ByteBuffer.allocateDirect(8192);
+        outData = ByteBuffer.allocateDirect(OUT_DATA_CAPACITY);
 
         if (key != null) {
             socketChannel = (SocketChannel) key.channel();
@@ -134,13 +147,14 @@ public final class Session {
     }
 
     /**
-     * Handles the login process for this session.
+     * Handles the login process for this session. Only the handshake and the
+     * framing of the login block are handled here, the login block itself is
+     * decoded and loaded by the {@link LoginPipeline}.
      */
     public void handleLogin() throws Exception {
         switch (getStage()) {
         case CONNECTED:
             if (inData.remaining() < 2) {
-                inData.compact();
                 return;
             }
 
@@ -158,16 +172,16 @@ public final class Session {
             ProtocolBuffer out = new ProtocolBuffer(17);
             out.writeLong(0); // First 8 bytes are ignored by the client.
             out.writeByte(0); // The response opcode, 0 for logging in.
-            out.writeLong(new SecureRandom().nextLong()); // SSK.
+            out.writeLong(SESSION_KEYS.nextLong()); // SSK.
             send(out.getBuffer());
 
             stage = Stage.LOGGING_IN;
             break;
         case LOGGING_IN:
             if (inData.remaining() < 2) {
-                inData.compact();
                 return;
             }
+            inData.mark();
 
             // Validate the login type.
             int loginType = inData.get();
@@ -189,262 +203,289 @@ public final class Session {
             }
 
             if (inData.remaining() < blockLength) {
-                inData.flip();
-                inData.compact();
+                inData.reset();
                 return;
             }
 
-            // Read the login block.
-            ProtocolBuffer in = new ProtocolBuffer(inData);
-            in.readByte(); // Ignore the magic ID.
+            // Copy the login block and hand it off to be decoded.
+            byte[] block = new byte[blockLength];
+            inData.get(block);
+            stage = Stage.AUTHENTICATING;
+            LoginPipeline.submit(this, block);
+            break;
+        case AUTHENTICATING:
 
-            // Validate the client version.
-            int clientVersion = in.readShort();
+            // The client sends nothing until it gets the login response.
+            inData.position(inData.limit());
+            break;
+        case LOGGED_OUT:
+        case LOGGED_IN:
+            disconnect();
+            break;
+        }
+    }
 
-            if (clientVersion != 317) {
-                logger.warning("Invalid client version: " + clientVersion);
-                disconnect();
-                return;
-            }
+    /**
+     * Decodes the argued login block, sets up the ISAAC ciphers and validates
+     * the credentials. This is called on a login worker thread by the
+     * {@link LoginPipeline}, so it must not touch the world.
+     * 
+     * @param block
+     *            the contents of the login block.
+     * @return the login response code, or
+     *         {@link LoginPipeline#RESPONSE_MALFORMED} if the login block was
+     *         invalid.
+     */
+    int decodeLogin(byte[] block) {
+        int loginEncryptPacketSize = block.length - (36 + 1 + 1 + 2);
 
-            in.readByte(); // Skip the high/low memory version.
+        // Read the login block.
+        ProtocolBuffer in = new ProtocolBuffer(ByteBuffer.wrap(block));
+        in.readByte(); // Ignore the magic ID.
 
-            for (int i = 0; i < 9; i++) { // Skip the CRC keys.
-                in.readInt();
-            }
-            loginEncryptPacketSize--;
-            in.readByte();
+        // Validate the client version.
+        int clientVersion = in.readShort();
 
-            String username = null;
-            String password = null;
+        if (clientVersion != 317) {
+            logger.warning("Invalid client version: " + clientVersion);
+            return LoginPipeline.RESPONSE_MALFORMED;
+        }
 
-            // Either decode RSA or ignore it depending on the settings.
-            if (DECODE_RSA) {
+        in.readByte(); // Skip the high/low memory version.
 
-                // Create the RSA buffer.
-                byte[] encryptionBytes = new byte[loginEncryptPacketSize];
-                in.getBuffer().get(encryptionBytes);
+        for (int i = 0; i < 9; i++) { // Skip the CRC keys.
+            in.readInt();
+        }
+        loginEncryptPacketSize--;
+        in.readByte();
 
-                ByteBuffer rsaBuffer = ByteBuffer.wrap(new BigInteger(
-                    encryptionBytes).modPow(RSA_EXPONENT, RSA_MODULUS)
-                    .toByteArray());
+        String username = null;
+        String password = null;
 
-                // Check if RSA block can be decoded.
-                int rsaOpcode = rsaBuffer.get();
+        // Either decode RSA or ignore it depending on the settings.
+        if (DECODE_RSA) {
 
-                if (rsaOpcode != 10) {
-                    logger.warning("Unable to decode RSA block properly!");
-                    disconnect();
-                    return;
-                }
+            // Create the RSA buffer.
+            byte[] encryptionBytes = new byte[loginEncryptPacketSize];
+            in.getBuffer().get(encryptionBytes);
 
-                // Set up the ISAAC ciphers.
-                long clientHalf = rsaBuffer.getLong();
-                long serverHalf = rsaBuffer.getLong();
+            ByteBuffer rsaBuffer = ByteBuffer.wrap(new BigInteger(
+                encryptionBytes).modPow(RSA_EXPONENT, RSA_MODULUS)
+                .toByteArray());
 
-                int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf,
-                        (int) (serverHalf >> 32), (int) serverHalf };
+            // Check if RSA block can be decoded.
+            int rsaOpcode = rsaBuffer.get();
 
-                decryptor = new ISAACCipher(isaacSeed);
+            if (rsaOpcode != 10) {
+                logger.warning("Unable to decode RSA block properly!");
+                return LoginPipeline.RESPONSE_MALFORMED;
+            }
 
-                for (int i = 0; i < isaacSeed.length; i++) {
-                    isaacSeed[i] += 50;
+            // Set up the ISAAC ciphers.
+            long clientHalf = rsaBuffer.getLong();
+            long serverHalf = rsaBuffer.getLong();
 
-                }
+            int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf,
+                    (int) (serverHalf >> 32), (int) serverHalf };
 
-                encryptor = new ISAACCipher(isaacSeed);
+            decryptor = new ISAACCipher(isaacSeed);
 
-                // Read the user authentication.
-                rsaBuffer.getInt(); // Skip the user ID.
-                ProtocolBuffer readStr = new ProtocolBuffer(rsaBuffer);
-                username = readStr.readString();
-                password = readStr.readString();
-            } else {
-                in.getBuffer().get();
+            for (int i = 0; i < isaacSeed.length; i++) {
+                isaacSeed[i] += 50;
 
-                // Set up the ISAAC ciphers.
-                long clientHalf = in.getBuffer().getLong();
-                long serverHalf = in.getBuffer().getLong();
+            }
 
-                int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf,
-                        (int) (serverHalf >> 32), (int) serverHalf };
+            encryptor = new ISAACCipher(isaacSeed);
 
-                decryptor = new ISAACCipher(isaacSeed);
+            // Read the user authentication.
+            rsaBuffer.getInt(); // Skip the user ID.
+            ProtocolBuffer readStr = new ProtocolBuffer(rsaBuffer);
+            username = readStr.readString();
+            password = readStr.readString();
+        } else {
+            in.getBuffer().get();
 
-                for (int i = 0; i < isaacSeed.length; i++) {
-                    isaacSeed[i] += 50;
+            // Set up the ISAAC ciphers.
+            long clientHalf = in.getBuffer().getLong();
+            long serverHalf = in.getBuffer().getLong();
 
-                }
+            int[] isaacSeed = { (int) (clientHalf >> 32), (int) clientHalf,
+                    (int) (serverHalf >> 32), (int) serverHalf };
+
+            decryptor = new ISAACCipher(isaacSeed);
 
-                encryptor = new ISAACCipher(isaacSeed);
+            for (int i = 0; i < isaacSeed.length; i++) {
+                isaacSeed[i] += 50;
 
-                // Read the user authentication.
-                in.getBuffer().getInt(); // Skip the user ID.
-                username = in.readString();
-                password = in.readString();
             }
 
-            // Edit the username and password for security purposes.
-            username = username.toLowerCase().replaceAll("_", " ").trim();
-            password = password.toLowerCase();
+            encryptor = new ISAACCipher(isaacSeed);
 
-            // Make sure the account credentials are valid.
-            boolean invalidCredentials = !username
-                .matches("^[a-zA-Z0-9_ ]{1,12}$") || password.isEmpty() || password
-                .length() > 20;
+            // Read the user authentication.
+            in.getBuffer().getInt(); // Skip the user ID.
+            username = in.readString();
+            password = in.readString();
+        }
 
-            // Create the initial response code.
-            int response = invalidCredentials ? Utility.LOGIN_RESPONSE_INVALID_CREDENTIALS
-                : Utility.LOGIN_RESPONSE_OK;
+        // Edit the username and password for security purposes.
+        username = username.toLowerCase().replaceAll("_", " ").trim();
+        password = password.toLowerCase();
 
-            // Edit it for banned hosts.
-            response = HostGateway.getBannedHosts().contains(host) ? Utility.LOGIN_RESPONSE_ACCOUNT_DISABLED
-                : response;
+        // Make sure the account credentials are valid.
+        boolean invalidCredentials = !username
+            .matches("^[a-zA-Z0-9_ ]{1,12}$") || password.isEmpty() || password
+            .length() > 20;
 
-            // Do not load the character file if the response is invalid.
-            if (response == Utility.LOGIN_RESPONSE_OK) {
+        // Create the initial response code.
+        int response = invalidCredentials ? Utility.LOGIN_RESPONSE_INVALID_CREDENTIALS
+            : Utility.LOGIN_RESPONSE_OK;
 
-                // Set the username and password.
-                player.setUsername(username);
-                player.setPassword(password);
+        // Edit it for banned hosts.
+        response = HostGateway.getBannedHosts().contains(host) ? Utility.LOGIN_RESPONSE_ACCOUNT_DISABLED
+            : response;
 
-                // Cache the username hash.
-                player.setUsernameHash(Utility.nameToHash(username));
+        // Set the username and password if the response is valid.
+        if (response == Utility.LOGIN_RESPONSE_OK) {
+            player.setUsername(username);
+            player.setPassword(password);
 
-                // Check if the player is already logged in.
-                if (World.getPlayerByHash(player.getUsernameHash()).isPresent()) {
-                    response = Utility.LOGIN_RESPONSE_ACCOUNT_ONLINE;
-                }
+            // Cache the username hash.
+            player.setUsernameHash(Utility.nameToHash(username));
+        }
+        return response;
+    }
 
-                // Load the character.
-                if (response == 2) {
-                    ReadPlayerFileTask read = new ReadPlayerFileTask(player);
-                    response = read.call();
-                }
-            }
+    /**
+     * Completes the login for this session once the {@link LoginPipeline} has
+     * decoded the login block and loaded the character file. This is called
+     * on the game thread, and either adds the player to the world or
+     * disconnects this session.
+     * 
+     * @param response
+     *            the login response determined by the pipeline.
+     */
+    void finishLogin(int response) {
 
-            // Check if we even have enough space for the player.
-            if (World.getPlayers().isFull()) {
-                response = Utility.LOGIN_RESPONSE_WORLD_FULL;
-            }
+        // The login block was invalid, so there's nothing to respond with.
+        if (response == LoginPipeline.RESPONSE_MALFORMED) {
+            disconnect();
+            return;
+        }
 
-            // Write the rights and the client response code.
-            ProtocolBuffer resp = new ProtocolBuffer(3);
-            resp.writeByte(response);
-            resp.writeByte(player.getRights().getProtocolValue());
-            resp.writeByte(0);
-            send(resp.getBuffer());
+        // Check if the player is already logged in.
+        if (response == Utility.LOGIN_RESPONSE_OK && World.getPlayerByHash(
+            player.getUsernameHash()).isPresent()) {
+            response = Utility.LOGIN_RESPONSE_ACCOUNT_ONLINE;
+        }
 
-            // Disconnect the player if the response is not two.
-            if (response != Utility.LOGIN_RESPONSE_OK) {
-                disconnect();
-                return;
-            }
+        // Check if we even have enough space for the player.
+        if (World.getPlayers().isFull()) {
+            response = Utility.LOGIN_RESPONSE_WORLD_FULL;
+        }
 
-            // Add the player to the entity container.
-            World.getPlayers().add(player);
-
-            // Send the map region, slot, and update appearance.
-            packetBuilder.sendMapRegion();
-            packetBuilder.sendDetails();
-            player.getFlags().flag(Flag.APPEARANCE);
-
-            // Send all of the sidebar interfaces.
-            packetBuilder.sendSidebarInterface(1, 3917);
-            packetBuilder.sendSidebarInterface(2, 638);
-            packetBuilder.sendSidebarInterface(3, 3213);
-            packetBuilder.sendSidebarInterface(4, 1644);
-            packetBuilder.sendSidebarInterface(5, 5608);
-            packetBuilder.sendSidebarInterface(6, player.getSpellbook()
-                .getSidebarInterface());
-            packetBuilder.sendSidebarInterface(8, 5065);
-            packetBuilder.sendSidebarInterface(9, 5715);
-            packetBuilder.sendSidebarInterface(10, 2449);
-            packetBuilder.sendSidebarInterface(11, 904);
-            packetBuilder.sendSidebarInterface(12, 147);
-            packetBuilder.sendSidebarInterface(13, 962);
-            packetBuilder.sendSidebarInterface(0, 2423);
-
-            // Teleport the player to the saved position.
-            if (SOCKET_FLOOD) {
-                if (player.getUsername().equals(SOCKET_FLOOD_USERNAME)) {
-                    player.move(player.getPosition());
-                } else {
-                    player.move(player.getPosition().move(200));
-                }
-            } else if (!SOCKET_FLOOD) {
-                player.move(player.getPosition());
-            }
+        // Write the rights and the client response code.
+        ProtocolBuffer resp = new ProtocolBuffer(3);
+        resp.writeByte(response);
+        resp.writeByte(player.getRights().getProtocolValue());
+        resp.writeByte(0);
+        send(resp.getBuffer());
 
-            // Refresh skills, equipment, and the inventory.
-            Skills.refreshAll(player);
-            player.getEquipment().refresh();
-            player.getInventory().refresh();
-            player.writeBonus();
-
-            // Update private messages on login.
-            player.getPacketBuilder().sendPrivateMessagingList(2);
-            player.getPrivateMessage().updateThisList();
-            player.getPrivateMessage().updateOtherList(true);
-
-            // Send the context menus.
-            packetBuilder.sendContextMenu("Trade with", 4);
-            packetBuilder.sendContextMenu("Follow", 5);
-
-            // Send the starter package and makeover mage interface if this
-            // player is new.
-            if (player.isNewPlayer()) {
-                player.getInventory().add(Player.STARTER_PACKAGE);
-                packetBuilder.sendInterface(3559);
-                player.setNewPlayer(false);
-            }
+        // Disconnect the player if the response is not two.
+        if (response != Utility.LOGIN_RESPONSE_OK) {
+            disconnect();
+            return;
+        }
 
-            // Schedule various tasks.
-            if (player.isPoisoned()) {
-                TaskManager.submit(new CombatPoisonEffect(player));
-            }
-            if (player.getTeleblockTimer() > 0) {
-                TaskManager.submit(new CombatTeleblockEffect(player));
-            }
-            if (player.getSkullTimer() > 0) {
-                player.setSkullIcon(0);
-                TaskManager.submit(new CombatSkullEffect(player));
-            }
+        // Add the player to the entity container.
+        World.getPlayers().add(player);
+
+        // Send the map region, slot, and update appearance.
+        packetBuilder.sendMapRegion();
+        packetBuilder.sendDetails();
+        player.getFlags().flag(Flag.APPEARANCE);
+
+        // Send all of the sidebar interfaces.
+        packetBuilder.sendSidebarInterface(1, 3917);
+        packetBuilder.sendSidebarInterface(2, 638);
+        packetBuilder.sendSidebarInterface(3, 3213);
+        packetBuilder.sendSidebarInterface(4, 1644);
+        packetBuilder.sendSidebarInterface(5, 5608);
+        packetBuilder.sendSidebarInterface(6, player.getSpellbook()
+            .getSidebarInterface());
+        packetBuilder.sendSidebarInterface(8, 5065);
+        packetBuilder.sendSidebarInterface(9, 5715);
+        packetBuilder.sendSidebarInterface(10, 2449);
+        packetBuilder.sendSidebarInterface(11, 904);
+        packetBuilder.sendSidebarInterface(12, 147);
+        packetBuilder.sendSidebarInterface(13, 962);
+        packetBuilder.sendSidebarInterface(0, 2423);
+
+        // Teleport the player to the saved position.
+        player.move(player.getPosition());
+
+        // Refresh skills, equipment, and the inventory.
+        Skills.refreshAll(player);
+        player.getEquipment().refresh();
+        player.getInventory().refresh();
+        player.writeBonus();
+
+        // Update private messages on login.
+        player.getPacketBuilder().sendPrivateMessagingList(2);
+        player.getPrivateMessage().updateThisList();
+        player.getPrivateMessage().updateOtherList(true);
+
+        // Send the context menus.
+        packetBuilder.sendContextMenu("Trade with", 4);
+        packetBuilder.sendContextMenu("Follow", 5);
+
+        // Send the starter package and makeover mage interface if this
+        // player is new.
+        if (player.isNewPlayer()) {
+            player.getInventory().add(Player.STARTER_PACKAGE);
+            packetBuilder.sendInterface(3559);
+            player.setNewPlayer(false);
+        }
 
-            // Send the welcome message.
-            packetBuilder.sendMessage(Player.WELCOME_MESSAGE);
-
-            // Check dynamic minigame actions.
-            Minigames.get(player).ifPresent(m -> m.fireOnLogin(player));
-
-            // Send the weapon interface and animation.
-            WeaponInterfaces.assign(player, player.getEquipment().get(
-                Utility.EQUIPMENT_SLOT_WEAPON));
-            WeaponAnimations.assign(player, player.getEquipment().get(
-                Utility.EQUIPMENT_SLOT_WEAPON));
-
-            // Last but not least, send client configurations.
-            packetBuilder.sendConfig(173, player.getMovementQueue()
-                .isRunToggled() ? 1 : 0);
-            packetBuilder.sendConfig(172, player.isAutoRetaliate() ? 0 : 1);
-            packetBuilder.sendConfig(player.getFightType().getParentId(),
-                player.getFightType().getChildId());
-            packetBuilder.sendConfig(427, player.isAcceptAid() ? 1 : 0);
-            packetBuilder.sendConfig(108, 0);
-            packetBuilder.sendConfig(301, 0);
-            packetBuilder.sendString(player.getRunEnergy() + "%", 149);
-            CombatPrayer.resetAllGlows(player);
-
-            // The player is now online!
-            logger.info(player + " has logged in.");
-            stage = Stage.LOGGED_IN;
-            timeout.reset();
-            break;
-        case LOGGED_OUT:
-        case LOGGED_IN:
-            disconnect();
-            break;
+        // Schedule various tasks.
+        if (player.isPoisoned()) {
+            TaskManager.submit(new CombatPoisonEffect(player));
+        }
+        if (player.getTeleblockTimer() > 0) {
+            TaskManager.submit(new CombatTeleblockEffect(player));
+        }
+        if (player.getSkullTimer() > 0) {
+            player.setSkullIcon(0);
+            TaskManager.submit(new CombatSkullEffect(player));
         }
+
+        // Send the welcome message.
+        packetBuilder.sendMessage(Player.WELCOME_MESSAGE);
+
+        // Check dynamic minigame actions.
+        Minigames.get(player).ifPresent(m -> m.fireOnLogin(player));
+
+        // Send the weapon interface and animation.
+        WeaponInterfaces.assign(player, player.getEquipment().get(
+            Utility.EQUIPMENT_SLOT_WEAPON));
+        WeaponAnimations.assign(player, player.getEquipment().get(
+            Utility.EQUIPMENT_SLOT_WEAPON));
+
+        // Last but not least, send client configurations.
+        packetBuilder.sendConfig(173,
+            player.getMovementQueue().isRunToggled() ? 1 : 0);
+        packetBuilder.sendConfig(172, player.isAutoRetaliate() ? 0 : 1);
+        packetBuilder.sendConfig(player.getFightType().getParentId(), player
+            .getFightType().getChildId());
+        packetBuilder.sendConfig(427, player.isAcceptAid() ? 1 : 0);
+        packetBuilder.sendConfig(108, 0);
+        packetBuilder.sendConfig(301, 0);
+        packetBuilder.sendString(player.getRunEnergy() + "%", 149);
+        CombatPrayer.resetAllGlows(player);
+
+        // The player is now online!
+        logger.info(player + " has logged in.");
+        stage = Stage.LOGGED_IN;
+        timeout.reset();
     }
 
     /**
@@ -458,14 +499,25 @@ public final class Session {
                 World.savePlayer(player);
                 TaskManager.cancelTasks(player);
                 player.getTradeSession().reset(false);
+                Shop.closeShop(player);
                 player.getPrivateMessage().updateOtherList(false);
                 Skills.fireSkillEvents(player);
+                GroundItemManager.unload(player);
 
                 if (World.getPlayers().contains(player)) {
                     World.getPlayers().remove(player);
                 }
             }
 
+            // Write whatever is left over, such as the logout packet.
+            if (socketChannel.isOpen()) {
+                synchronized (this) {
+                    outData.flip();
+                    TickProfiler.recordBytesOut(socketChannel.write(outData));
+                    outData.clear();
+                }
+            }
+
             key.attach(null);
             key.cancel();
             stage = Stage.LOGGED_OUT;
@@ -483,7 +535,10 @@ public final class Session {
     }
 
     /**
-     * Sends a buffer to the socket.
+     * Queues a buffer to be sent to the socket. The data is not written
+     * straight away, instead it is appended to the {@link #outData} buffer and
+     * written along with everything else sent this cycle when
+     * {@link ServerEngine#flush()} is called.
      * 
      * @param buffer
      *            the buffer to send.
@@ -494,15 +549,60 @@ public final class Session {
 
         buffer.flip();
 
-        try {
-            socketChannel.write(buffer);
+        synchronized (this) {
+            int required = outData.position() + buffer.remaining();
 
-            if (buffer.hasRemaining()) {
+            if (required > OUT_DATA_LIMIT) {
+
+                // The client isn't reading what we send, so we stop queuing
+                // data and disconnect them when the data is flushed.
+                outOverflow = true;
+            } else {
+                if (required > outData.capacity()) {
+
+                    // Grow the buffer so it can hold all of the queued data.
+                    ByteBuffer old = outData;
+                    outData = ByteBuffer.allocateDirect(Math.min(
+                        OUT_DATA_LIMIT, Math.max(required, old.capacity() * 2)));
+                    old.flip();
+                    outData.put(old);
+                }
                 outData.put(buffer);
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            disconnect();
+
+            if (!flushQueued) {
+                flushQueued = true;
+                ServerEngine.queueFlush(this);
+            }
+        }
+    }
+
+    /**
+     * Writes as much of the queued outgoing data as possible to the socket. If
+     * not all of the data could be written, the selection key is flagged for
+     * write events so the rest is written once the socket is ready.
+     * 
+     * @throws IOException
+     *             if any errors occur while writing to the socket.
+     */
+    public synchronized void flushQueuedData() throws IOException {
+        flushQueued = false;
+
+        if (!socketChannel.isOpen() || !key.isValid())
+            return;
+
+        if (outOverflow)
+            throw new IOException(this + " has too much queued outgoing data!");
+
+        outData.flip();
+        TickProfiler.recordBytesOut(socketChannel.write(outData));
+
+        if (!outData.hasRemaining()) {
+            outData.clear();
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            outData.compact();
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
         }
     }
 
@@ -1,7 +1,5 @@
 package com.asteria.engine.net.packet;
 
-import java.io.File;
-
 import com.asteria.engine.net.ProtocolBuffer;
 import com.asteria.world.entity.player.Player;
 
@@ -29,47 +27,39 @@ public abstract class PacketDecoder {
     public abstract void decode(Player player, ProtocolBuffer buf);
 
     /**
-     * Loads new decoders that will be able to read packets under a certain
-     * opcode.
+     * Loads the decoders listed in the <code>PacketDecoderIndex</code>, which
+     * is generated when the server is compiled, each of which will be able to
+     * read packets under the opcodes in its header.
      * 
      * @throws Exception
      *             if an error occurs while loading the decoders.
      */
     public static void loadDecoders() throws Exception {
+        PacketDecoder[] table = new PacketDecoder[256];
 
-        // List all the files in the specified directory and loop through them.
-        File[] files = new File("./src/com/asteria/engine/net/packet/impl/")
-            .listFiles();
-
-        for (File file : files) {
-            Class<?> c = Class
-                .forName("com.asteria.engine.net.packet.impl." + file.getName()
-                    .replaceAll(".java", ""));
-
-            // Check if this class is a decoder.
-            if (!(c.getSuperclass() == PacketDecoder.class)) {
-                throw new IllegalStateException(
-                    "Illegal packet decoder! Not an instance of PacketDecoder: " + file
-                        .getName());
-            }
-
-            // Create the decoder instance.
-            PacketDecoder packet = (PacketDecoder) c.newInstance();
+        for (PacketDecoder packet : PacketDecoderIndex.decoders()) {
 
             // Throw an exception if no header is found for the decoder.
-            if (packet.getClass().getAnnotation(PacketOpcodeHeader.class) == null) {
+            PacketOpcodeHeader header = packet.getClass().getAnnotation(
+                PacketOpcodeHeader.class);
+
+            if (header == null) {
                 throw new PacketHeaderException(packet);
             }
 
-            // Get all of the data from the header.
-            int packetOpcodes[] = packet.getClass().getAnnotation(
-                PacketOpcodeHeader.class).value();
-
-            // Add the decoder for all of its opcodes.
-            for (int opcode : packetOpcodes) {
-                packets[opcode] = packet;
+            // Add the decoder for all of its opcodes, making sure no two
+            // decoders claim the same opcode.
+            for (int opcode : header.value()) {
+                if (table[opcode] != null) {
+                    throw new IllegalStateException("Opcode " + opcode
+                        + " is decoded by both " + table[opcode].getClass()
+                            .getSimpleName() + " and " + packet.getClass()
+                            .getSimpleName());
+                }
+                table[opcode] = packet;
             }
         }
+        packets = table;
     }
 
     /**
@@ -1,8 +1,11 @@
 package com.asteria.engine.net.packet;
 
+import java.util.BitSet;
+
 import com.asteria.engine.net.ProtocolBuffer;
 import com.asteria.engine.net.ProtocolBuffer.ByteOrder;
 import com.asteria.engine.net.ProtocolBuffer.ValueType;
+import com.asteria.world.World;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.item.Item;
 import com.asteria.world.item.ground.GroundItem;
@@ -126,11 +129,8 @@ public final class PacketEncoder {
      */
     public PacketEncoder sendAllObjectAnimation(Position position,
         int animation, int type, int orientation) {
-        for (Player player : this.player.getLocalPlayers()) {
-            if (player == null) {
-                continue;
-            }
-
+        for (Player player : World.getPlayers().getRegions().viewableFrom(
+            position)) {
             if (player.getPosition().isViewableFrom(position)) {
                 player.getPacketBuilder().sendObjectAnimation(position,
                     animation, type, orientation);
@@ -171,11 +171,8 @@ public final class PacketEncoder {
      * @return this packet encoder.
      */
     public PacketEncoder sendAllGraphic(int id, Position position, int level) {
-        for (Player player : this.player.getLocalPlayers()) {
-            if (player == null) {
-                continue;
-            }
-
+        for (Player player : World.getPlayers().getRegions().viewableFrom(
+            position)) {
             if (position.isViewableFrom(player.getPosition())) {
                 player.getPacketBuilder().sendGraphic(id, position, level);
             }
@@ -276,11 +273,17 @@ public final class PacketEncoder {
      */
     public PacketEncoder sendItemOnInterfaceSlot(int id, Item item, int slot) {
         ProtocolBuffer out = new ProtocolBuffer(32);
-        out.buildVarShort(34, player.getSession()).writeShort(id).writeByte(
-            slot).writeShort(item.getId() + 1);
+        out.buildVarShort(34, player.getSession()).writeShort(id);
+
+        if (slot < 128) {
+            out.writeByte(slot);
+        } else {
+            out.writeShort(slot + 32768);
+        }
+        out.writeShort(item.getId() + 1);
 
         if (item.getAmount() > 254) {
-            out.writeByte(255).writeShort(item.getAmount());
+            out.writeByte(255).writeInt(item.getAmount());
         } else {
             out.writeByte(item.getAmount());
         }
@@ -654,11 +657,8 @@ public final class PacketEncoder {
     public void sendAllProjectile(Position position, Position offset,
         int angle, int speed, int gfxMoving, int startHeight, int endHeight,
         int lockon, int time) {
-        for (Player all : player.getLocalPlayers()) {
-            if (all == null) {
-                continue;
-            }
-
+        for (Player all : World.getPlayers().getRegions().viewableFrom(
+            position)) {
             if (all.getPosition().isViewableFrom(position)) {
                 all.getPacketBuilder().sendProjectile(position, offset, angle,
                     speed, gfxMoving, startHeight, endHeight, lockon, time);
@@ -1048,6 +1048,85 @@ public final class PacketEncoder {
         return sendUpdateItems(interfaceId, items, items.length);
     }
 
+    /**
+     * Updates an array of items on an interface, from the identifiers and
+     * amounts of the items rather than from {@link Item}s. Identifiers of -1
+     * are sent as empty slots.
+     * 
+     * @param interfaceId
+     *            the interface to send the items on.
+     * @param ids
+     *            the identifiers of the items to send.
+     * @param amounts
+     *            the amounts of the items to send.
+     * @param length
+     *            the length of the items.
+     * @return this packet encoder.
+     */
+    public PacketEncoder sendUpdateItems(int interfaceId, int[] ids,
+        int[] amounts, int length) {
+        ProtocolBuffer out = new ProtocolBuffer(length * 3 + 8);
+        out.buildVarShort(53, player.getSession()).writeShort(interfaceId);
+        out.writeShort(length);
+
+        for (int i = 0; i < length; i++) {
+            int amount = ids[i] == -1 ? 0 : amounts[i];
+
+            if (amount > 254) {
+                out.writeByte(255);
+                out.writeInt(amount, ProtocolBuffer.ByteOrder.INVERSE_MIDDLE);
+            } else {
+                out.writeByte(amount);
+            }
+            out.writeShort(ids[i] + 1, ProtocolBuffer.ValueType.A,
+                ProtocolBuffer.ByteOrder.LITTLE);
+        }
+        out.endVarShort();
+        out.sendPacket();
+        return this;
+    }
+
+    /**
+     * Updates only the argued slots of an array of items on an interface, all
+     * within a single packet. Identifiers of -1 are sent as empty slots.
+     * 
+     * @param interfaceId
+     *            the interface to send the items on.
+     * @param ids
+     *            the identifiers of the items.
+     * @param amounts
+     *            the amounts of the items.
+     * @param slots
+     *            the slots to send.
+     * @return this packet encoder.
+     */
+    public PacketEncoder sendUpdateItemSlots(int interfaceId, int[] ids,
+        int[] amounts, BitSet slots) {
+        ProtocolBuffer out = new ProtocolBuffer(slots.cardinality() * 9 + 6);
+        out.buildVarShort(34, player.getSession()).writeShort(interfaceId);
+
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots
+            .nextSetBit(slot + 1)) {
+            int amount = ids[slot] == -1 ? 0 : amounts[slot];
+
+            if (slot < 128) {
+                out.writeByte(slot);
+            } else {
+                out.writeShort(slot + 32768);
+            }
+            out.writeShort(ids[slot] + 1);
+
+            if (amount > 254) {
+                out.writeByte(255).writeInt(amount);
+            } else {
+                out.writeByte(amount);
+            }
+        }
+        out.endVarShort();
+        out.sendPacket();
+        return this;
+    }
+
     /**
      * Sends an interface to your inventory.
      * 
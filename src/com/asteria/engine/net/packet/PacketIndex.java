@@ -0,0 +1,95 @@
+package com.asteria.engine.net.packet;
+
+/**
+ * The index of every packet the server is able to encode. The decoders are
+ * indexed separately in the <code>PacketDecoderIndex</code>, which is
+ * generated by the <code>PacketDecoderProcessor</code> when the server is
+ * compiled, so the server does not need its source files to start and a new
+ * decoder can never be left out.
+ * <p>
+ * The opcodes sent by the {@link PacketEncoder} are indexed along with how
+ * they are framed, and every packet header that is built is checked against
+ * this index so a packet can never be sent with the wrong framing.
+ *
+ * @author lare96
+ */
+public final class PacketIndex {
+
+    /** The framing of every opcode that can be encoded. */
+    private static final Framing[] ENCODERS = new Framing[256];
+
+    /**
+     * Checks that the argued opcode is encoded with the argued framing.
+     *
+     * @param opcode
+     *            the opcode of the packet being encoded.
+     * @param framing
+     *            the framing the packet is being encoded with.
+     * @throws IllegalStateException
+     *             if the opcode is not indexed with the framing.
+     */
+    public static void checkEncoder(int opcode, Framing framing) {
+        if (opcode < 0 || opcode >= ENCODERS.length || ENCODERS[opcode] != framing) {
+            throw new IllegalStateException("Opcode " + opcode
+                + " is not indexed as a " + framing + " packet!");
+        }
+    }
+
+    /**
+     * Gets the framing of the argued outgoing opcode.
+     *
+     * @param opcode
+     *            the opcode to get the framing of.
+     * @return the framing, or <code>null</code> if the opcode is not encoded.
+     */
+    public static Framing getFraming(int opcode) {
+        return opcode < 0 || opcode >= ENCODERS.length ? null
+            : ENCODERS[opcode];
+    }
+
+    /**
+     * Indexes the argued opcodes as being encoded with the argued framing.
+     *
+     * @param framing
+     *            the framing of the opcodes.
+     * @param opcodes
+     *            the opcodes to index.
+     */
+    private static void encoder(Framing framing, int... opcodes) {
+        for (int opcode : opcodes) {
+            if (ENCODERS[opcode] != null) {
+                throw new IllegalStateException("Opcode " + opcode
+                    + " is already indexed!");
+            }
+            ENCODERS[opcode] = framing;
+        }
+    }
+
+    private PacketIndex() {}
+
+    /**
+     * The ways that an outgoing packet can be framed.
+     *
+     * @author lare96
+     */
+    public enum Framing {
+
+        /** The packet always has the same length, which is not written. */
+        FIXED,
+
+        /** The length of the packet is written as a byte. */
+        VARIABLE,
+
+        /** The length of the packet is written as a short. */
+        VARIABLE_SHORT
+    }
+
+    static {
+        encoder(Framing.FIXED, 1, 4, 24, 35, 36, 44, 50, 61, 70, 71, 73, 74,
+            75, 85, 97, 99, 101, 107, 108, 109, 110, 114, 117, 122, 134, 151,
+            156, 160, 164, 166, 171, 174, 176, 177, 185, 187, 200, 206, 208,
+            219, 221, 246, 248, 249, 254);
+        encoder(Framing.VARIABLE, 104, 196, 253);
+        encoder(Framing.VARIABLE_SHORT, 34, 53, 65, 81, 126, 241);
+    }
+}
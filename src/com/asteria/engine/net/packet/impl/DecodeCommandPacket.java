@@ -1,5 +1,6 @@
 package com.asteria.engine.net.packet.impl;
 
+import com.asteria.engine.TickProfiler;
 import com.asteria.engine.net.HostGateway;
 import com.asteria.engine.net.ProtocolBuffer;
 import com.asteria.engine.net.packet.PacketDecoder;
@@ -9,6 +10,7 @@ import com.asteria.world.entity.Animation;
 import com.asteria.world.entity.Graphic;
 import com.asteria.world.entity.npc.Npc;
 import com.asteria.world.entity.player.Player;
+import com.asteria.world.entity.player.PlayerFileTask;
 import com.asteria.world.entity.player.PlayerRights;
 import com.asteria.world.entity.player.skill.Skills;
 import com.asteria.world.item.Item;
@@ -208,6 +210,25 @@ public class DecodeCommandPacket extends PacketDecoder {
                 player.getPacketBuilder().sendConfig(Integer.parseInt(cmd[1]),
                     Integer.parseInt(cmd[2]));
                 break;
+            case "profile":
+                if (cmd.length > 1 && cmd[1].equals("dump")) {
+                    TickProfiler.dump();
+                    player.getPacketBuilder().sendMessage(
+                        "Profile written to ./benchmarks/tick-profile.txt!");
+                } else if (cmd.length > 1 && cmd[1].equals("reset")) {
+                    TickProfiler.reset();
+                    player.getPacketBuilder().sendMessage(
+                        "Profile statistics have been reset!");
+                } else {
+                    TickProfiler.report().forEach(
+                        player.getPacketBuilder()::sendMessage);
+                }
+                break;
+            case "export":
+                PlayerFileTask.exportJson(player);
+                player.getPacketBuilder().sendMessage(
+                    "Your character file is being exported to JSON!");
+                break;
             default:
                 player.getPacketBuilder().sendMessage(
                     "Command [::" + cmd[0] + "] does not exist!");
@@ -4,6 +4,7 @@ import com.asteria.engine.net.ProtocolBuffer;
 import com.asteria.engine.net.packet.PacketDecoder;
 import com.asteria.engine.net.packet.PacketOpcodeHeader;
 import com.asteria.world.entity.player.Player;
+import com.asteria.world.shop.Shop;
 
 /**
  * Sent when the player clicks certain options on an interface.
@@ -20,5 +21,6 @@ public class DecodeInterfaceClickPacket extends PacketDecoder {
         }
 
         player.getPacketBuilder().sendCloseWindows();
+        Shop.closeShop(player);
     }
 }
@@ -6,6 +6,7 @@ import com.asteria.engine.net.packet.PacketDecoder;
 import com.asteria.engine.net.packet.PacketOpcodeHeader;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.entity.player.skill.Skills;
+import com.asteria.world.shop.Shop;
 import com.asteria.world.map.Position;
 
 /**
@@ -56,7 +57,7 @@ public class DecodeMovementPacket extends PacketDecoder {
         }
 
         player.getPacketBuilder().sendCloseWindows();
-        player.setOpenShopId(-1);
+        Shop.closeShop(player);
 
         int steps = (length - 5) / 2;
         int[][] path = new int[steps][2];
@@ -1,6 +1,5 @@
 package com.asteria.engine.task;
 
-import java.util.Iterator;
 import java.util.Objects;
 
 /**
@@ -17,9 +16,6 @@ public abstract class Task {
     /** The fixed delay for this task. */
     private int delay;
 
-    /** The amount of time that this task has been waiting for. */
-    private int waitingDelay;
-
     /** If this task should be ran straight away before being submitted. */
     private boolean initialRun;
 
@@ -33,6 +29,18 @@ public abstract class Task {
      */
     private boolean running;
 
+    /** If this task has been registered with the {@link TaskManager}. */
+    boolean registered;
+
+    /** The tick that this task is next due to be fired on. */
+    long dueTick;
+
+    /** The slot in the {@link TimingWheel} this task is in, or -1 if none. */
+    int slot = -1;
+
+    /** The tasks before and after this task in its slot. */
+    Task previous, next;
+
     /**
      * Create a new {@link Task}.
      * 
@@ -69,39 +77,19 @@ public abstract class Task {
     }
 
     /**
-     * Called every single tick for all active task, and is used to fire tasks
-     * and remove cancelled tasks. This method should never be called anywhere
-     * else other than the <code>tick()</code> method in the {@link TaskManager}
-     * class or tasks will become out of sync!
-     * 
-     * @param it
-     *            the iterator instance so we can remove cancelled tasks.
+     * Fires this task, printing any errors that are thrown. This method should
+     * never be called anywhere else other than the <code>tick()</code> method
+     * in the {@link TaskManager} class or tasks will become out of sync!
      */
-    protected final void process(Iterator<Task> it) {
-
-        // Increment the waiting delay.
-        waitingDelay++;
+    final void fire() {
+        try {
 
-        // Check if this task is ready to execute.
-        if (waitingDelay == delay) {
+            // Execute the code within the task.
+            execute();
+        } catch (Exception e) {
 
-            try {
-
-                // Execute the code within the task.
-                execute();
-            } catch (Exception e) {
-
-                // Print any errors we may come across.
-                e.printStackTrace();
-            }
-
-            // Reset the waiting delay.
-            waitingDelay = 0;
-
-            // Remove the task if needed.
-            if (!running) {
-                it.remove();
-            }
+            // Print any errors we may come across.
+            e.printStackTrace();
         }
     }
 
@@ -112,6 +100,7 @@ public abstract class Task {
     public final void cancel() {
         if (running) {
             running = false;
+            TaskManager.unregister(this);
             onCancel();
         }
     }
@@ -132,7 +121,12 @@ public abstract class Task {
      * @return this task for chaining.
      */
     public final Task bind(Object key) {
+        Object previousKey = this.key;
         this.key = Objects.requireNonNull(key);
+
+        if (registered) {
+            TaskManager.rebind(this, previousKey);
+        }
         return this;
     }
 
@@ -142,9 +136,31 @@ public abstract class Task {
      * 
      * @param delay
      *            the new delay to set for this task.
+     * @throws IllegalArgumentException
+     *             if the delay is not above 0.
      */
     public final void setDelay(int delay) {
+
+        // A task with no delay would be fired forever within the same cycle.
+        if (delay <= 0) {
+            throw new IllegalArgumentException(
+                "The delay must be above 0! Delay was: " + delay);
+        }
+        int previousDelay = this.delay;
         this.delay = delay;
+
+        if (registered) {
+            TaskManager.reschedule(this, previousDelay);
+        }
+    }
+
+    /**
+     * Gets the fixed delay for this task.
+     * 
+     * @return the delay for this task.
+     */
+    public final int getDelay() {
+        return delay;
     }
 
     /**
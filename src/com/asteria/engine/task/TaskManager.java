@@ -1,15 +1,23 @@
 package com.asteria.engine.task;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * Utility methods to manage stored pending and active tasks. The functions in
  * this class are <b>NOT</b> safe for use across multiple threads.
+ * <p>
+ * Active tasks are held in a {@link TimingWheel} so that every tick only the
+ * tasks that are due are touched, and are also indexed by the key bound to
+ * them so that they can be retrieved and cancelled without searching through
+ * every active task. Keys are matched by identity.
  * 
  * @author lare96
  */
@@ -18,41 +26,42 @@ public final class TaskManager {
     /** A queue of pending {@link Task}s waiting to be registered. */
     private static Queue<Task> pendingTasks = new LinkedList<>();
 
-    /**
-     * A list of already active {@link Task}s being processed. We use a linked
-     * list instead of an arraylist because we only need assertion and iterator
-     * removal which linkedlist has O(1) time complexities for, unlike an
-     * arraylist which has to resize periodically and has a time complexity of
-     * O(n) for iterator removal.
-     */
-    private static List<Task> activeTasks = new LinkedList<>();
+    /** The wheel that holds the active {@link Task}s until they are due. */
+    private static TimingWheel wheel = new TimingWheel();
+
+    /** The active {@link Task}s, grouped by the key bound to them. */
+    private static Map<Object, Set<Task>> keyedTasks = new IdentityHashMap<>();
 
     /**
-     * Adds pending tasks to the list of active tasks, fires tasks that are
-     * ready to be ran, and removes tasks that have been canceled.
+     * Adds pending tasks to the wheel of active tasks, and fires the tasks
+     * that are due this tick.
      */
     public static void tick() {
 
-        // Add all of the pending tasks to the active list only if they are
-        // running.
+        // Move the wheel onto the next tick.
+        wheel.advance();
+
+        // Register all of the pending tasks only if they are running. Tasks
+        // are first processed on the tick they are registered, so they are due
+        // one tick earlier than their delay.
         Task t;
         while ((t = pendingTasks.poll()) != null) {
             if (t.isRunning()) {
-                activeTasks.add(t);
+                register(t);
+                wheel.add(t, wheel.getTick() + t.getDelay() - 1);
             }
         }
 
-        // Iterate through every single task and perform processing on it.
-        Iterator<Task> it = activeTasks.iterator();
-
-        while (it.hasNext()) {
-            t = it.next();
+        // Fire every task that is due, and schedule them again if they are
+        // still running.
+        while ((t = wheel.poll()) != null) {
+            t.fire();
 
-            if (!t.isRunning()) {
-                it.remove();
-                continue;
+            if (t.isRunning()) {
+                wheel.add(t, wheel.getTick() + t.getDelay());
+            } else {
+                unregister(t);
             }
-            t.process(it);
         }
     }
 
@@ -85,7 +94,7 @@ public final class TaskManager {
      */
     public static void cancelAllTasks() {
         pendingTasks.forEach(t -> t.cancel());
-        activeTasks.forEach(t -> t.cancel());
+        retrieveActiveTasks().forEach(t -> t.cancel());
     }
 
     /**
@@ -95,8 +104,7 @@ public final class TaskManager {
      *            the key to stop all tasks with.
      */
     public static void cancelTasks(Object key) {
-        activeTasks.stream().filter(t -> t.getKey().equals(key)).forEach(
-            t -> t.cancel());
+        retrieveTasks(key).forEach(t -> t.cancel());
     }
 
     /**
@@ -107,10 +115,8 @@ public final class TaskManager {
      * @return a list of tasks with this bound key.
      */
     public static LinkedList<Task> retrieveTasks(Object key) {
-        LinkedList<Task> tasks = new LinkedList<>();
-        activeTasks.stream().filter(t -> t.getKey().equals(key)).forEach(
-            t -> tasks.add(t));
-        return tasks;
+        Set<Task> tasks = keyedTasks.get(key);
+        return tasks == null ? new LinkedList<>() : new LinkedList<>(tasks);
     }
 
     /**
@@ -119,7 +125,9 @@ public final class TaskManager {
      * @return an unmodifiable list of all of the active tasks.
      */
     public static List<Task> retrieveActiveTasks() {
-        return Collections.unmodifiableList(activeTasks);
+        List<Task> tasks = new ArrayList<>(wheel.size());
+        keyedTasks.values().forEach(tasks::addAll);
+        return Collections.unmodifiableList(tasks);
     }
 
     /**
@@ -132,5 +140,84 @@ public final class TaskManager {
         return Collections.unmodifiableCollection(pendingTasks);
     }
 
+    /**
+     * Registers a task as active and indexes it by its key.
+     * 
+     * @param task
+     *            the task to register.
+     */
+    private static void register(Task task) {
+        task.registered = true;
+        keyedTasks.computeIfAbsent(task.getKey(),
+            k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(task);
+    }
+
+    /**
+     * Removes a task from the wheel and the key index. This is called when a
+     * task is cancelled, and has no effect if the task was never registered.
+     * 
+     * @param task
+     *            the task to unregister.
+     */
+    static void unregister(Task task) {
+        if (!task.registered) {
+            return;
+        }
+        task.registered = false;
+        wheel.remove(task);
+        removeKey(task, task.getKey());
+    }
+
+    /**
+     * Moves an active task in the key index after a new key is bound to it.
+     * 
+     * @param task
+     *            the task that a new key was bound to.
+     * @param previousKey
+     *            the key that was bound to the task before.
+     */
+    static void rebind(Task task, Object previousKey) {
+        removeKey(task, previousKey);
+        keyedTasks.computeIfAbsent(task.getKey(),
+            k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(task);
+    }
+
+    /**
+     * Moves an active task in the wheel after its delay has been changed, so
+     * the new delay counts from when the task was last fired. If the task is
+     * currently being fired it will be scheduled with the new delay once it
+     * has finished.
+     * 
+     * @param task
+     *            the task that had its delay changed.
+     * @param previousDelay
+     *            the delay of the task before it was changed.
+     */
+    static void reschedule(Task task, int previousDelay) {
+        if (task.slot == -1) {
+            return;
+        }
+        long lastFired = task.dueTick - previousDelay;
+        wheel.remove(task);
+        wheel.add(task, Math.max(lastFired + task.getDelay(),
+            wheel.getTick() + 1));
+    }
+
+    /**
+     * Removes a task from the key index under the argued key.
+     * 
+     * @param task
+     *            the task to remove.
+     * @param key
+     *            the key that the task is indexed under.
+     */
+    private static void removeKey(Task task, Object key) {
+        Set<Task> tasks = keyedTasks.get(key);
+
+        if (tasks != null && tasks.remove(task) && tasks.isEmpty()) {
+            keyedTasks.remove(key);
+        }
+    }
+
     private TaskManager() {}
 }
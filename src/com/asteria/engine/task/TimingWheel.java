@@ -0,0 +1,182 @@
+package com.asteria.engine.task;
+
+/**
+ * A hierarchical timing wheel that holds {@link Task}s until the tick they are
+ * due on. The wheel is made up of several levels of slots, where every slot on
+ * the first level covers a single tick and every slot on the levels above
+ * covers all of the slots on the level below it. Tasks are placed on the
+ * lowest level that can hold their delay, and are moved down a level each
+ * time the wheel reaches the slot they are in. This means that every tick
+ * only has to touch the tasks that are due, and the tasks being moved down,
+ * rather than every task that has been scheduled.
+ * <p>
+ * Tasks are linked together within their slots through fields in the task
+ * itself, so tasks can be removed from the wheel in constant time.
+ *
+ * @author lare96
+ */
+final class TimingWheel {
+
+    /** The amount of bits used to index the slots on a single level. */
+    private static final int BITS = 6;
+
+    /** The amount of slots on a single level. */
+    private static final int SIZE = 1 << BITS;
+
+    /** The mask used to index the slots on a single level. */
+    private static final int MASK = SIZE - 1;
+
+    /** The amount of levels in this wheel. */
+    private static final int LEVELS = 4;
+
+    /**
+     * The largest delay that the wheel can hold, tasks with larger delays are
+     * held on the top level and placed again once they reach the bottom.
+     */
+    private static final long MAX_DELAY = (1L << (BITS * LEVELS)) - 1;
+
+    /** The first task in every slot, the slots of each level are in order. */
+    private final Task[] slots = new Task[LEVELS * SIZE];
+
+    /** The tick that the wheel is currently on. */
+    private long tick;
+
+    /** The amount of tasks in the wheel. */
+    private int size;
+
+    /**
+     * Moves the wheel forward a single tick, moving the tasks in the slots of
+     * the higher levels that have been reached down towards the first level.
+     */
+    public void advance() {
+        tick++;
+
+        for (int level = 1; level < LEVELS; level++) {
+            if ((tick & ((1L << (BITS * level)) - 1)) != 0) {
+                break;
+            }
+            cascade(level * SIZE + (int) ((tick >>> (BITS * level)) & MASK));
+        }
+    }
+
+    /**
+     * Removes and returns a task that is due on the current tick.
+     *
+     * @return the due task, or <code>null</code> if there are no more tasks
+     *         due this tick.
+     */
+    public Task poll() {
+        Task task = slots[(int) (tick & MASK)];
+
+        if (task != null) {
+            remove(task);
+        }
+        return task;
+    }
+
+    /**
+     * Adds a task to the wheel, to be due on the argued tick. Ticks that have
+     * already passed are treated as the current tick.
+     *
+     * @param task
+     *            the task to add.
+     * @param dueTick
+     *            the tick that the task is due on.
+     */
+    public void add(Task task, long dueTick) {
+        task.dueTick = dueTick;
+        link(task);
+    }
+
+    /**
+     * Removes a task from the wheel. If the task is not in the wheel this
+     * method has no effect.
+     *
+     * @param task
+     *            the task to remove.
+     */
+    public void remove(Task task) {
+        if (task.slot == -1) {
+            return;
+        }
+
+        if (task.previous != null) {
+            task.previous.next = task.next;
+        } else {
+            slots[task.slot] = task.next;
+        }
+        if (task.next != null) {
+            task.next.previous = task.previous;
+        }
+        task.previous = null;
+        task.next = null;
+        task.slot = -1;
+        size--;
+    }
+
+    /**
+     * Places a task in the slot for its due tick, on the lowest level that can
+     * hold it.
+     *
+     * @param task
+     *            the task to place.
+     */
+    private void link(Task task) {
+        long delay = Math.min(Math.max(task.dueTick - tick, 0), MAX_DELAY);
+        long due = tick + delay;
+        int level = 0;
+
+        while (level < LEVELS - 1 && delay >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+
+        int slot = level * SIZE + (int) ((due >>> (BITS * level)) & MASK);
+        task.slot = slot;
+        task.previous = null;
+        task.next = slots[slot];
+
+        if (task.next != null) {
+            task.next.previous = task;
+        }
+        slots[slot] = task;
+        size++;
+    }
+
+    /**
+     * Places every task in the argued slot again, which moves them down to a
+     * lower level now that their due tick is closer.
+     *
+     * @param slot
+     *            the slot to cascade.
+     */
+    private void cascade(int slot) {
+        Task task = slots[slot];
+        slots[slot] = null;
+
+        while (task != null) {
+            Task next = task.next;
+            task.slot = -1;
+            size--;
+            link(task);
+            task = next;
+        }
+    }
+
+    /**
+     * Gets the tick that the wheel is currently on.
+     *
+     * @return the current tick.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the amount of tasks in the wheel.
+     *
+     * @return the amount of tasks.
+     */
+    public int size() {
+        return size;
+    }
+}
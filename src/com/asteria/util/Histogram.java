@@ -0,0 +1,151 @@
+package com.asteria.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe, fixed size histogram that records positive values such as
+ * latencies or byte counts. Values are placed into logarithmic buckets that
+ * are each split into eight linear sub-buckets, so percentiles are accurate to
+ * within <tt>12.5%</tt> while recording a value is only a couple of atomic
+ * increments. This makes it cheap enough to leave on in production, unlike the
+ * {@link Benchmark} which keeps every collected value.
+ *
+ * @author lare96
+ */
+public final class Histogram {
+
+    /** The amount of bits used to split a power of two into sub-buckets. */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** The amount of sub-buckets in every power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The amount of recorded values that fall within each bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(
+        64 << SUB_BUCKET_BITS);
+
+    /** The amount of values recorded. */
+    private final AtomicLong count = new AtomicLong();
+
+    /** The sum of all values recorded. */
+    private final AtomicLong total = new AtomicLong();
+
+    /** The largest value recorded. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the argued value in this histogram. Negative values are recorded
+     * as <tt>0</tt>.
+     *
+     * @param value
+     *            the value to record.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Calculates the value that the argued percentage of recorded values are
+     * less than or equal to. The upper bound of the bucket that the percentile
+     * falls in is returned, so the result errs on the high side.
+     *
+     * @param percentile
+     *            the percentile between <tt>0</tt> and <tt>100</tt>.
+     * @return the value at the percentile, or <tt>0</tt> if nothing has been
+     *         recorded.
+     */
+    public long percentile(double percentile) {
+        long amount = count.get();
+
+        if (amount == 0)
+            return 0;
+
+        long target = (long) Math.ceil(amount * (percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+
+            if (seen >= Math.max(1, target))
+                return Math.min(max.get(), upperBound(i));
+        }
+        return max.get();
+    }
+
+    /**
+     * Gets the average of all recorded values.
+     *
+     * @return the average value, or <tt>0</tt> if nothing has been recorded.
+     */
+    public long average() {
+        long amount = count.get();
+        return amount == 0 ? 0 : total.get() / amount;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return the largest value.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets the amount of values recorded.
+     *
+     * @return the amount of values.
+     */
+    public long count() {
+        return count.get();
+    }
+
+    /** Discards all of the values recorded in this histogram. */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Determines the bucket that the argued value belongs in.
+     *
+     * @param value
+     *            the value to determine the bucket for.
+     * @return the index of the bucket.
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS))
+            & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | sub;
+    }
+
+    /**
+     * Determines the largest value that belongs in the argued bucket.
+     *
+     * @param bucket
+     *            the index of the bucket.
+     * @return the largest value in the bucket.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1)))
+            << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
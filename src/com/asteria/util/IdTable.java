@@ -0,0 +1,99 @@
+package com.asteria.util;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable table of values indexed by their identifiers, such as item or
+ * spell identifiers. It is built once from an array of constants, and after
+ * that a value is found with a single array access instead of a search through
+ * every constant. Every value is wrapped in an {@link Optional} when the table
+ * is built, so lookups never create any objects.
+ * <p>
+ * The table is as large as the highest identifier it holds, so it should only
+ * be used for identifiers that are reasonably small.
+ *
+ * @author lare96
+ * @param <T>
+ *            the type of values held within this table.
+ */
+public final class IdTable<T> {
+
+    /** The values in this table, indexed by their identifiers. */
+    private final Optional<T>[] table;
+
+    /**
+     * Create a new {@link IdTable}.
+     *
+     * @param table
+     *            the values in this table, indexed by their identifiers.
+     */
+    private IdTable(Optional<T>[] table) {
+        this.table = table;
+    }
+
+    /**
+     * Builds a table of the argued values, where every value has a single
+     * identifier. Values with a negative identifier are left out, and when
+     * several values have the same identifier the first one is used.
+     *
+     * @param values
+     *            the values to build the table of.
+     * @param id
+     *            the function that gets the identifier of a value.
+     * @return the table of values.
+     */
+    public static <T> IdTable<T> forId(T[] values, ToIntFunction<T> id) {
+        return forIds(values, value -> new int[] { id.applyAsInt(value) });
+    }
+
+    /**
+     * Builds a table of the argued values, where every value can have any
+     * amount of identifiers. Negative identifiers are left out, and when
+     * several values have the same identifier the first one is used.
+     *
+     * @param values
+     *            the values to build the table of.
+     * @param ids
+     *            the function that gets the identifiers of a value.
+     * @return the table of values.
+     */
+    public static <T> IdTable<T> forIds(T[] values, Function<T, int[]> ids) {
+        int length = 0;
+
+        // Find the highest identifier to determine the size of the table.
+        for (T value : values) {
+            for (int id : ids.apply(value)) {
+                length = Math.max(length, id + 1);
+            }
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Optional<T>[] table = new Optional[length];
+        Arrays.fill(table, Optional.empty());
+
+        for (T value : values) {
+            Optional<T> entry = Optional.of(value);
+
+            for (int id : ids.apply(value)) {
+                if (id >= 0 && !table[id].isPresent()) {
+                    table[id] = entry;
+                }
+            }
+        }
+        return new IdTable<>(table);
+    }
+
+    /**
+     * Gets the value with the argued identifier.
+     *
+     * @param id
+     *            the identifier of the value.
+     * @return the value, or an empty optional if no value has the identifier.
+     */
+    public Optional<T> get(int id) {
+        return id < 0 || id >= table.length ? Optional.empty() : table[id];
+    }
+}
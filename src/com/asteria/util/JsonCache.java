@@ -0,0 +1,274 @@
+package com.asteria.util;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * A compact binary encoding of parsed <code>.json</code> elements, used by the
+ * {@link JsonLoader} to cache files so they do not have to be parsed as text
+ * on every startup. Every element is written as a single byte tag followed by
+ * its value. Numbers are written in the smallest form they fit within, and
+ * strings are written as UTF-8 with their length in front. Field names are
+ * only written out the first time they appear, after that they are written as
+ * their index in the order they first appeared.
+ * <p>
+ * A cache keeps track of the field names it has seen, so a new instance must
+ * be used for every file that is written or read.
+ *
+ * @author lare96
+ */
+final class JsonCache {
+
+    /** The tag that marks the end of the cached elements. */
+    static final int END = 0;
+
+    /** The tag for a <code>null</code> element. */
+    private static final int NULL = 1;
+
+    /** The tag for a <code>true</code> element. */
+    private static final int TRUE = 2;
+
+    /** The tag for a <code>false</code> element. */
+    private static final int FALSE = 3;
+
+    /** The tag for a number that fits within a byte. */
+    private static final int BYTE = 4;
+
+    /** The tag for a number that fits within an integer. */
+    private static final int INT = 5;
+
+    /** The tag for a number that fits within a long. */
+    private static final int LONG = 6;
+
+    /** The tag for any other number, which is written as text. */
+    private static final int NUMBER = 7;
+
+    /** The tag for a string. */
+    private static final int STRING = 8;
+
+    /** The tag for an array of elements. */
+    private static final int ARRAY = 9;
+
+    /** The tag for an object of named elements. */
+    private static final int OBJECT = 10;
+
+    /** The indexes of the field names that have been written. */
+    private final Map<String, Integer> keyIndexes = new HashMap<>();
+
+    /** The field names that have been read, in the order they appeared. */
+    private final List<String> keys = new ArrayList<>();
+
+    /**
+     * Writes the argued element and all of the elements within it.
+     *
+     * @param element
+     *            the element to write.
+     * @param out
+     *            the stream to write the element to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    void write(JsonElement element, DataOutputStream out)
+        throws IOException {
+        if (element.isJsonNull()) {
+            out.writeByte(NULL);
+        } else if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            out.writeByte(OBJECT);
+            out.writeInt(object.entrySet().size());
+
+            for (Entry<String, JsonElement> entry : object.entrySet()) {
+                writeKey(entry.getKey(), out);
+                write(entry.getValue(), out);
+            }
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            out.writeByte(ARRAY);
+            out.writeInt(array.size());
+
+            for (JsonElement next : array) {
+                write(next, out);
+            }
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else if (primitive.isNumber()) {
+                writeNumber(primitive.getAsString(), out);
+            } else {
+                out.writeByte(STRING);
+                writeString(primitive.getAsString(), out);
+            }
+        }
+    }
+
+    /**
+     * Reads the next element, and all of the elements within it.
+     *
+     * @param buffer
+     *            the buffer to read the element from.
+     * @return the element, or <code>null</code> if the end of the cached
+     *         elements has been reached.
+     */
+    JsonElement read(ByteBuffer buffer) {
+        int tag = buffer.get();
+
+        switch (tag) {
+        case END:
+            return null;
+        case NULL:
+            return JsonNull.INSTANCE;
+        case TRUE:
+            return new JsonPrimitive(true);
+        case FALSE:
+            return new JsonPrimitive(false);
+        case BYTE:
+            return new JsonPrimitive(buffer.get());
+        case INT:
+            return new JsonPrimitive(buffer.getInt());
+        case LONG:
+            return new JsonPrimitive(buffer.getLong());
+        case NUMBER:
+            return new JsonPrimitive(new BigDecimal(readString(buffer)));
+        case STRING:
+            return new JsonPrimitive(readString(buffer));
+        case ARRAY:
+            JsonArray array = new JsonArray();
+
+            for (int i = buffer.getInt(); i > 0; i--) {
+                array.add(read(buffer));
+            }
+            return array;
+        case OBJECT:
+            JsonObject object = new JsonObject();
+
+            for (int i = buffer.getInt(); i > 0; i--) {
+                object.add(readKey(buffer), read(buffer));
+            }
+            return object;
+        default:
+            throw new IllegalStateException("Invalid element tag: " + tag);
+        }
+    }
+
+    /**
+     * Writes a number in the smallest form that it fits within.
+     *
+     * @param number
+     *            the number as it appeared in the file.
+     * @param out
+     *            the stream to write the number to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private static void writeNumber(String number, DataOutputStream out)
+        throws IOException {
+        try {
+            long value = Long.parseLong(number);
+
+            if (value == (byte) value) {
+                out.writeByte(BYTE);
+                out.writeByte((int) value);
+            } else if (value == (int) value) {
+                out.writeByte(INT);
+                out.writeInt((int) value);
+            } else {
+                out.writeByte(LONG);
+                out.writeLong(value);
+            }
+        } catch (NumberFormatException e) {
+            out.writeByte(NUMBER);
+            writeString(number, out);
+        }
+    }
+
+    /**
+     * Writes a field name, as its index if it has already been written.
+     *
+     * @param key
+     *            the field name to write.
+     * @param out
+     *            the stream to write the field name to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private void writeKey(String key, DataOutputStream out)
+        throws IOException {
+        Integer index = keyIndexes.get(key);
+
+        if (index != null) {
+            out.writeShort(index);
+            return;
+        }
+        out.writeShort(-1);
+        writeString(key, out);
+
+        if (keyIndexes.size() < Short.MAX_VALUE) {
+            keyIndexes.put(key, keyIndexes.size());
+        }
+    }
+
+    /**
+     * Reads a field name written by {@link #writeKey}.
+     *
+     * @param buffer
+     *            the buffer to read the field name from.
+     * @return the field name that was read.
+     */
+    private String readKey(ByteBuffer buffer) {
+        int index = buffer.getShort();
+
+        if (index != -1) {
+            return keys.get(index);
+        }
+        String key = readString(buffer);
+        keys.add(key);
+        return key;
+    }
+
+    /**
+     * Writes a string as UTF-8, with its length in front.
+     *
+     * @param string
+     *            the string to write.
+     * @param out
+     *            the stream to write the string to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private static void writeString(String string, DataOutputStream out)
+        throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param buffer
+     *            the buffer to read the string from.
+     * @return the string that was read.
+     */
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -1,46 +1,69 @@
 package com.asteria.util;
 
-import java.io.FileReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 /**
  * A utility class that provides functions for parsing <code>.json</code> files.
- * 
+ * <p>
+ * Files are read with a streaming parser, so only a single element of the
+ * file is held in memory at any time. Every file that is parsed is also
+ * written to a compact binary cache in <tt>./data/cache/</tt> along with a
+ * checksum of the file, and as long as the file does not change afterwards
+ * the elements are read from the memory mapped cache instead of being parsed
+ * again.
+ *
  * @author lare96
  */
 public abstract class JsonLoader {
 
-    /** Used for parsing the actual file. */
-    private JsonParser parser;
+    /** A logger for printing debugging info. */
+    private static Logger logger = Logger.getLogger(JsonLoader.class
+        .getSimpleName());
 
-    /** Holds all of the elements of the parsed file. */
-    private JsonArray array;
+    /** The directory that the binary caches are kept in. */
+    private static final Path CACHE_DIRECTORY = Paths.get("./data/cache/");
+
+    /** The value that every binary cache starts with. */
+    private static final int CACHE_MAGIC = 0x4a534f4e;
+
+    /** Used for parsing the elements of the file. */
+    private final JsonParser parser = new JsonParser();
 
     /** Used to extract the data from the parsed elements. */
-    private Gson builder;
+    private final Gson builder;
 
     /**
      * Create a new {@link JsonLoader}.
-     * 
+     *
      * @throws Exception
      *             if any exceptions occur while creating the loader.
      */
     public JsonLoader() throws Exception {
-        this.parser = new JsonParser();
-        this.array = (JsonArray) parser.parse(new FileReader(Paths.get(
-            filePath()).toFile()));
         this.builder = new GsonBuilder().create();
     }
 
     /**
      * Allows the user to read and/or modify the parsed data.
-     * 
+     *
      * @param reader
      *            the reader instance.
      * @param builder
@@ -50,7 +73,7 @@ public abstract class JsonLoader {
 
     /**
      * Returns the path to the <code>.json</code> file that will be parsed.
-     * 
+     *
      * @return the path to the file.
      */
     public abstract String filePath();
@@ -58,16 +81,163 @@ public abstract class JsonLoader {
     /**
      * Loads the parsed data. How the data is loaded is defined by
      * <code>load(JsonObject j, Gson g)</code>.
-     * 
+     *
      * @return the loader instance, for chaining.
      * @throws Exception
      *             if any exception occur while loading the parsed data.
      */
     public JsonLoader load() throws Exception {
-        for (int i = 0; i < array.size(); i++) {
-            JsonObject reader = (JsonObject) array.get(i);
-            load(reader, builder);
+        Path file = Paths.get(filePath());
+        Path cache = CACHE_DIRECTORY.resolve(file.getFileName() + ".bin");
+        long checksum = checksum(file);
+
+        if (!loadCache(cache, checksum)) {
+            parse(file, cache, checksum);
         }
         return this;
     }
+
+    /**
+     * Parses the elements of the argued file, and then writes them to the
+     * argued cache.
+     *
+     * @param file
+     *            the file to parse.
+     * @param cache
+     *            the cache to write the elements to.
+     * @param checksum
+     *            the checksum of the file.
+     * @throws IOException
+     *             if any errors occur while parsing.
+     */
+    private void parse(Path file, Path cache, long checksum)
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        JsonCache encoder = new JsonCache();
+        out.writeInt(CACHE_MAGIC);
+        out.writeLong(checksum);
+
+        try (JsonReader in = new JsonReader(Files.newBufferedReader(file,
+            StandardCharsets.UTF_8))) {
+            in.beginArray();
+
+            while (in.hasNext()) {
+                JsonElement element = parser.parse(in);
+                load(element.getAsJsonObject(), builder);
+                encoder.write(element, out);
+            }
+            in.endArray();
+        }
+        out.writeByte(JsonCache.END);
+
+        // The cache is only an optimization, so failing to write it is not
+        // fatal. It is moved into place once it is complete so that a cache
+        // is never read while only part of it has been written.
+        try {
+            Files.createDirectories(CACHE_DIRECTORY);
+            Path temp = Files.createTempFile(CACHE_DIRECTORY, null, ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("Unable to write the cache for " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Loads the elements from the argued cache, if it exists and was written
+     * with the argued checksum. A cache that was written for an older version
+     * of the file, or that cannot be read, is deleted and the file is parsed
+     * instead.
+     *
+     * @param cache
+     *            the cache to load the elements from.
+     * @param checksum
+     *            the checksum of the file that the cache must match.
+     * @return <code>true</code> if the elements were loaded from the cache,
+     *         <code>false</code> if the file has to be parsed instead.
+     */
+    private boolean loadCache(Path cache, long checksum) {
+        if (!Files.isRegularFile(cache)) {
+            return false;
+        }
+        boolean loaded = false;
+
+        try (FileChannel channel = FileChannel.open(cache)) {
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel
+                .size());
+
+            if (buffer.remaining() >= 13 && buffer.getInt() == CACHE_MAGIC && buffer
+                .getLong() == checksum && isReadable(cache, buffer)) {
+                JsonCache decoder = new JsonCache();
+                JsonElement element;
+
+                while ((element = decoder.read(buffer)) != null) {
+                    load(element.getAsJsonObject(), builder);
+                }
+                loaded = true;
+            }
+        } catch (IOException e) {
+            logger.warning("Unable to read the cache " + cache + ": " + e);
+        }
+
+        // The cache is deleted once it is closed, it will be written again
+        // when the file is parsed.
+        if (!loaded) {
+            try {
+                Files.deleteIfExists(cache);
+            } catch (IOException e) {
+                logger.warning("Unable to delete the cache " + cache + ": "
+                    + e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Determines if every element in the argued cache can be decoded. The
+     * whole cache is checked before any of it is loaded, so a cache that is
+     * truncated or corrupt never leaves the loader with only part of the
+     * elements.
+     *
+     * @param cache
+     *            the cache being checked.
+     * @param buffer
+     *            the buffer positioned at the first element of the cache.
+     * @return <code>true</code> if the cache can be decoded,
+     *         <code>false</code> otherwise.
+     */
+    private static boolean isReadable(Path cache, ByteBuffer buffer) {
+        ByteBuffer elements = buffer.duplicate();
+        JsonCache decoder = new JsonCache();
+
+        try {
+            while (decoder.read(elements) != null) {
+                continue;
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.warning("The cache " + cache + " is corrupt: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Calculates a checksum of the contents of the argued file, which changes
+     * whenever the file is changed.
+     *
+     * @param file
+     *            the file to calculate the checksum of.
+     * @return the checksum of the file.
+     * @throws IOException
+     *             if any errors occur while reading the file.
+     */
+    private static long checksum(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            CRC32 crc = new CRC32();
+            crc.update(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+            return channel.size() << 32 | crc.getValue();
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package com.asteria.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive <code>long</code> values that iterates in the order the
+ * values were added. The values are kept in a dense array and indexed by an
+ * open addressing hash table, so lookups are constant time without boxing any
+ * values. Removing a value shifts the values after it down and rebuilds the
+ * table, which is fine for the small and rarely changed sets this is used for
+ * such as friends and ignores lists.
+ *
+ * @author lare96
+ */
+public final class LongSet {
+
+    /** The values in this set, in the order they were added. */
+    private long[] values;
+
+    /** The indexes of the values plus one, or <tt>0</tt> for free slots. */
+    private int[] table;
+
+    /** The amount of values in this set. */
+    private int size;
+
+    /**
+     * Create a new {@link LongSet}.
+     *
+     * @param capacity
+     *            the amount of values this set can hold before growing.
+     */
+    public LongSet(int capacity) {
+        values = new long[Math.max(capacity, 4)];
+        table = new int[tableSizeFor(values.length)];
+    }
+
+    /**
+     * Adds the argued value to this set.
+     *
+     * @param value
+     *            the value to add.
+     * @return <code>true</code> if the value was added, <code>false</code> if
+     *         it was already in this set.
+     */
+    public boolean add(long value) {
+        if (find(value) != -1) {
+            return false;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            table = new int[tableSizeFor(values.length)];
+            rehash();
+        }
+        values[size++] = value;
+        insert(value, size);
+        return true;
+    }
+
+    /**
+     * Removes the argued value from this set.
+     *
+     * @param value
+     *            the value to remove.
+     * @return <code>true</code> if the value was removed, <code>false</code> if
+     *         it was not in this set.
+     */
+    public boolean remove(long value) {
+        int slot = find(value);
+
+        if (slot == -1) {
+            return false;
+        }
+        int index = table[slot] - 1;
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        Arrays.fill(table, 0);
+        rehash();
+        return true;
+    }
+
+    /**
+     * Determines if the argued value is in this set.
+     *
+     * @param value
+     *            the value to determine this for.
+     * @return <code>true</code> if the value is in this set,
+     *         <code>false</code> otherwise.
+     */
+    public boolean contains(long value) {
+        return find(value) != -1;
+    }
+
+    /**
+     * Gets the value at the argued index, where values are indexed in the
+     * order they were added.
+     *
+     * @param index
+     *            the index of the value.
+     * @return the value at the index.
+     */
+    public long get(int index) {
+        if (index < 0 || index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    /**
+     * Gets the amount of values in this set.
+     *
+     * @return the amount of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if this set has no values.
+     *
+     * @return <code>true</code> if this set is empty, <code>false</code>
+     *         otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every value from this set. */
+    public void clear() {
+        size = 0;
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * Copies the values in this set into a new array, in the order they were
+     * added.
+     *
+     * @return the array of values.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Finds the slot in the table that holds the argued value.
+     *
+     * @param value
+     *            the value to find.
+     * @return the slot of the value, or <tt>-1</tt> if it is not in this set.
+     */
+    private int find(long value) {
+        int mask = table.length - 1;
+
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1)
+            & mask) {
+            if (values[table[slot] - 1] == value) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Places the index of a value in the first free slot for it.
+     *
+     * @param value
+     *            the value being placed.
+     * @param index
+     *            the index of the value plus one.
+     */
+    private void insert(long value, int index) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index;
+    }
+
+    /** Places the index of every value in the table again. */
+    private void rehash() {
+        for (int i = 0; i < size; i++) {
+            insert(values[i], i + 1);
+        }
+    }
+
+    /**
+     * Spreads the bits of the argued value into a hash for the table.
+     *
+     * @param value
+     *            the value to hash.
+     * @return the hash of the value.
+     */
+    private static int hash(long value) {
+        long hash = value * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Calculates the size of the table for the argued amount of values, which
+     * keeps the table at most half full.
+     *
+     * @param capacity
+     *            the amount of values.
+     * @return the size of the table.
+     */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
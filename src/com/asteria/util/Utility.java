@@ -367,6 +367,50 @@ public final class Utility {
         return new String(DECODE_BUFFER, 0, idx);
     }
 
+    /**
+     * Packs text into an array of bytes, the reverse of
+     * {@link #textUnpack(byte[], int)}. Characters that are not in the
+     * character table are packed as spaces.
+     *
+     * @param text
+     *            the text to pack.
+     * @return the array of packed bytes.
+     */
+    public static byte[] textPack(String text) {
+        text = text.toLowerCase();
+        byte[] packed = new byte[text.length()];
+        int idx = 0, carry = -1;
+
+        for (int i = 0; i < text.length(); i++) {
+            int val = 0;
+
+            for (int j = 0; j < XLATE_TABLE.length; j++) {
+                if (text.charAt(i) == XLATE_TABLE[j]) {
+                    val = j;
+                    break;
+                }
+            }
+            if (val > 12)
+                val += 195;
+
+            if (carry == -1) {
+                if (val < 13)
+                    carry = val;
+                else
+                    packed[idx++] = (byte) val;
+            } else if (val < 13) {
+                packed[idx++] = (byte) ((carry << 4) + val);
+                carry = -1;
+            } else {
+                packed[idx++] = (byte) ((carry << 4) + (val >> 4));
+                carry = val & 0xf;
+            }
+        }
+        if (carry != -1)
+            packed[idx++] = (byte) (carry << 4);
+        return Arrays.copyOf(packed, idx);
+    }
+
     /**
      * Capitalizes the first character of the argued string. Any leading or
      * trailing whitespace in the argued string should be trimmed before using
@@ -486,7 +530,7 @@ public final class Utility {
         public static final String DIRECTORY = "./data/players/";
 
         /** The files with names starting with this string will be deleted. */
-        public static final String STARTING_WITH = "stressbot";
+        public static final String STARTING_WITH = "loadbot";
 
         /** The main method which starts the deletion process. */
         public static void main(String[] args) {
@@ -1,26 +1,88 @@
 package com.asteria.world;
 
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import com.asteria.world.entity.npc.Npc;
-import com.asteria.world.entity.npc.NpcAggression;
 
 /**
  * A {@link WorldUpdateSequence} implementation for {@link Npc}s that provides
  * code for each of the updating stages. The actual updating stage is not
  * supported by this implementation because npc's are updated for players.
- * 
+ * <p>
+ * Pre-updating is parallelized by map region, the npcs in each region are
+ * pre-updated by the same thread so npcs that interact with each other are
+ * never processed concurrently. Npcs that fail to pre-update cannot be removed
+ * while other regions are still being processed, so they are recorded and
+ * removed by the game thread once every region is done.
+ *
  * @author lare96
  */
 public class NpcUpdateSequence implements WorldUpdateSequence<Npc> {
 
+    /** Used to block the game thread until pre-updating is completed. */
+    private final Phaser synchronizer;
+
+    /** The thread pool that will pre-update regions in parallel. */
+    private final ThreadPoolExecutor updateExecutor;
+
+    /** The npcs that failed to pre-update. */
+    private final Queue<Npc> failed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create a new {@link NpcUpdateSequence}.
+     *
+     * @param synchronizer
+     *            used to block the game thread until pre-updating is
+     *            completed.
+     * @param updateExecutor
+     *            the thread pool that will pre-update regions in parallel.
+     */
+    public NpcUpdateSequence(Phaser synchronizer,
+        ThreadPoolExecutor updateExecutor) {
+        this.synchronizer = synchronizer;
+        this.updateExecutor = updateExecutor;
+    }
+
+    /**
+     * Pre-updates all of the npcs in the argued region using the
+     * {@link #updateExecutor}. The {@link #synchronizer} must have a party
+     * registered for every region before this method is invoked.
+     *
+     * @param region
+     *            the npcs in the region that will be pre-updated.
+     */
+    public void executeRegionPreUpdate(Collection<Npc> region) {
+        updateExecutor.execute(() -> {
+            try {
+                region.forEach(this::executePreUpdate);
+            } finally {
+                synchronizer.arriveAndDeregister();
+            }
+        });
+    }
+
+    /**
+     * Gets the npcs that failed to pre-update, which should be removed from
+     * the world on the game thread after every region has been pre-updated.
+     *
+     * @return the npcs that failed to pre-update.
+     */
+    public Queue<Npc> getFailed() {
+        return failed;
+    }
+
     @Override
     public void executePreUpdate(Npc t) {
         try {
-            NpcAggression.target(t);
             t.getMovementCoordinator().coordinate();
             t.getMovementQueue().execute();
         } catch (Exception e) {
             e.printStackTrace();
-            World.getNpcs().remove(t);
+            failed.add(t);
         }
     }
 
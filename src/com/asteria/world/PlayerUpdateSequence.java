@@ -4,7 +4,6 @@ import java.util.concurrent.Phaser;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import com.asteria.engine.net.Session;
-import com.asteria.world.entity.npc.NpcAggression;
 import com.asteria.world.entity.npc.NpcUpdating;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.entity.player.PlayerUpdating;
@@ -47,7 +46,6 @@ public class PlayerUpdateSequence implements WorldUpdateSequence<Player> {
                 return;
             }
 
-            NpcAggression.target(t);
             t.getMovementQueue().execute();
         } catch (Exception e) {
             e.printStackTrace();
@@ -75,6 +73,9 @@ public class PlayerUpdateSequence implements WorldUpdateSequence<Player> {
     @Override
     public void executePostUpdate(Player t) {
         try {
+            t.getInventory().flushRefresh(t);
+            t.getEquipment().flushRefresh(t);
+            t.getBank().flushRefresh(t);
             t.reset();
             t.setCachedUpdateBlock(null);
             t.getSession().resetPacketCount();
@@ -6,12 +6,19 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import com.asteria.engine.GameEngine;
 import com.asteria.engine.ThreadPoolBuilder;
-import com.asteria.engine.ThreadPoolBuilder.BlockingThreadPool;
+import com.asteria.engine.TickProfiler;
+import com.asteria.engine.TickProfiler.Phase;
+import com.asteria.engine.net.ServerEngine;
 import com.asteria.engine.net.Session.Stage;
-import com.asteria.world.entity.EntityContainer;
-import com.asteria.world.entity.npc.Npc;
+import com.asteria.util.Utility;
+import com.asteria.world.entity.npc.NpcAggression;
+import com.asteria.world.entity.npc.NpcContainer;
 import com.asteria.world.entity.player.Player;
-import com.asteria.world.entity.player.PlayerFileTask.WritePlayerFileTask;
+import com.asteria.world.entity.player.PlayerContainer;
+import com.asteria.world.entity.player.PlayerFileTask;
+import com.asteria.world.entity.player.content.PrivateMessage;
+import com.asteria.world.map.PathFinder;
+import com.asteria.world.shop.Shop;
 
 /**
  * Updates all in-game entities, and also contains utility methods to manage
@@ -22,25 +29,24 @@ import com.asteria.world.entity.player.PlayerFileTask.WritePlayerFileTask;
 public final class World {
 
     /** All of the registered players. */
-    private static final EntityContainer<Player> players = new EntityContainer<>(
-        1000);
+    private static final PlayerContainer players = new PlayerContainer(1000);
 
     /** All of the registered NPCs. */
-    private static final EntityContainer<Npc> npcs = new EntityContainer<>(1500);
+    private static final NpcContainer npcs = new NpcContainer(1500);
 
     /** Used to block the game thread until updating is completed. */
     private static final Phaser synchronizer = new Phaser(1);
 
-    /** A thread pool that will update players in parallel. */
+    /** A thread pool that will update players and npcs in parallel. */
     private static final ThreadPoolExecutor updateExecutor = ThreadPoolBuilder
         .build("Update-Thread", Runtime.getRuntime().availableProcessors(),
             Thread.MAX_PRIORITY);
 
     /**
      * The method that executes code for all in game entities every <tt>600</tt>
-     * ms. Updating is parallelized using the {@link #updateExecutor} to execute
-     * the code concurrently and the {@link #synchronizer} to block the game
-     * thread until it's finished.
+     * ms. Npc pre-updating and player updating are parallelized using the
+     * {@link #updateExecutor} to execute the code concurrently and the
+     * {@link #synchronizer} to block the game thread until it's finished.
      */
     public static void tick() {
         try {
@@ -48,23 +54,52 @@ public final class World {
             // First we construct the update sequences.
             WorldUpdateSequence<Player> playerUpdate = new PlayerUpdateSequence(
                 synchronizer, updateExecutor);
-            WorldUpdateSequence<Npc> npcUpdate = new NpcUpdateSequence();
+            NpcUpdateSequence npcUpdate = new NpcUpdateSequence(synchronizer,
+                updateExecutor);
 
-            // Then we execute pre-updating code.
+            // Then we refill the budget for finding paths.
+            PathFinder.resetBudget();
+
+            // Then we send the friends list statuses that changed this cycle.
+            PrivateMessage.flushPresence();
+
+            // Then we send the shop stock that changed this cycle.
+            Shop.flushUpdates();
+
+            // Then we execute pre-updating code, starting with aggression.
+            long start = TickProfiler.start();
+            NpcAggression.process();
             players.forEach(playerUpdate::executePreUpdate);
-            npcs.forEach(npcUpdate::executePreUpdate);
+
+            // Npcs are pre-updated in parallel by region. The npcs that failed
+            // are removed and region changes are applied afterwards.
+            npcs.getRegions().deferUpdates();
+            synchronizer.bulkRegister(npcs.getRegions().regionCount());
+            npcs.getRegions().forEachRegion(npcUpdate::executeRegionPreUpdate);
+            synchronizer.arriveAndAwaitAdvance();
+            npcUpdate.getFailed().forEach(npcs::remove);
+            npcs.getRegions().flushUpdates();
+            TickProfiler.record(Phase.PRE_UPDATE, start);
 
             // Then we execute parallelized updating code.
+            start = TickProfiler.start();
             synchronizer.bulkRegister(players.size());
             players.forEach(playerUpdate::executeUpdate);
             synchronizer.arriveAndAwaitAdvance();
+            TickProfiler.record(Phase.UPDATE, start);
 
             // Then we execute post-updating code.
+            start = TickProfiler.start();
             players.forEach(playerUpdate::executePostUpdate);
             npcs.forEach(npcUpdate::executePostUpdate);
+            TickProfiler.record(Phase.POST_UPDATE, start);
         } catch (Exception e) {
             e.printStackTrace();
             savePlayers();
+        } finally {
+
+            // Lastly we write everything sent this cycle to the sockets.
+            ServerEngine.flush();
         }
     }
 
@@ -78,7 +113,7 @@ public final class World {
      *         {@code null} if no such player exists.
      */
     public static Optional<Player> getPlayerByHash(long hash) {
-        return players.search(p -> p != null && p.getUsernameHash() == hash);
+        return players.get(hash);
     }
 
     /**
@@ -91,8 +126,7 @@ public final class World {
      *         {@code null} if no such player exists.
      */
     public static Optional<Player> getPlayerByName(String username) {
-        return players.search(p -> p != null && p.getUsername()
-            .equals(username));
+        return players.get(Utility.nameToHash(username));
     }
 
     /**
@@ -105,7 +139,10 @@ public final class World {
         players.forEach(p -> p.getPacketBuilder().sendMessage(message));
     }
 
-    /** Saves the game for all players that are currently online. */
+    /**
+     * Saves the game for all players that are currently online. The saves are
+     * written together by a single task on the sequential pool.
+     */
     public static void savePlayers() {
         players.forEach(World::savePlayer);
     }
@@ -116,9 +153,8 @@ public final class World {
 
             // First save all players, we block the calling thread until all
             // players are saved.
-            BlockingThreadPool pool = new BlockingThreadPool();
-            players.forEach(p -> pool.append(new WritePlayerFileTask(p)));
-            pool.fireAndAwait();
+            players.forEach(PlayerFileTask::save);
+            PlayerFileTask.flush();
 
             // Terminate any thread pools.
             updateExecutor.shutdown();
@@ -145,9 +181,8 @@ public final class World {
             return;
         }
 
-        // Push the save task to the sequential pool.
-        GameEngine.getServiceExecutor()
-            .execute(new WritePlayerFileTask(player));
+        // Encode the save and queue it to be written by the sequential pool.
+        PlayerFileTask.save(player);
     }
 
     /**
@@ -155,7 +190,7 @@ public final class World {
      * 
      * @return the container of players.
      */
-    public static EntityContainer<Player> getPlayers() {
+    public static PlayerContainer getPlayers() {
         return players;
     }
 
@@ -164,7 +199,7 @@ public final class World {
      * 
      * @return the container of npcs.
      */
-    public static EntityContainer<Npc> getNpcs() {
+    public static NpcContainer getNpcs() {
         return npcs;
     }
 
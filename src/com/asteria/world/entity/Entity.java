@@ -24,6 +24,9 @@ public abstract class Entity {
     /** The index of the entity. */
     private int slot = -1;
 
+    /** The key of the region this entity was last indexed in. */
+    private int regionKey = -1;
+
     /** The poison damage for this entity. */
     private int poisonDamage;
 
@@ -418,6 +421,18 @@ public abstract class Entity {
         currentlyCasting.startCast(this, victim);
     }
 
+    /**
+     * Moves this entity into the correct {@link RegionIndex} bucket after its
+     * position has been changed.
+     */
+    public void updateRegionIndex() {
+        if (type() == EntityType.NPC) {
+            World.getNpcs().getRegions().update((Npc) this);
+            return;
+        }
+        World.getPlayers().getRegions().update((Player) this);
+    }
+
     /**
      * Set the slot for the entity.
      * 
@@ -742,4 +757,12 @@ public abstract class Entity {
     public void setCurrentlyCasting(CombatSpell currentlyCasting) {
         this.currentlyCasting = currentlyCasting;
     }
+
+    int getRegionKey() {
+        return regionKey;
+    }
+
+    void setRegionKey(int regionKey) {
+        this.regionKey = regionKey;
+    }
 }
@@ -3,6 +3,7 @@ package com.asteria.world.entity;
 import java.util.AbstractCollection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -13,6 +14,12 @@ import com.asteria.world.WorldFullException;
 /**
  * An {@link AbstractCollection} implementation that stores and manages stored
  * elements.
+ * <p>
+ * Every element is kept on a stable slot for as long as it is in this
+ * container, which is the index the protocol identifies it by. Free slots are
+ * kept on a stack and the slots in use are kept in a dense array, so adding
+ * and removing elements are constant time and iterating only touches the
+ * elements that are actually in this container.
  * 
  * @author lare96
  * @param <E>
@@ -29,6 +36,21 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
     /** The actual elements that are in this container. */
     private E[] elements;
 
+    /** A stack of the free slots, the next slot to use is on top. */
+    private int[] freeSlots;
+
+    /** The amount of free slots on the stack. */
+    private int freeCount;
+
+    /** The slots that are in use, packed densely in no particular order. */
+    private int[] activeSlots;
+
+    /** The index of every slot within {@link #activeSlots}. */
+    private int[] activeIndexes;
+
+    /** The spatial index of the elements in this container. */
+    private final RegionIndex<E> regions = new RegionIndex<>();
+
     /**
      * Create a new {@link EntityContainer} with the specified capacity.
      * 
@@ -36,25 +58,25 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
      *            the maximum amount of entities this container is allowed to
      *            hold.
      */
-    @SuppressWarnings("unchecked")
     public EntityContainer(int capacity) {
         this.capacity = capacity + 1;
-        this.size = 0;
-        this.elements = (E[]) new Entity[capacity + 1];
+        reset();
     }
 
     @Override
     public boolean add(E e) {
 
         // Determine the next free slot and validate it.
-        int slot = determineSlot();
-
-        if (slot == -1)
+        if (freeCount == 0)
             throw new WorldFullException(e);
+        int slot = freeSlots[--freeCount];
 
         // The slot has passed the checks, so add the entity to that slot.
         elements[slot] = Objects.requireNonNull(e);
         elements[slot].setSlot(slot);
+        activeSlots[size] = slot;
+        activeIndexes[slot] = size;
+        regions.add(e);
         size++;
         return true;
     }
@@ -68,7 +90,8 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
 
         // Determine if the entity is in this container.
         Entity e = (Entity) o;
-        return !slotFree(e.getSlot());
+        return e.getSlot() > 0 && e.getSlot() < capacity
+            && elements[e.getSlot()] == e;
     }
 
     @Override
@@ -83,13 +106,21 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
         // Remove the entity from the container.
         Entity e = (Entity) o;
 
-        if (!slotFree(e.getSlot())) {
-            elements[e.getSlot()].setUnregistered(true);
-            elements[e.getSlot()] = null;
-            size--;
-            return true;
+        if (!contains(e)) {
+            return false;
         }
-        return false;
+        int slot = e.getSlot();
+        elements[slot].setUnregistered(true);
+        regions.remove(elements[slot]);
+        elements[slot] = null;
+
+        // Move the last active slot into the place of the removed one.
+        int index = activeIndexes[slot];
+        int last = activeSlots[--size];
+        activeSlots[index] = last;
+        activeIndexes[last] = index;
+        freeSlots[freeCount++] = slot;
+        return true;
     }
 
     /**
@@ -98,10 +129,19 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
      * @param slot
      *            the slot to retrieve the element on.
      * @return the element on the slot, or <code>null</code> if no element is on
-     *         the slot.
+     *         the slot or the slot is out of range.
      */
     public E get(int slot) {
-        return elements[slot];
+        return slot < 0 || slot >= capacity ? null : elements[slot];
+    }
+
+    /**
+     * Gets the spatial index of the elements in this container.
+     * 
+     * @return the spatial index.
+     */
+    public RegionIndex<E> getRegions() {
+        return regions;
     }
 
     /**
@@ -129,11 +169,29 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
             "Access to the backing array is denied!");
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void clear() {
+        regions.clear();
+        reset();
+    }
+
+    /**
+     * Empties the backing arrays and places every slot back on the stack of
+     * free slots.
+     */
+    @SuppressWarnings("unchecked")
+    private void reset() {
         elements = (E[]) new Entity[capacity];
+        activeSlots = new int[capacity];
+        activeIndexes = new int[capacity];
+        freeSlots = new int[capacity];
         size = 0;
+        freeCount = 0;
+
+        // Slot zero is never used, and lower slots are used first.
+        for (int slot = capacity - 1; slot > 0; slot--) {
+            freeSlots[freeCount++] = slot;
+        }
     }
 
     @Override
@@ -152,30 +210,12 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
     }
 
     /**
-     * Iterates through the array of elements to determine the index of the
-     * first free slot found.
-     * 
-     * @return the index of the free slot, or <tt>-1</tt> if the container is
-     *         full.
-     */
-    private int determineSlot() {
-        for (int slot = 1; slot < elements.length; slot++) {
-            if (slotFree(slot)) {
-                return slot;
-            }
-        }
-        return -1;
-    }
-
-
-    /**
-     * Gets the amount of free slots left in this container. This method returns
-     * a value equal to subtracting the {@link #capacity} by the {@link #size}.
+     * Gets the amount of free slots left in this container.
      * 
      * @return the amount of free slots left in this container.
      */
     public int remainingSize() {
-        return capacity() - size();
+        return freeCount;
     }
 
     /**
@@ -185,36 +225,38 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
      *         otherwise.
      */
     public boolean isFull() {
-        return size >= capacity;
+        return freeCount == 0;
     }
 
     /**
      * {@inheritDoc}
      * 
-     * This implementation automatically excludes all elements with a value of
-     * <code>null</code>.
+     * This implementation only visits the elements that are in this container
+     * when this method is called, and skips any of them that are removed by
+     * the action before they are reached.
      */
     @Override
     public void forEach(Consumer<? super E> action) {
-        for (E e : elements) {
-            if (e == null)
-                continue;
-            action.accept(e);
+        for (E e : snapshot()) {
+            if (contains(e))
+                action.accept(e);
         }
     }
 
     /**
-     * Iterates through the backing array and finds the first element that
-     * matches the argued {@link Predicate}.
+     * Iterates through the elements and finds the first element that matches
+     * the argued {@link Predicate}.
      * 
      * @param p
      *            the predicate that will be used to find the element.
      * @return the optional representing the found element.
      */
     public Optional<E> search(Predicate<? super E> p) {
-        for (E e : elements) {
+        for (int i = 0; i < size; i++) {
+            E e = elements[activeSlots[i]];
+
             if (p.test(e))
-                return Optional.ofNullable(e);
+                return Optional.of(e);
         }
         return Optional.empty();
     }
@@ -224,46 +266,66 @@ public class EntityContainer<E extends Entity> extends AbstractCollection<E> {
      * 
      * This is a fail-safe iterator implementation, meaning that modification of
      * the collection while performing an enhanced loop will not throw a
-     * {@link ConcurrentModificationException}.
+     * {@link ConcurrentModificationException}. The iterator only returns the
+     * elements that are in this container when it is created, and skips any of
+     * them that are removed before they are reached.
      */
     @Override
     public Iterator<E> iterator() {
         return new Iterator<E>() {
 
+            /** The elements in the container when this iterator was created. */
+            private final E[] snapshot = snapshot();
+
             /** The current index we are iterating on. */
             private int currentIndex;
 
-            /** The last index we iterated over. */
-            private int lastElementIndex = -1;
+            /** The last element we iterated over. */
+            private E lastElement;
 
             @Override
             public boolean hasNext() {
-                return !(currentIndex + 1 > elements.length);
+                while (currentIndex < snapshot.length && !contains(
+                    snapshot[currentIndex])) {
+                    currentIndex++;
+                }
+                return currentIndex < snapshot.length;
             }
 
             @Override
             public E next() {
-                if (currentIndex >= elements.length) {
-                    throw new ArrayIndexOutOfBoundsException(
-                        "Can only call 'next()' in amount to 'backingArray.length'.");
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
                 }
-
-                int i = currentIndex;
-                currentIndex++;
-                return elements[lastElementIndex = i];
+                return lastElement = snapshot[currentIndex++];
             }
 
             @Override
             public void remove() {
-                if (lastElementIndex < 0) {
+                if (lastElement == null) {
                     throw new IllegalStateException(
                         "Can only call 'remove()' once in call to 'next()'.");
                 }
 
-                EntityContainer.this.remove(elements[lastElementIndex]);
-                currentIndex = lastElementIndex;
-                lastElementIndex = -1;
+                EntityContainer.this.remove(lastElement);
+                lastElement = null;
             }
         };
     }
+
+    /**
+     * Copies the elements that are currently in this container into a new
+     * array, in the order of the dense array of slots.
+     * 
+     * @return the copied elements.
+     */
+    @SuppressWarnings("unchecked")
+    private E[] snapshot() {
+        E[] copy = (E[]) new Entity[size];
+
+        for (int i = 0; i < size; i++) {
+            copy[i] = elements[activeSlots[i]];
+        }
+        return copy;
+    }
 }
@@ -8,6 +8,8 @@ import com.asteria.engine.task.TaskManager;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.Entity.EntityType;
 import com.asteria.world.entity.player.Player;
+import com.asteria.world.map.CollisionMap;
+import com.asteria.world.map.PathFinder;
 import com.asteria.world.map.Position;
 
 /**
@@ -36,6 +38,9 @@ public class MovementQueue {
     /** If this entity's movement is locked. */
     private boolean lockMovement;
 
+    /** If a step in the current path was blocked by the collision map. */
+    private boolean blocked;
+
     /**
      * Creates a new {@link MovementQueue}.
      * 
@@ -87,6 +92,7 @@ public class MovementQueue {
             }
 
             entity.getPosition().move(x, y);
+            entity.updateRegionIndex();
             entity.setPrimaryDirection(walkPoint.getDirection());
             entity.setLastDirection(walkPoint.getDirection());
 
@@ -119,6 +125,7 @@ public class MovementQueue {
             }
 
             entity.getPosition().move(x, y);
+            entity.updateRegionIndex();
             entity.setSecondaryDirection(runPoint.getDirection());
             entity.setLastDirection(runPoint.getDirection());
         }
@@ -152,15 +159,23 @@ public class MovementQueue {
 
     /**
      * Allow the entity to walk to a certain position point not relevant to its
-     * current position.
+     * current position. The path is found using the {@link PathFinder}, so if
+     * the budget for paths has run out this cycle the entity will not move.
      * 
      * @param position
      *            the position the entity is moving too.
+     * @return <code>true</code> if a path was found, <code>false</code> if the
+     *         budget for paths has run out.
      */
-    public void walk(Position position) {
+    public boolean walk(Position position) {
         reset();
-        addToPath(position);
+        Deque<Position> path = PathFinder.find(entity, position);
+
+        if (path != null) {
+            path.forEach(p -> addStep(p.getX(), p.getY()));
+        }
         finish();
+        return path != null;
     }
 
     /**
@@ -168,6 +183,7 @@ public class MovementQueue {
      */
     public void reset() {
         runPath = false;
+        blocked = false;
         waypoints.clear();
 
         // Set the base point as this position.
@@ -219,7 +235,8 @@ public class MovementQueue {
     }
 
     /**
-     * Adds a step.
+     * Adds a step. Steps that are blocked by the {@link CollisionMap} end the
+     * path, along with every step after them.
      * 
      * @param x
      *            the X coordinate
@@ -227,7 +244,7 @@ public class MovementQueue {
      *            the Y coordinate
      */
     private void addStep(int x, int y) {
-        if (waypoints.size() >= 100) {
+        if (waypoints.size() >= 100 || blocked) {
             return;
         }
         Point last = waypoints.peekLast();
@@ -235,6 +252,11 @@ public class MovementQueue {
         int deltaY = y - last.getY();
         int direction = Utility.direction(deltaX, deltaY);
         if (direction > -1) {
+            if (!CollisionMap.traversable(last.getX(), last.getY(), entity
+                .getPosition().getZ(), deltaX, deltaY, entity.size())) {
+                blocked = true;
+                return;
+            }
             waypoints.add(new Point(x, y, direction));
         }
     }
@@ -256,9 +278,8 @@ public class MovementQueue {
     }
 
     /**
-     * Prompts this entity to follow another entity. Pathfinding has not been
-     * added yet so entities will clip through objects in order to reach the
-     * destination of the leader.
+     * Prompts this entity to follow another entity. The path to the leader is
+     * found again every tick using the {@link PathFinder}.
      * 
      * @param leader
      *            the entity that this entity is being prompted to follow.
@@ -287,7 +308,6 @@ public class MovementQueue {
 
             // Build the task that will be scheduled when following.
             followTask = new Task(1, true) {
-                @SuppressWarnings("unused")
                 @Override
                 public void execute() {
 
@@ -320,26 +340,18 @@ public class MovementQueue {
                         int x = entity.getPosition().getX();
                         int y = entity.getPosition().getY();
                         int z = entity.getPosition().getZ();
+                        int size = entity.size();
 
-                        if (true/*
-                                 * TraversalMap.isTraversableEast(z, x, y,
-                                 * entity .size())
-                                 */) {
+                        if (CollisionMap.traversable(x, y, z, 1, 0, size)) {
                             entity.getMovementQueue().walk(1, 0);
-                        } else if (true/*
-                                        * TraversalMap.isTraversableWest(z, x,
-                                        * y, entity.size())
-                                        */) {
+                        } else if (CollisionMap.traversable(x, y, z, -1, 0,
+                            size)) {
                             entity.getMovementQueue().walk(-1, 0);
-                        } else if (true/*
-                                        * TraversalMap.isTraversableSouth(z, x,
-                                        * y, entity.size())
-                                        */) {
+                        } else if (CollisionMap.traversable(x, y, z, 0, -1,
+                            size)) {
                             entity.getMovementQueue().walk(0, -1);
-                        } else if (true/*
-                                        * TraversalMap.isTraversableNorth(z, x,
-                                        * y, entity.size())
-                                        */) {
+                        } else if (CollisionMap.traversable(x, y, z, 0, 1,
+                            size)) {
                             entity.getMovementQueue().walk(0, 1);
                         }
                         return;
@@ -365,140 +377,6 @@ public class MovementQueue {
                     // We are more than 1 square away, we can move toward the
                     // leader.
                     entity.getMovementQueue().walk(leader.getPosition());
-
-                    // if (entity.type() == EntityType.PLAYER) {
-                    // AStarPathFinder finder = new AStarPathFinder();
-                    // finder.find(entity, leader.getPosition().getX(), leader
-                    // .getPosition().getY());
-                    // } else {
-                    // if (entity.getPosition().withinDistance(
-                    // leader.getPosition(), 1)) {
-                    // return;
-                    // }
-                    //
-                    // int followX = leader.getPosition().getX(), followY =
-                    // leader
-                    // .getPosition().getY();
-                    // int moveX = 0, moveY = 0;
-                    // int x = entity.getPosition().getX();
-                    // int y = entity.getPosition().getY();
-                    // int z = entity.getPosition().getZ();
-                    // int size = entity.size();
-                    //
-                    // if (followX != entity.getPosition().getX() && followY !=
-                    // entity
-                    // .getPosition().getY()) {
-                    // if (followX > entity.getPosition().getX() && followY >
-                    // entity
-                    // .getPosition().getY()) {
-                    // if (TraversalMap.isTraversableNorthEast(z, x,
-                    // y, size) && !entity.getPosition()
-                    // .withinDistance(leader.getPosition(), 1)) {
-                    // moveX = 1;
-                    // moveY = 1;
-                    // } else if (TraversalMap.isTraversableEast(z, x,
-                    // y, size)) {
-                    // moveX = 1;
-                    // moveY = 0;
-                    // } else if (TraversalMap.isTraversableNorth(z,
-                    // x, y, size)) {
-                    // moveX = 0;
-                    // moveY = 1;
-                    // }
-                    // } else if (followX > entity.getPosition().getX() &&
-                    // followY < entity
-                    // .getPosition().getY()) {
-                    // if (TraversalMap.isTraversableSouthEast(z, x,
-                    // y, size) && !entity.getPosition()
-                    // .withinDistance(leader.getPosition(), 1)) {
-                    // moveX = 1;
-                    // moveY = -1;
-                    // } else if (TraversalMap.isTraversableSouth(z,
-                    // x, y, size)) {
-                    // moveX = 0;
-                    // moveY = -1;
-                    // } else if (TraversalMap.isTraversableEast(z, x,
-                    // y, size)) {
-                    // moveX = 1;
-                    // moveY = 0;
-                    // }
-                    // } else if (followX < entity.getPosition().getX() &&
-                    // followY > entity
-                    // .getPosition().getY()) {
-                    // if (TraversalMap.isTraversableNorthWest(z, x,
-                    // y, size) && !entity.getPosition()
-                    // .withinDistance(leader.getPosition(), 1)) {
-                    // moveX = -1;
-                    // moveY = 1;
-                    // } else if (TraversalMap.isTraversableWest(z, x,
-                    // y, size)) {
-                    // moveX = -1;
-                    // moveY = 0;
-                    // } else if (TraversalMap.isTraversableNorth(z,
-                    // x, y, size)) {
-                    // moveX = 0;
-                    // moveY = 1;
-                    // }
-                    // } else if (followX < entity.getPosition().getX() &&
-                    // followY < entity
-                    // .getPosition().getY()) {
-                    // if (TraversalMap.isTraversableSouthWest(z, x,
-                    // y, size) && !entity.getPosition()
-                    // .withinDistance(leader.getPosition(), 1)) {
-                    // moveX = -1;
-                    // moveY = -1;
-                    // } else if (TraversalMap.isTraversableSouth(z,
-                    // x, y, size)) {
-                    // moveX = 0;
-                    // moveY = -1;
-                    // } else if (TraversalMap.isTraversableWest(z, x,
-                    // y, size)) {
-                    // moveX = -1;
-                    // moveY = 0;
-                    // }
-                    // }
-                    // } else if (followX != entity.getPosition().getX()) {
-                    // if (followX > entity.getPosition().getX()) {
-                    // if (TraversalMap.isTraversableEast(z, x, y,
-                    // size)) {
-                    // moveX = 1;
-                    // moveY = 0;
-                    // }
-                    // } else if (followX < entity.getPosition().getX()) {
-                    // if (TraversalMap.isTraversableWest(z, x, y,
-                    // size)) {
-                    // moveX = -1;
-                    // moveY = 0;
-                    // }
-                    // }
-                    // } else if (followY != entity.getPosition().getY()) {
-                    // if (followY > entity.getPosition().getY()) {
-                    // if (TraversalMap.isTraversableNorth(z, x, y,
-                    // size)) {
-                    // moveX = 0;
-                    // moveY = 1;
-                    // }
-                    // } else if (followY < entity.getPosition().getY()) {
-                    // if (TraversalMap.isTraversableSouth(z, x, y,
-                    // size)) {
-                    // moveX = 0;
-                    // moveY = -1;
-                    // }
-                    // }
-                    // }
-                    // if (moveX != 0 || moveY != 0) {
-                    // DumbPathFinder finder = new DumbPathFinder();
-                    // Path p = finder.find(entity, entity.getPosition()
-                    // .clone().move(moveX, moveY));
-                    // MovementQueue.this.reset();
-                    // while (!p.getPositions().isEmpty()) {
-                    // Position point = p.getPositions().poll();
-                    // MovementQueue.this
-                    // .addToPath(point);
-                    // }
-                    // MovementQueue.this.finish();
-                    // }
-                    // }
                 }
             };
 
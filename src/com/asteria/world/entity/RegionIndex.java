@@ -0,0 +1,270 @@
+package com.asteria.world.entity;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import com.asteria.world.map.Position;
+
+/**
+ * A spatial index that buckets registered {@link Entity}s by the map region
+ * they are standing in. This allows code that only cares about nearby entities
+ * to look at a handful of regions rather than every slot in an
+ * {@link EntityContainer}.
+ *
+ * @author lare96
+ * @param <E>
+ *            the type of entity being indexed.
+ */
+public class RegionIndex<E extends Entity> {
+
+    /** The amount of squares that an entity can see in any direction. */
+    public static final int VIEWING_DISTANCE = 15;
+
+    /** The regions that currently have entities in them. */
+    private final Map<Integer, Set<E>> regions = new HashMap<>();
+
+    /** The entities waiting to be moved between regions. */
+    private final Queue<E> pending = new ConcurrentLinkedQueue<>();
+
+    /** If region changes are currently being deferred. */
+    private volatile boolean deferred;
+
+    /**
+     * Adds the argued entity to the region it is currently standing in.
+     *
+     * @param e
+     *            the entity to add to this index.
+     */
+    public void add(E e) {
+        int key = key(e.getPosition());
+        regions.computeIfAbsent(key, k -> new HashSet<>()).add(e);
+        e.setRegionKey(key);
+    }
+
+    /**
+     * Removes the argued entity from the region it was last indexed in. The
+     * last indexed region is used because the position of the entity may have
+     * been changed before it was removed.
+     *
+     * @param e
+     *            the entity to remove from this index.
+     */
+    public void remove(E e) {
+        int key = e.getRegionKey();
+
+        if (key == -1)
+            return;
+
+        Set<E> region = regions.get(key);
+
+        if (region != null) {
+            region.remove(e);
+
+            if (region.isEmpty())
+                regions.remove(key);
+        }
+        e.setRegionKey(-1);
+    }
+
+    /**
+     * Moves the argued entity into a different region if its position has
+     * changed regions since it was last indexed. Entities that are not in this
+     * index are ignored. If region changes are being deferred, the entity is
+     * queued and moved when {@link #flushUpdates()} is called.
+     *
+     * @param e
+     *            the entity to update the region of.
+     */
+    public void update(E e) {
+        if (deferred) {
+            pending.add(e);
+            return;
+        }
+
+        int key = e.getRegionKey();
+
+        if (key == -1 || key == key(e.getPosition()))
+            return;
+
+        remove(e);
+        add(e);
+    }
+
+    /**
+     * Starts deferring region changes made through {@link #update(Entity)}.
+     * This allows entities to be moved concurrently while other threads
+     * iterate over the regions, since the regions themselves will not change
+     * until {@link #flushUpdates()} is called.
+     */
+    public void deferUpdates() {
+        deferred = true;
+    }
+
+    /**
+     * Stops deferring region changes and applies all of the changes that were
+     * queued while they were being deferred.
+     */
+    public void flushUpdates() {
+        deferred = false;
+        E e;
+
+        while ((e = pending.poll()) != null) {
+            update(e);
+        }
+    }
+
+    /**
+     * Executes the argued action for the entities of every region that
+     * currently has entities in it.
+     *
+     * @param action
+     *            the action to execute for every region.
+     */
+    public void forEachRegion(Consumer<? super Collection<E>> action) {
+        regions.values().forEach(action);
+    }
+
+    /**
+     * Gets the amount of regions that currently have entities in them.
+     *
+     * @return the amount of regions.
+     */
+    public int regionCount() {
+        return regions.size();
+    }
+
+    /** Removes every entity from this index. */
+    public void clear() {
+        pending.clear();
+        regions.values().forEach(r -> r.forEach(e -> e.setRegionKey(-1)));
+        regions.clear();
+    }
+
+    /**
+     * Gets the entities in every region that could contain a position viewable
+     * from the argued position. Callers are still expected to filter the
+     * returned entities using {@link Position#isViewableFrom(Position)}.
+     *
+     * @param position
+     *            the position to look around.
+     * @return the entities that could be viewable from the position.
+     */
+    public Iterable<E> viewableFrom(Position position) {
+        return within(position, VIEWING_DISTANCE);
+    }
+
+    /**
+     * Gets the entities in every region that overlaps the square of the argued
+     * radius around the argued position. Callers are still expected to filter
+     * the returned entities by their exact distance.
+     *
+     * @param position
+     *            the position to look around.
+     * @param distance
+     *            the radius of the square to look in.
+     * @return the entities that could be within distance of the position.
+     */
+    public Iterable<E> within(Position position, int distance) {
+        int x = position.getX();
+        int y = position.getY();
+        int z = position.getZ();
+        return () -> new RegionIterator(x - distance >> 6,
+            y - distance >> 6, x + distance >> 6, y + distance >> 6, z);
+    }
+
+    /**
+     * Calculates the index key for the argued position, which is the map
+     * region combined with the height level.
+     *
+     * @param position
+     *            the position to calculate the key for.
+     * @return the index key.
+     */
+    private static int key(Position position) {
+        return (position.getZ() << 16) | position.getRegion();
+    }
+
+    /**
+     * An {@link Iterator} that walks through the entities of every region in a
+     * rectangle of regions, skipping the regions that are empty.
+     *
+     * @author lare96
+     */
+    private final class RegionIterator implements Iterator<E> {
+
+        /** The south west region coordinates of the rectangle. */
+        private final int minX, minY;
+
+        /** The north east region coordinates of the rectangle. */
+        private final int maxX, maxY;
+
+        /** The height level of the rectangle. */
+        private final int z;
+
+        /** The region coordinates we are currently iterating over. */
+        private int currentX, currentY;
+
+        /** The entities in the region we are currently iterating over. */
+        private Iterator<E> current = Collections.emptyIterator();
+
+        /**
+         * Create a new {@link RegionIterator}.
+         *
+         * @param minX
+         *            the south west region x coordinate.
+         * @param minY
+         *            the south west region y coordinate.
+         * @param maxX
+         *            the north east region x coordinate.
+         * @param maxY
+         *            the north east region y coordinate.
+         * @param z
+         *            the height level.
+         */
+        public RegionIterator(int minX, int minY, int maxX, int maxY, int z) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.z = z;
+            this.currentX = minX;
+            this.currentY = minY;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (currentX > maxX)
+                    return false;
+
+                Set<E> region = regions
+                    .get((z << 16) | ((currentX << 8) + currentY));
+
+                if (++currentY > maxY) {
+                    currentY = minY;
+                    currentX++;
+                }
+
+                if (region != null)
+                    current = region.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+}
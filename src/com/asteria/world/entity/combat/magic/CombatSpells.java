@@ -3,6 +3,7 @@ package com.asteria.world.entity.combat.magic;
 import java.util.Optional;
 
 import com.asteria.engine.task.TaskManager;
+import com.asteria.util.IdTable;
 import com.asteria.world.entity.Animation;
 import com.asteria.world.entity.Entity;
 import com.asteria.world.entity.Entity.EntityType;
@@ -2940,6 +2941,10 @@ public enum CombatSpells {
         }
     });
 
+    /** The spell constants indexed by their spell id. */
+    private static final IdTable<CombatSpells> SPELLS = IdTable.forId(
+        values(), s -> s.getSpell() == null ? -1 : s.getSpell().spellId());
+
     /** The combat spell that can be casted. */
     private CombatSpell spell;
 
@@ -2970,15 +2975,6 @@ public enum CombatSpells {
      * @return the spell constant with that spell id.
      */
     public static Optional<CombatSpells> getSpell(int spellId) {
-        for (CombatSpells spell : CombatSpells.values()) {
-            if (spell.getSpell() == null) {
-                continue;
-            }
-
-            if (spell.getSpell().spellId() == spellId) {
-                return Optional.of(spell);
-            }
-        }
-        return Optional.empty();
+        return SPELLS.get(spellId);
     }
 }
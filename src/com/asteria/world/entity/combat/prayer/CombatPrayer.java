@@ -1,6 +1,7 @@
 package com.asteria.world.entity.combat.prayer;
 
 import com.asteria.engine.task.TaskManager;
+import com.asteria.util.IdTable;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.UpdateFlags.Flag;
 import com.asteria.world.entity.combat.CombatFactory.CombatType;
@@ -269,6 +270,10 @@ public enum CombatPrayer {
         }
     };
 
+    /** The prayers indexed by their identifiers. */
+    private static final IdTable<CombatPrayer> PRAYERS = IdTable.forId(
+        values(), CombatPrayer::getId);
+
     /** The identifier for this prayer. */
     private int id;
 
@@ -439,14 +444,14 @@ public enum CombatPrayer {
     }
 
     /**
-     * Gets a combat prayer constant by its position in the enumeration.
+     * Gets a combat prayer constant by its identifier.
      * 
      * @param prayerId
-     *            the position of the constant.
-     * @return the constant corresponding to the position.
+     *            the identifier of the constant.
+     * @return the constant corresponding to the identifier.
      */
     public static CombatPrayer get(int prayerId) {
-        return CombatPrayer.values()[prayerId];
+        return PRAYERS.get(prayerId).get();
     }
 
     /**
@@ -1,11 +1,14 @@
 package com.asteria.world.entity.combat.range;
 
+import java.util.Arrays;
 import java.util.Optional;
 
+import com.asteria.util.IdTable;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.combat.CombatFactory;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.entity.player.content.WeaponInterfaces.WeaponInterface;
+import com.asteria.world.item.ItemDefinition;
 
 /**
  * A table of constants that hold data for all ranged ammo.
@@ -128,13 +131,21 @@ public enum CombatRangedAmmo {
             .getWeapon() == WeaponInterface.LONGBOW || player.getWeapon() == WeaponInterface.CROSSBOW ? Utility.EQUIPMENT_SLOT_ARROWS
             : Utility.EQUIPMENT_SLOT_WEAPON;
 
-        for (CombatRangedAmmo ammo : CombatRangedAmmo.values()) {
-            if (player.getEquipment().get(slot).getDefinition().getItemName()
-                .toLowerCase().contains(ammo.name.toLowerCase())) {
-                return Optional.of(ammo);
-            }
-        }
-        return Optional.empty();
+        return AmmoTable.AMMO.get(player.getEquipment().getItemId(slot));
+    }
+
+    /**
+     * Gets the item ID's of every item whose name contains the name of this
+     * ranged ammo.
+     * 
+     * @return the item ID's of the items for this ammo.
+     */
+    private int[] itemIds() {
+        String ammoName = name.toLowerCase();
+        return Arrays.stream(ItemDefinition.getDefinitions()).filter(
+            def -> def != null && def.getItemName() != null && def
+                .getItemName().toLowerCase().contains(ammoName)).mapToInt(
+            ItemDefinition::getItemId).toArray();
     }
 
     /**
@@ -199,4 +210,18 @@ public enum CombatRangedAmmo {
     public int getGraphic() {
         return graphic;
     }
+
+    /**
+     * Holds the ranged ammo indexed by the item ID's they are used for. The
+     * table is built the first time it is used rather than when this class is
+     * loaded, because it depends on the item definitions having been loaded.
+     * 
+     * @author lare96
+     */
+    private static final class AmmoTable {
+
+        /** The ranged ammo indexed by the item ID's they are used for. */
+        private static final IdTable<CombatRangedAmmo> AMMO = IdTable.forIds(
+            values(), CombatRangedAmmo::itemIds);
+    }
 }
@@ -231,14 +231,14 @@ public class DefaultRangedCombatStrategy implements CombatStrategy {
         player.setFireAmmo(player.getEquipment().get(slot).getId());
 
         // Decrement the ammo in the selected slot.
-        player.getEquipment().get(slot).decrementAmount();
+        player.getEquipment().decrementAmount(slot, 1);
 
         if (slot == Utility.EQUIPMENT_SLOT_WEAPON) {
             player.getFlags().flag(Flag.APPEARANCE);
         }
 
         // If we are at 0 ammo remove the item from the equipment completely.
-        if (player.getEquipment().get(slot).getAmount() == 0) {
+        if (player.getEquipment().getAmount(slot) == 0) {
             player.getPacketBuilder().sendMessage(
                 "That was your last piece of ammo!");
             player.getEquipment().set(slot, null);
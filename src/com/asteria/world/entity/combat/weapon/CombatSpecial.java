@@ -1,11 +1,11 @@
 package com.asteria.world.entity.combat.weapon;
 
-import java.util.Arrays;
 import java.util.Optional;
 import java.util.Set;
 
 import com.asteria.engine.task.Task;
 import com.asteria.engine.task.TaskManager;
+import com.asteria.util.IdTable;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.Animation;
 import com.asteria.world.entity.Entity;
@@ -236,7 +236,11 @@ public enum CombatSpecial {
                 true);
         }
     };
-    
+
+    /** The special attacks indexed by the weapon ID's that perform them. */
+    private static final IdTable<CombatSpecial> SPECIALS = IdTable.forIds(
+        values(), CombatSpecial::getIdentifiers);
+
     /** The weapon ID's that perform this special when activated. */
     private int[] identifiers;
 
@@ -372,17 +376,15 @@ public enum CombatSpecial {
             return;
         }
 
-        for (CombatSpecial c : CombatSpecial.values()) {
-            if (player.getWeapon() == c.getWeaponType()) {
-                if (Arrays.stream(c.getIdentifiers()).anyMatch(
-                    id -> player.getEquipment().getItemId(
-                        Utility.EQUIPMENT_SLOT_WEAPON) == id)) {
-                    player.getPacketBuilder().sendHideInterfaceLayer(
-                        player.getWeapon().getSpecialBar(), false);
-                    player.setCombatSpecial(c);
-                    return;
-                }
-            }
+        CombatSpecial c = SPECIALS.get(
+            player.getEquipment().getItemId(Utility.EQUIPMENT_SLOT_WEAPON))
+            .orElse(null);
+
+        if (c != null && player.getWeapon() == c.getWeaponType()) {
+            player.getPacketBuilder().sendHideInterfaceLayer(
+                player.getWeapon().getSpecialBar(), false);
+            player.setCombatSpecial(c);
+            return;
         }
 
         player.getPacketBuilder().sendHideInterfaceLayer(
@@ -63,10 +63,6 @@ public class Npc extends Entity {
         this.currentHealth = maxHealth;
         this.getPosition().setAs(originalPosition);
         this.setAutoRetaliate(true);
-
-        if (this.getDefinition().isAggressive()) {
-            NpcAggression.getAggressive().put(this, originalPosition);
-        }
     }
 
     @Override
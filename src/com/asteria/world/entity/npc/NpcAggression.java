@@ -1,9 +1,12 @@
 package com.asteria.world.entity.npc;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 
+import com.asteria.world.World;
 import com.asteria.world.entity.Entity;
 import com.asteria.world.entity.Entity.EntityType;
 import com.asteria.world.entity.npc.policy.DefaultAggressionPolicy;
@@ -16,6 +19,14 @@ import com.asteria.world.map.Position;
 /**
  * Handles the behavior of aggressive {@link Npc}s around players within the
  * <code>NPC_TARGET_DISTANCE</code> radius.
+ * <p>
+ * Every aggressive npc registered in the world is placed in one of
+ * <code>NPC_AGGRESSION_COOLDOWN</code> buckets, and a single bucket is
+ * processed every tick. This means every aggressive npc looks for a target
+ * once every <code>NPC_AGGRESSION_COOLDOWN</code> ticks, and the work is
+ * spread evenly across ticks no matter how many aggressive npcs are packed
+ * into one area. Targets are found through the region indexes of the world,
+ * so only the entities around the spawn of each npc are evaluated.
  * 
  * @author lare96
  */
@@ -30,93 +41,182 @@ public final class NpcAggression {
      */
     public static final int NPC_TOLERANCE_SECONDS = 600;
 
-    /**
-     * A map that holds all of the aggressive npcs and their original positions.
-     * We use this so only the aggressive npcs are accounted for.
-     */
-    private static Map<Npc, Position> aggressive = new HashMap<>();
+    /** How many ticks aggressive npcs wait between looking for targets. */
+    public static final int NPC_AGGRESSION_COOLDOWN = 2;
+
+    /** The policy given to aggressive npcs without a custom one. */
+    private static final NpcAggressionPolicy DEFAULT_POLICY = new DefaultAggressionPolicy();
+
+    /** The buckets of aggressive npcs, one bucket is processed every tick. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final Set<Npc>[] buckets = new Set[NPC_AGGRESSION_COOLDOWN];
+
+    /** The bucket that the next registered npc will be placed in. */
+    private static int nextBucket;
+
+    /** The amount of ticks that have been processed. */
+    private static long tick;
 
     /** A map that holds the policies of all aggressive npcs. */
     private static Map<Integer, NpcAggressionPolicy> policies = new HashMap<>();
 
     /**
-     * The aggressive npc will be prompted to attack the entity if they are
-     * within <code>NPC_TARGET_DISTANCE</code> squares and the entity is not in
-     * a multicombat area while not in combat. If the entity is in a multicombat
-     * area, they will be attacked regardless if they are in combat or not. If
-     * the entity is a player and has been in the area for
+     * Registers the argued npc if it is aggressive, so it will start looking
+     * for targets. This should only ever be called on the game thread.
+     * 
+     * @param npc
+     *            the npc to register.
+     */
+    public static void register(Npc npc) {
+        if (!npc.getDefinition().isAggressive()) {
+            return;
+        }
+        buckets[nextBucket].add(npc);
+        nextBucket = (nextBucket + 1) % buckets.length;
+    }
+
+    /**
+     * Unregisters the argued npc, so it will no longer look for targets. This
+     * should only ever be called on the game thread.
+     * 
+     * @param npc
+     *            the npc to unregister.
+     */
+    public static void unregister(Npc npc) {
+        for (Set<Npc> bucket : buckets) {
+            if (bucket.remove(npc)) {
+                break;
+            }
+        }
+    }
+
+    /** Unregisters every aggressive npc. */
+    public static void clear() {
+        for (Set<Npc> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Prompts the aggressive npcs in the bucket for this tick to look for a
+     * target. This should only ever be called on the game thread.
+     */
+    public static void process() {
+        Set<Npc> bucket = buckets[(int) (tick++ % buckets.length)];
+
+        for (Npc npc : bucket.toArray(new Npc[bucket.size()])) {
+            try {
+                target(npc);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The aggressive npc will be prompted to attack the first entity that is
+     * within <code>NPC_TARGET_DISTANCE</code> squares of its spawn and is not
+     * in a multicombat area while not in combat. If the entity is in a
+     * multicombat area, they will be attacked regardless if they are in combat
+     * or not. If the entity is a player and has been in the area for
      * <code>NPC_TOLERANCE_SECONDS</code> seconds then aggressive npcs will stop
      * attacking the player to prevent AFK training. Once the player enters a
      * new region, the timer will reset and aggressive npcs will begin attacking
      * again.
      * 
+     * @param npc
+     *            the aggressive npc that will look for a target.
+     */
+    private static void target(Npc npc) {
+
+        // Check if the aggressive npc is attacking or being attacked.
+        if (npc.isUnregistered() || npc.getCombatBuilder().isAttacking() || npc
+            .getCombatBuilder().isBeingAttacked()) {
+            return;
+        }
+        Position position = npc.getOriginalPosition();
+
+        // Look through the players and then the npcs around the spawn.
+        for (Player player : World.getPlayers().getRegions().within(position,
+            NPC_TARGET_DISTANCE)) {
+            if (target(npc, player)) {
+                return;
+            }
+        }
+        for (Npc other : World.getNpcs().getRegions().within(position,
+            NPC_TARGET_DISTANCE)) {
+            if (target(npc, other)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prompts the aggressive npc to attack the argued entity if it is able to.
+     * 
+     * @param npc
+     *            the aggressive npc looking for a target.
      * @param entity
-     *            the entity that will be attempted to be targeted by the
-     *            aggressive npcs.
+     *            the entity that will be attempted to be targeted.
+     * @return <code>true</code> if the npc attacked the entity,
+     *         <code>false</code> otherwise.
      */
-    public static void target(Entity entity) {
-
-        // Loop through all of the aggressive npcs.
-        for (Entry<Npc, Position> entry : aggressive.entrySet()) {
-            Position position = entry.getValue();
-            Npc npc = entry.getKey();
-
-            // Check if the entity is within distance.
-            if (position.withinDistance(entity.getPosition(),
-                NPC_TARGET_DISTANCE)) {
-
-                // Check if the aggressive npc is attacking or being attacked.
-                if (npc.getCombatBuilder().isAttacking() || npc
-                    .getCombatBuilder().isBeingAttacked() || npc.equals(entity)) {
-                    continue;
-                }
-
-                // Check if the entity is attacking or being attacked.
-                if (!Location.inMultiCombat(entity) && entity
-                    .getCombatBuilder().isAttacking() || entity
-                    .getCombatBuilder().isBeingAttacked()) {
-                    npc.getMovementCoordinator().setCoordinate(
-                        npc.isOriginalRandomWalk());
-                    continue;
-                }
-
-                // Check if the entity is a player and if they have been in the
-                // region too long, and if they are the right level.
-                if (entity.type() == EntityType.PLAYER) {
-                    Player player = (Player) entity;
-
-                    if (player.getTolerance().elapsed() > (NPC_TOLERANCE_SECONDS * 1000)) {
-                        npc.getMovementCoordinator().setCoordinate(
-                            npc.isOriginalRandomWalk());
-                        continue;
-                    }
-                    if (!(player.getCombatLevel() <= (npc.getDefinition()
-                        .getCombatLevel() * 2)) && !Location
-                        .inWilderness(player)) {
-                        npc.getMovementCoordinator().setCoordinate(
-                            npc.isOriginalRandomWalk());
-                        continue;
-                    }
-                }
-
-                // Get the policy, if no policy is found then we use the default
-                // one.
-                NpcAggressionPolicy policy;
-
-                if ((policy = policies.get(npc.getNpcId())) == null) {
-                    policy = new DefaultAggressionPolicy();
-                }
-
-                // Check if we can attack based on the policy.
-                if (policy.attackIf(npc, entity)) {
-
-                    // We passed all of the checks, the npc can attack the
-                    // player. We also apply any policy effects.
-                    npc.getCombatBuilder().attack(entity);
-                    policy.onAttack(npc, entity);
-                }
+    private static boolean target(Npc npc, Entity entity) {
+
+        // Check if the entity is within distance.
+        if (npc == entity || !npc.getOriginalPosition().withinDistance(
+            entity.getPosition(), NPC_TARGET_DISTANCE)) {
+            return false;
+        }
+
+        // Check if the entity is attacking or being attacked.
+        if (!Location.inMultiCombat(entity) && entity.getCombatBuilder()
+            .isAttacking() || entity.getCombatBuilder().isBeingAttacked()) {
+            resetCoordinate(npc);
+            return false;
+        }
+
+        // Check if the entity is a player and if they have been in the
+        // region too long, and if they are the right level.
+        if (entity.type() == EntityType.PLAYER) {
+            Player player = (Player) entity;
+
+            if (player.getTolerance().elapsed() > (NPC_TOLERANCE_SECONDS * 1000)) {
+                resetCoordinate(npc);
+                return false;
+            }
+            if (!(player.getCombatLevel() <= (npc.getDefinition()
+                .getCombatLevel() * 2)) && !Location.inWilderness(player)) {
+                resetCoordinate(npc);
+                return false;
             }
         }
+
+        // Get the policy, if no policy is found then we use the default one.
+        NpcAggressionPolicy policy = policies.getOrDefault(npc.getNpcId(),
+            DEFAULT_POLICY);
+
+        // Check if we can attack based on the policy.
+        if (!policy.attackIf(npc, entity)) {
+            return false;
+        }
+
+        // We passed all of the checks, the npc can attack the entity. We also
+        // apply any policy effects.
+        npc.getCombatBuilder().attack(entity);
+        policy.onAttack(npc, entity);
+        return true;
+    }
+
+    /**
+     * Makes the argued aggressive npc go back to walking the way it was
+     * originally walking.
+     * 
+     * @param npc
+     *            the npc to reset the movement coordinator for.
+     */
+    private static void resetCoordinate(Npc npc) {
+        npc.getMovementCoordinator().setCoordinate(npc.isOriginalRandomWalk());
     }
 
     /**
@@ -150,12 +250,9 @@ public final class NpcAggression {
         }
     }
 
-    /**
-     * Gets the map of aggressive npcs and their original positions.
-     * 
-     * @return the map of aggressive npcs and their original positions.
-     */
-    public static Map<Npc, Position> getAggressive() {
-        return aggressive;
+    static {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
     }
 }
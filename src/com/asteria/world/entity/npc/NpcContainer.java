@@ -0,0 +1,45 @@
+package com.asteria.world.entity.npc;
+
+import com.asteria.world.entity.EntityContainer;
+
+/**
+ * An {@link EntityContainer} for npcs that also registers the aggressive npcs
+ * in it with {@link NpcAggression}, so only npcs that are actually in the
+ * world look for targets.
+ * 
+ * @author lare96
+ */
+public class NpcContainer extends EntityContainer<Npc> {
+
+    /**
+     * Create a new {@link NpcContainer} with the specified capacity.
+     * 
+     * @param capacity
+     *            the maximum amount of npcs this container is allowed to hold.
+     */
+    public NpcContainer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean add(Npc e) {
+        super.add(e);
+        NpcAggression.register(e);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!super.remove(o)) {
+            return false;
+        }
+        NpcAggression.unregister((Npc) o);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        NpcAggression.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package com.asteria.world.entity.npc;
 
 import com.asteria.util.Utility;
+import com.asteria.world.map.CollisionMap;
 import com.asteria.world.map.Position;
 
 /**
@@ -66,16 +67,21 @@ public class NpcMovementCoordinator {
             // Coordinate the npc away from its original position.
             case HOME:
                 if (npc.getMovementQueue().isMovementDone()) {
-                    npc.getMovementQueue().walk(
-                        generateLocalPosition(coordinator.getRadius()));
-                    coordinateState = CoordinateState.AWAY;
+                    Position position = generateLocalPosition(coordinator
+                        .getRadius());
+
+                    if ((CollisionMap.getFlags(position.getX(), position
+                        .getY(), position.getZ()) & CollisionMap.BLOCKED) == 0
+                        && npc.getMovementQueue().walk(position)) {
+                        coordinateState = CoordinateState.AWAY;
+                    }
                 }
                 break;
 
             // Coordinate the npc back to its original position.
             case AWAY:
-                if (npc.getMovementQueue().isMovementDone()) {
-                    npc.getMovementQueue().walk(npc.getOriginalPosition());
+                if (npc.getMovementQueue().isMovementDone() && npc
+                    .getMovementQueue().walk(npc.getOriginalPosition())) {
                     coordinateState = CoordinateState.HOME;
                 }
                 break;
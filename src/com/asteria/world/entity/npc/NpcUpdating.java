@@ -6,11 +6,9 @@ import com.asteria.engine.net.ProtocolBuffer;
 import com.asteria.engine.net.ProtocolBuffer.ByteOrder;
 import com.asteria.engine.net.ProtocolBuffer.ValueType;
 import com.asteria.engine.task.TaskManager;
-import com.asteria.util.Utility;
 import com.asteria.world.World;
 import com.asteria.world.entity.UpdateFlags.Flag;
 import com.asteria.world.entity.player.Player;
-import com.asteria.world.map.Position;
 
 /**
  * Provides static utility methods for updating {@link Npc}s.
@@ -20,6 +18,14 @@ import com.asteria.world.map.Position;
  */
 public class NpcUpdating {
 
+    /** The reusable buffers for the update packet of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> packetBuffer = ProtocolBuffer
+        .newThreadLocal(2048);
+
+    /** The reusable buffers for the update blocks of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> blockBuffer = ProtocolBuffer
+        .newThreadLocal(1024);
+
     /**
      * Updates all {@link Npc}s for the argued {@link Player}.
      * 
@@ -27,8 +33,8 @@ public class NpcUpdating {
      *            the player to update npcs for.
      */
     public static void update(Player player) throws Exception {
-        ProtocolBuffer out = new ProtocolBuffer(2048);
-        ProtocolBuffer block = new ProtocolBuffer(1024);
+        ProtocolBuffer out = packetBuffer.get().clear();
+        ProtocolBuffer block = blockBuffer.get().clear();
 
         // Initialize the update packet.
         out.buildVarShort(65, player.getSession());
@@ -54,9 +60,12 @@ public class NpcUpdating {
 
         // Update the local NPC list itself.
         int added = 0;
-        for (Npc npc : World.getNpcs()) {
-            if (npc == null || added == 15 || player.getLocalNpcs().size() >= 255 || player
-                .getLocalNpcs().contains(npc)) {
+        for (Npc npc : World.getNpcs().getRegions().viewableFrom(
+            player.getPosition())) {
+            if (added == 15 || player.getLocalNpcs().size() >= 255) {
+                break;
+            }
+            if (player.getLocalNpcs().contains(npc)) {
                 continue;
             }
 
@@ -98,9 +107,10 @@ public class NpcUpdating {
      */
     private static void addNpc(ProtocolBuffer out, Player player, Npc npc) {
         out.writeBits(14, npc.getSlot());
-        Position delta = Utility.delta(player.getPosition(), npc.getPosition());
-        out.writeBits(5, delta.getY());
-        out.writeBits(5, delta.getX());
+        out.writeBits(5, npc.getPosition().getY() - player.getPosition()
+            .getY());
+        out.writeBits(5, npc.getPosition().getX() - player.getPosition()
+            .getX());
         out.writeBit(npc.getFlags().isUpdateRequired());
         out.writeBits(12, npc.getNpcId());
         out.writeBit(true);
@@ -1,9 +1,11 @@
 package com.asteria.world.entity.player;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -11,6 +13,7 @@ import com.asteria.Main;
 import com.asteria.engine.net.Session;
 import com.asteria.engine.net.packet.PacketEncoder;
 import com.asteria.engine.task.Task;
+import com.asteria.util.LongSet;
 import com.asteria.util.Stopwatch;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.Entity;
@@ -41,8 +44,10 @@ import com.asteria.world.item.Item;
 import com.asteria.world.item.container.BankContainer;
 import com.asteria.world.item.container.EquipmentContainer;
 import com.asteria.world.item.container.InventoryContainer;
+import com.asteria.world.item.ground.GroundItem;
 import com.asteria.world.map.Location;
 import com.asteria.world.map.Position;
+import com.asteria.world.object.WorldObject;
 
 /**
  * A logged in player that is able to receive and send packets and interact with
@@ -105,7 +110,10 @@ public class Player extends Entity {
     private boolean[] prayerActive = new boolean[18];
 
     /** The current players combat level. */
-    private double combatLevel;
+    private int combatLevel;
+
+    /** The levels that the combat level was last calculated with. */
+    private long combatLevelKey = -1;
 
     /** The wilderness level for this player. */
     private int wildernessLevel;
@@ -184,6 +192,13 @@ public class Player extends Entity {
     /** A list of local npcs. */
     private final Set<Npc> npcs = new LinkedHashSet<>();
 
+    /** The ground items that this player currently has the image of. */
+    private final Set<GroundItem> groundItems = Collections
+        .newSetFromMap(new IdentityHashMap<>());
+
+    /** The world objects that this player currently has, by tile. */
+    private final Map<Integer, WorldObject> objects = new HashMap<>();
+
     /** The players rights. */
     private PlayerRights rights;
 
@@ -206,10 +221,18 @@ public class Player extends Entity {
     private int[] playerBonus = new int[12];
 
     /** The friends list. */
-    private List<Long> friends = new ArrayList<>(200);
+    private LongSet friends = new LongSet(200);
 
     /** The ignores list. */
-    private List<Long> ignores = new ArrayList<>(100);
+    private LongSet ignores = new LongSet(100);
+
+    /** The tracked sections of the character file from the last save. */
+    private final byte[][] savedSections = new byte[PlayerSaveSection
+        .values().length][];
+
+    /** The modifications of the tracked sections from the last save. */
+    private final long[] savedModifications = new long[PlayerSaveSection
+        .values().length];
 
     /** For player npcs (pnpc). */
     private int npcAppearanceId = -1;
@@ -226,8 +249,11 @@ public class Player extends Entity {
     /** Private messaging for this player. */
     private PrivateMessage privateMessage = new PrivateMessage(this);
 
-    /** The cached update block. */
-    private ByteBuffer cachedUpdateBlock;
+    /**
+     * The cached update block, this is volatile because it is created and read
+     * by different update threads.
+     */
+    private volatile ByteBuffer cachedUpdateBlock;
 
     /** The player's username hash. */
     private long usernameHash;
@@ -441,6 +467,7 @@ public class Player extends Entity {
         getMovementQueue().reset();
         getPacketBuilder().sendCloseWindows();
         getPosition().setAs(position);
+        updateRegionIndex();
         setResetMovementQueue(true);
         setNeedsPlacement(true);
         getPacketBuilder().sendMapRegion();
@@ -561,7 +588,8 @@ public class Player extends Entity {
     }
 
     /**
-     * Calculates this players combat level.
+     * Gets this players combat level, which is only calculated again when one
+     * of the levels it depends on has changed.
      * 
      * @return the players combat level.
      */
@@ -573,21 +601,29 @@ public class Player extends Entity {
         int defLvl = skills[Skills.DEFENCE].getLevelForExperience();
         int hitLvl = skills[Skills.HITPOINTS].getLevelForExperience();
         int prayLvl = skills[Skills.PRAYER].getLevelForExperience();
+
+        // Pack the levels together, every level fits within 8 bits.
+        long key = magLvl | ranLvl << 8 | attLvl << 16 | (long) strLvl << 24
+            | (long) defLvl << 32 | (long) hitLvl << 40 | (long) prayLvl << 48;
+
+        if (key == combatLevelKey) {
+            return combatLevel;
+        }
         double mag = magLvl * 1.5;
         double ran = ranLvl * 1.5;
         double attstr = attLvl + strLvl;
-
-        combatLevel = 0;
+        double level;
 
         if (ran > attstr && ran > mag) { // player is ranged class
-            combatLevel = ((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((ranLvl) * 0.4875);
+            level = ((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((ranLvl) * 0.4875);
         } else if (mag > attstr) { // player is mage class
-            combatLevel = (((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((magLvl) * 0.4875));
+            level = (((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((magLvl) * 0.4875));
         } else {
-            combatLevel = (((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((attLvl) * 0.325) + ((strLvl) * 0.325));
+            level = (((defLvl) * 0.25) + ((hitLvl) * 0.25) + ((prayLvl / 2) * 0.25) + ((attLvl) * 0.325) + ((strLvl) * 0.325));
         }
-
-        return (int) combatLevel;
+        combatLevel = (int) level;
+        combatLevelKey = key;
+        return combatLevel;
     }
 
     /**
@@ -716,6 +752,14 @@ public class Player extends Entity {
         return npcs;
     }
 
+    public Set<GroundItem> getLocalGroundItems() {
+        return groundItems;
+    }
+
+    public Map<Integer, WorldObject> getLocalObjects() {
+        return objects;
+    }
+
     public void setNpcAppearanceId(int npcAppearanceId) {
         this.npcAppearanceId = npcAppearanceId;
     }
@@ -791,7 +835,7 @@ public class Player extends Entity {
     /**
      * @return the friends
      */
-    public List<Long> getFriends() {
+    public LongSet getFriends() {
         return friends;
     }
 
@@ -799,22 +843,40 @@ public class Player extends Entity {
      * @param friends
      *            the friends to set
      */
-    public void setFriends(List<Long> friends) {
+    public void setFriends(LongSet friends) {
         this.friends = friends;
     }
 
     /**
      * @return the ignores
      */
-    public List<Long> getIgnores() {
+    public LongSet getIgnores() {
         return ignores;
     }
 
+    /**
+     * Gets the tracked sections of the character file from the last save.
+     * 
+     * @return the saved sections.
+     */
+    public byte[][] getSavedSections() {
+        return savedSections;
+    }
+
+    /**
+     * Gets the modifications of the tracked sections from the last save.
+     * 
+     * @return the saved modifications.
+     */
+    public long[] getSavedModifications() {
+        return savedModifications;
+    }
+
     /**
      * @param ignores
      *            the ignores to set
      */
-    public void setIgnores(List<Long> ignores) {
+    public void setIgnores(LongSet ignores) {
         this.ignores = ignores;
     }
 
@@ -0,0 +1,68 @@
+package com.asteria.world.entity.player;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.asteria.world.entity.EntityContainer;
+
+/**
+ * An {@link EntityContainer} for players that also keeps a directory of the
+ * players in it mapped to their username hashes, so players can be looked up
+ * by name without searching through every slot. The directory is concurrent
+ * so it can be safely read from outside of the game thread.
+ * 
+ * @author lare96
+ */
+public class PlayerContainer extends EntityContainer<Player> {
+
+    /** The players in this container mapped to their username hashes. */
+    private final Map<Long, Player> directory = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new {@link PlayerContainer} with the specified capacity.
+     * 
+     * @param capacity
+     *            the maximum amount of players this container is allowed to
+     *            hold.
+     */
+    public PlayerContainer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean add(Player e) {
+        if (!super.add(e)) {
+            return false;
+        }
+        directory.put(e.getUsernameHash(), e);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!super.remove(o)) {
+            return false;
+        }
+        Player player = (Player) o;
+        directory.remove(player.getUsernameHash(), player);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        directory.clear();
+    }
+
+    /**
+     * Gets the player in this container with the argued username hash.
+     * 
+     * @param hash
+     *            the username hash of the player.
+     * @return the optional representing the found player.
+     */
+    public Optional<Player> get(long hash) {
+        return Optional.ofNullable(directory.get(hash));
+    }
+}
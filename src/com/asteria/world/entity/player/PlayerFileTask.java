@@ -1,11 +1,22 @@
 package com.asteria.world.entity.player;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +36,15 @@ import com.google.gson.JsonParser;
 /**
  * A class that will hold our two nested classes for reading data from and
  * writing data to character files.
+ * <p>
+ * Character files are saved in a compact binary format made up of
+ * {@link PlayerSaveSection}s. Saves are encoded on the calling thread, which
+ * should be the game thread, and then queued to be written in batches by the
+ * {@link GameEngine}'s sequential thread pool. Every file is written to a
+ * temporary file first and then renamed over the old file, so a crash while
+ * saving can never leave a partially written character file behind. Character
+ * files in the old JSON format are imported when the player logs in, and can
+ * still be exported for migrating back.
  * 
  * @author lare96
  * @author Ryley Kimmel <ryley.kimmel@live.com>
@@ -34,127 +54,487 @@ public final class PlayerFileTask {
     /** A {@code String} representation of our players directory. */
     public static final String DIR = "data/players";
 
+    /** The extension of binary character files. */
+    public static final String EXTENSION = ".dat";
+
+    /** The extension of character files in the old JSON format. */
+    public static final String JSON_EXTENSION = ".json";
+
+    /** The value that every binary character file starts with. */
+    private static final int MAGIC = 0x41535452;
+
+    /** The version of the binary character file format. */
+    private static final int VERSION = 1;
+
     /** A {@link Logger} for printing debugging info. */
     private static final Logger logger = Logger.getLogger(PlayerFileTask.class
         .getSimpleName());
 
+    /** The encoded character files waiting to be written, by username. */
+    private static final Map<String, byte[]> pending = new ConcurrentHashMap<>();
+
+    /** If a task has been submitted to write the pending character files. */
+    private static final AtomicBoolean scheduled = new AtomicBoolean();
+
     private PlayerFileTask() {}
 
+    /**
+     * Encodes the character file for the argued player and queues it to be
+     * written. If the player is saved again before the file is written only
+     * the newest save will be written, and saves queued by many players at
+     * once are written together by a single task.
+     * 
+     * @param player
+     *            the player to save the character file of.
+     */
+    public static void save(Player player) {
+        try {
+            pending.put(player.getUsername(), encode(player));
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error while encoding character file!",
+                e);
+            return;
+        }
+
+        if (scheduled.compareAndSet(false, true)) {
+            GameEngine.getServiceExecutor().execute(new WritePlayerFileTask());
+        }
+    }
+
+    /**
+     * Writes every pending character file on the calling thread, blocking
+     * until all of them have been written.
+     */
+    public static void flush() {
+        new WritePlayerFileTask().run();
+    }
+
+    /**
+     * Exports the character file of the argued player in the old JSON format,
+     * so that it can be used by servers that have not been migrated. The file
+     * is built on the calling thread and written on the {@link GameEngine}'s
+     * sequential thread pool.
+     * 
+     * @param player
+     *            the player to export the character file of.
+     */
+    public static void exportJson(Player player) {
+        Path path = Paths.get(DIR, player.getUsername() + JSON_EXTENSION);
+        Gson builder = new GsonBuilder().setPrettyPrinting().create();
+        String json = builder.toJson(toJson(player, builder));
+
+        GameEngine.getServiceExecutor().execute(() -> {
+            try (FileWriter writer = new FileWriter(path.toFile())) {
+                writer.write(json);
+                logger.info(player + " character file exported to " + path);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error while exporting character file!",
+                    e);
+            }
+        });
+    }
+
+    /**
+     * Encodes the entire character file for the argued player. Tracked
+     * sections that have not changed since they were last encoded are reused
+     * instead of being encoded again.
+     * 
+     * @param player
+     *            the player to encode the character file of.
+     * @return the encoded character file.
+     * @throws IOException
+     *             if any errors occur while encoding.
+     */
+    private static byte[] encode(Player player) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        DataOutputStream out = new DataOutputStream(bytes);
+        PlayerSaveSection[] sections = PlayerSaveSection.values();
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeUTF(player.getUsername().trim());
+        out.writeUTF(player.getPassword().trim());
+        out.writeByte(sections.length);
+
+        for (PlayerSaveSection section : sections) {
+            byte[] data = encode(player, section);
+            out.writeByte(section.getId());
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes a single section of the character file for the argued player,
+     * or returns the last encoded copy if the section is tracked and has not
+     * changed.
+     * 
+     * @param player
+     *            the player to encode the section of.
+     * @param section
+     *            the section to encode.
+     * @return the encoded section.
+     * @throws IOException
+     *             if any errors occur while encoding.
+     */
+    private static byte[] encode(Player player, PlayerSaveSection section)
+        throws IOException {
+        byte[][] cache = player.getSavedSections();
+        long[] saved = player.getSavedModifications();
+        int index = section.ordinal();
+        long modifications = 0;
+
+        if (section.isTracked()) {
+            modifications = section.modifications(player);
+
+            if (cache[index] != null && saved[index] == modifications) {
+                return cache[index];
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        section.encode(player, new DataOutputStream(bytes));
+        byte[] data = bytes.toByteArray();
+
+        if (section.isTracked()) {
+            cache[index] = data;
+            saved[index] = modifications;
+        }
+        return data;
+    }
+
+    /**
+     * Decodes a binary character file into the argued player.
+     * 
+     * @param player
+     *            the player to decode the character file into.
+     * @param file
+     *            the character file to decode.
+     * @return the login response code.
+     * @throws IOException
+     *             if any errors occur while decoding.
+     */
+    private static int decode(Player player, File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+            Files.readAllBytes(file.toPath())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Invalid character file: " + file);
+            }
+
+            int version = in.readUnsignedShort();
+
+            if (version > VERSION) {
+                throw new IOException("Unsupported character file version "
+                    + version + ": " + file);
+            }
+
+            player.setUsername(in.readUTF());
+
+            if (!player.getPassword().equals(in.readUTF())) {
+                return Utility.LOGIN_RESPONSE_INVALID_CREDENTIALS;
+            }
+
+            // Start with the default skills in case the section is missing.
+            Skills.create(player);
+
+            for (int i = in.readUnsignedByte(); i > 0; i--) {
+                PlayerSaveSection section = PlayerSaveSection.forId(in
+                    .readUnsignedByte());
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+
+                // Skip any sections from newer versions.
+                if (section == null) {
+                    continue;
+                }
+                section.decode(player, new DataInputStream(
+                    new ByteArrayInputStream(data)));
+
+                // Cache the tracked sections, so they aren't encoded again
+                // until they have changed.
+                if (section.isTracked()) {
+                    player.getSavedSections()[section.ordinal()] = data;
+                    player.getSavedModifications()[section.ordinal()] = section
+                        .modifications(player);
+                }
+            }
+        }
+        return player.isBanned() ? Utility.LOGIN_RESPONSE_ACCOUNT_DISABLED
+            : Utility.LOGIN_RESPONSE_OK;
+    }
+
+    /**
+     * Builds a character file in the old JSON format for the argued player.
+     * 
+     * @param player
+     *            the player to build the character file for.
+     * @param builder
+     *            the builder used to convert objects to JSON.
+     * @return the character file.
+     */
+    private static JsonObject toJson(Player player, Gson builder) {
+        JsonObject object = new JsonObject();
+
+        object.addProperty("username", player.getUsername().trim());
+        object.addProperty("password", player.getPassword().trim());
+        object.add("position", builder.toJsonTree(player.getPosition()));
+        object.addProperty("staff-rights", player.getRights().name());
+        object.addProperty("gender", new Integer(player.getGender()));
+        object.add("appearance", builder.toJsonTree(player.getAppearance()));
+        object.add("colors", builder.toJsonTree(player.getColors()));
+        object.addProperty("run-toggled", new Boolean(player.getMovementQueue()
+            .isRunToggled()));
+        object.addProperty("new-player", new Boolean(player.isNewPlayer()));
+        object.add("inventory", builder.toJsonTree(player.getInventory()
+            .toArray()));
+        object.add("bank", builder.toJsonTree(player.getBank().toArray()));
+        object.add("equipment", builder.toJsonTree(player.getEquipment()
+            .toArray()));
+        object.add("skills", builder.toJsonTree(player.getSkills()));
+        object.add("friends", builder.toJsonTree(player.getFriends()
+            .toArray()));
+        object.add("ignores", builder.toJsonTree(player.getIgnores()
+            .toArray()));
+        object.addProperty("run-energy", new Integer(player.getRunEnergy()));
+        object.addProperty("spell-book", player.getSpellbook().name());
+        object.addProperty("is-banned", new Boolean(player.isBanned()));
+        object.addProperty("auto-retaliate", new Boolean(player
+            .isAutoRetaliate()));
+        object.addProperty("fight-type", player.getFightType().name());
+        object.addProperty("skull-timer", new Integer(player.getSkullTimer()));
+        object.addProperty("accept-aid", new Boolean(player.isAcceptAid()));
+        object.addProperty("poison-damage", new Integer(player
+            .getPoisonDamage()));
+        object.addProperty("teleblock-timer", new Integer(player
+            .getTeleblockTimer()));
+        object.addProperty("special-amount", new Integer(player
+            .getSpecialPercentage()));
+        return object;
+    }
+
+    /**
+     * Imports a character file in the old JSON format into the argued player.
+     * The next time the player is saved it will be saved in the binary format.
+     * 
+     * @param player
+     *            the player to import the character file into.
+     * @param file
+     *            the character file to import.
+     * @return the login response code.
+     * @throws IOException
+     *             if any errors occur while importing.
+     */
+    private static int importJson(Player player, File file) throws IOException {
+        try (FileReader in = new FileReader(file)) {
+            JsonParser fileParser = new JsonParser();
+            Gson builder = new GsonBuilder().create();
+            JsonObject reader = (JsonObject) fileParser.parse(in);
+
+            if (reader.has("username")) {
+                player.setUsername(reader.get("username").getAsString());
+            }
+            if (reader.has("password")) {
+                String password = reader.get("password").getAsString();
+                if (!player.getPassword().equals(password)) {
+                    return Utility.LOGIN_RESPONSE_INVALID_CREDENTIALS;
+                }
+
+                player.setPassword(password);
+            }
+            if (reader.has("position")) {
+                player.getPosition().setAs(
+                    builder
+                        .fromJson(reader.get("position"), Position.class));
+            }
+            if (reader.has("staff-rights")) {
+                player.setRights(PlayerRights.valueOf(reader.get(
+                    "staff-rights").getAsString()));
+            }
+            if (reader.has("gender")) {
+                player.setGender(reader.get("gender").getAsInt());
+            }
+            if (reader.has("appearance")) {
+                player.setAppearance(builder.fromJson(reader.get(
+                    "appearance").getAsJsonArray(), int[].class));
+            }
+            if (reader.has("colors")) {
+                player.setColors(builder.fromJson(reader.get("colors")
+                    .getAsJsonArray(), int[].class));
+            }
+            if (reader.has("run-toggled")) {
+                player.getMovementQueue().setRunToggled(
+                    reader.get("run-toggled").getAsBoolean());
+            }
+            if (reader.has("new-player")) {
+                player
+                    .setNewPlayer(reader.get("new-player").getAsBoolean());
+            }
+            if (reader.has("inventory")) {
+                player.getInventory()
+
+                .setItems(
+                    builder.fromJson(reader.get("inventory")
+                        .getAsJsonArray(), Item[].class));
+
+            }
+            if (reader.has("bank")) {
+                player.getBank()
+
+                .setItems(
+                    builder.fromJson(reader.get("bank").getAsJsonArray(),
+                        Item[].class));
+            }
+            if (reader.has("equipment")) {
+                player.getEquipment()
+
+                .setItems(
+                    builder.fromJson(reader.get("equipment")
+                        .getAsJsonArray(), Item[].class));
+            }
+            if (reader.has("skills")) {
+                player.setSkills(builder.fromJson(reader.get("skills")
+                    .getAsJsonArray(), Skill[].class));
+            }
+            if (reader.has("friends")) {
+                long[] friends = builder.fromJson(reader.get("friends")
+                    .getAsJsonArray(), long[].class);
+
+                for (long l : friends) {
+                    player.getFriends().add(l);
+                }
+            }
+            if (reader.has("ignores")) {
+                long[] ignores = builder.fromJson(reader.get("ignores")
+                    .getAsJsonArray(), long[].class);
+
+                for (long l : ignores) {
+                    player.getIgnores().add(l);
+                }
+            }
+            if (reader.has("run-energy")) {
+                player.setRunEnergy(reader.get("run-energy").getAsInt());
+            }
+            if (reader.has("spell-book")) {
+                player.setSpellbook(Spellbook.valueOf(reader.get(
+                    "spell-book").getAsString()));
+            }
+            if (reader.has("is-banned")) {
+                boolean banned = reader.get("is-banned").getAsBoolean();
+
+                if (banned) {
+                    return Utility.LOGIN_RESPONSE_ACCOUNT_DISABLED;
+                }
+                player.setBanned(banned);
+            }
+            if (reader.has("auto-retaliate")) {
+                player.setAutoRetaliate(reader.get("auto-retaliate")
+                    .getAsBoolean());
+            }
+            if (reader.has("fight-type")) {
+                player.setFightType(FightType.valueOf(reader.get(
+                    "fight-type").getAsString()));
+            }
+            if (reader.has("skull-timer")) {
+                player.setSkullTimer(reader.get("skull-timer").getAsInt());
+            }
+            if (reader.has("accept-aid")) {
+                player
+                    .setAcceptAid(reader.get("accept-aid").getAsBoolean());
+            }
+            if (reader.has("poison-damage")) {
+                player.setPoisonDamage(reader.get("poison-damage")
+                    .getAsInt());
+            }
+            if (reader.has("teleblock-timer")) {
+                player.setTeleblockTimer(reader.get("teleblock-timer")
+                    .getAsInt());
+            }
+            if (reader.has("special-amount")) {
+                player.setSpecialPercentage(reader.get("special-amount")
+                    .getAsInt());
+            }        }
+        return Utility.LOGIN_RESPONSE_OK;
+    }
+
     /**
      * A task executed by the {@link GameEngine}'s sequential thread pool that
-     * will save the player's character file.
+     * will write every pending character file.
      * 
      * @author lare96
      */
     public static class WritePlayerFileTask implements Runnable {
 
-        /** The player who's file will be saved. */
-        private Player player;
-
-        /**
-         * Create a new {@link WritePlayerFileTask}.
-         * 
-         * @param player
-         *            the player who's file will be saved.
-         */
-        public WritePlayerFileTask(Player player) {
-            this.player = player;
-        }
+        /** The lock that makes sure only one batch is written at a time. */
+        private static final Object lock = new Object();
 
         @Override
         public void run() {
 
-            // Put a concurrent lock on the player just in case they are
-            // still being modified.
-            synchronized (player) {
+            // Allow another batch to be scheduled, saves queued from here on
+            // will either be picked up by this batch or the next one.
+            scheduled.set(false);
 
-                // Create the path and file objects.
-                Path path = Paths.get(DIR, player.getUsername() + ".json");
-                File file = path.toFile();
+            synchronized (lock) {
+                long start = System.currentTimeMillis();
+                int count = 0;
 
-                try (FileWriter writer = new FileWriter(file)) {
+                for (String username : pending.keySet()) {
+                    byte[] data = pending.remove(username);
 
-                    // Check if the file exists before saving it.
-                    if (!file.exists()) {
-                        if (!file.createNewFile()) {
-                            logger
-                                .severe("Unable to create save file for player: " + player);
-                            return;
-                        }
+                    if (data == null) {
+                        continue;
                     }
 
-                    // Now add the properties to the json parser.
-                    Gson builder = new GsonBuilder().setPrettyPrinting()
-                        .create();
-                    JsonObject object = new JsonObject();
-
-                    object.addProperty("username", player.getUsername().trim());
-                    object.addProperty("password", player.getPassword().trim());
-                    object.add("position", builder.toJsonTree(player
-                        .getPosition()));
-                    object.addProperty("staff-rights", player.getRights()
-                        .name());
-                    object.addProperty("gender",
-                        new Integer(player.getGender()));
-                    object.add("appearance", builder.toJsonTree(player
-                        .getAppearance()));
-                    object
-                        .add("colors", builder.toJsonTree(player.getColors()));
-                    object.addProperty("run-toggled", new Boolean(player
-                        .getMovementQueue().isRunToggled()));
-                    object.addProperty("new-player", new Boolean(player
-                        .isNewPlayer()));
-                    object.add("inventory", builder.toJsonTree(player
-                        .getInventory().toArray()));
-                    object.add("bank", builder.toJsonTree(player.getBank()
-                        .toArray()));
-                    object.add("equipment", builder.toJsonTree(player
-                        .getEquipment().toArray()));
-                    object
-                        .add("skills", builder.toJsonTree(player.getSkills()));
-                    object.add("friends", builder.toJsonTree(player
-                        .getFriends().toArray()));
-                    object.add("ignores", builder.toJsonTree(player
-                        .getIgnores().toArray()));
-                    object.addProperty("run-energy", new Integer(player
-                        .getRunEnergy()));
-                    object.addProperty("spell-book", player.getSpellbook()
-                        .name());
-                    object.addProperty("is-banned", new Boolean(player
-                        .isBanned()));
-                    object.addProperty("auto-retaliate", new Boolean(player
-                        .isAutoRetaliate()));
-                    object.addProperty("fight-type", player.getFightType()
-                        .name());
-                    object.addProperty("skull-timer", new Integer(player
-                        .getSkullTimer()));
-                    object.addProperty("accept-aid", new Boolean(player
-                        .isAcceptAid()));
-                    object.addProperty("poison-damage", new Integer(player
-                        .getPoisonDamage()));
-                    object.addProperty("teleblock-timer", new Integer(player
-                        .getTeleblockTimer()));
-                    object.addProperty("special-amount", new Integer(player
-                        .getSpecialPercentage()));
-
-                    // And write the data to the character file!
-                    writer.write(builder.toJson(object));
-
-                    // And print an indication that we've saved it.
-                    logger.info(player + " game successfully saved!");
-                } catch (Exception e) {
-
-                    // An error happened while saving.
-                    logger.log(Level.WARNING,
-                        "Error while saving character file!", e);
+                    try {
+                        write(username, data);
+                        count++;
+                    } catch (Exception e) {
+
+                        // An error happened while saving.
+                        logger.log(Level.WARNING,
+                            "Error while saving character file for "
+                                + username + "!", e);
+                    }
+                }
+
+                // And print an indication that we've saved them.
+                if (count > 0) {
+                    logger.info(count + " game(s) successfully saved in "
+                        + (System.currentTimeMillis() - start) + "ms!");
                 }
             }
         }
+
+        /**
+         * Writes a character file to a temporary file, and then renames it
+         * over the old character file.
+         * 
+         * @param username
+         *            the username of the character file.
+         * @param data
+         *            the contents of the character file.
+         * @throws IOException
+         *             if any errors occur while writing.
+         */
+        private static void write(String username, byte[] data)
+            throws IOException {
+            Path path = Paths.get(DIR, username + EXTENSION);
+            Path temp = Paths.get(DIR, username + EXTENSION + ".tmp");
+            Files.write(temp, data);
+
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
     }
 
     /**
-     * A result-bearing task executed on the main game thread that will load the
-     * player's character file.
+     * A result-bearing task executed by the {@link GameEngine}'s sequential
+     * thread pool that will load the player's character file.
      * 
      * @author lare96
      */
@@ -178,152 +558,32 @@ public final class PlayerFileTask {
 
             try {
 
-                // Create the path and file objects.
-                Path path = Paths.get(DIR, player.getUsername() + ".json");
-                File file = path.toFile();
-
-                // If the file doesn't exist, we're logging in for the first
-                // time and can skip all of this.
-                if (!file.exists()) {
-                    Skills.create(player);
-                    logger.info(player + " is logging in for the first time!");
-                    return Utility.LOGIN_RESPONSE_OK;
-                }
-
-                // Now read the properties from the json parser.
-                JsonParser fileParser = new JsonParser();
-                Gson builder = new GsonBuilder().create();
-                JsonObject reader = (JsonObject) fileParser
-                    .parse(new FileReader(file));
-
-                if (reader.has("username")) {
-                    player.setUsername(reader.get("username").getAsString());
-                }
-                if (reader.has("password")) {
-                    String password = reader.get("password").getAsString();
-                    if (!player.getPassword().equals(password)) {
-                        return Utility.LOGIN_RESPONSE_INVALID_CREDENTIALS;
-                    }
-
-                    player.setPassword(password);
-                }
-                if (reader.has("position")) {
-                    player.getPosition().setAs(
-                        builder
-                            .fromJson(reader.get("position"), Position.class));
-                }
-                if (reader.has("staff-rights")) {
-                    player.setRights(PlayerRights.valueOf(reader.get(
-                        "staff-rights").getAsString()));
-                }
-                if (reader.has("gender")) {
-                    player.setGender(reader.get("gender").getAsInt());
-                }
-                if (reader.has("appearance")) {
-                    player.setAppearance(builder.fromJson(reader.get(
-                        "appearance").getAsJsonArray(), int[].class));
-                }
-                if (reader.has("colors")) {
-                    player.setColors(builder.fromJson(reader.get("colors")
-                        .getAsJsonArray(), int[].class));
-                }
-                if (reader.has("run-toggled")) {
-                    player.getMovementQueue().setRunToggled(
-                        reader.get("run-toggled").getAsBoolean());
-                }
-                if (reader.has("new-player")) {
-                    player
-                        .setNewPlayer(reader.get("new-player").getAsBoolean());
-                }
-                if (reader.has("inventory")) {
-                    player.getInventory()
-
-                    .setItems(
-                        builder.fromJson(reader.get("inventory")
-                            .getAsJsonArray(), Item[].class));
-
-                }
-                if (reader.has("bank")) {
-                    player.getBank()
-
-                    .setItems(
-                        builder.fromJson(reader.get("bank").getAsJsonArray(),
-                            Item[].class));
-                }
-                if (reader.has("equipment")) {
-                    player.getEquipment()
-
-                    .setItems(
-                        builder.fromJson(reader.get("equipment")
-                            .getAsJsonArray(), Item[].class));
-                }
-                if (reader.has("skills")) {
-                    player.setSkills(builder.fromJson(reader.get("skills")
-                        .getAsJsonArray(), Skill[].class));
-                }
-                if (reader.has("friends")) {
-                    long[] friends = builder.fromJson(reader.get("friends")
-                        .getAsJsonArray(), long[].class);
+                // Create the file objects for both formats.
+                File file = Paths.get(DIR, player.getUsername() + EXTENSION)
+                    .toFile();
+                File json = Paths.get(DIR,
+                    player.getUsername() + JSON_EXTENSION).toFile();
 
-                    for (long l : friends) {
-                        player.getFriends().add(l);
-                    }
+                if (file.exists()) {
+                    return decode(player, file);
                 }
-                if (reader.has("ignores")) {
-                    long[] ignores = builder.fromJson(reader.get("ignores")
-                        .getAsJsonArray(), long[].class);
 
-                    for (long l : ignores) {
-                        player.getIgnores().add(l);
-                    }
-                }
-                if (reader.has("run-energy")) {
-                    player.setRunEnergy(reader.get("run-energy").getAsInt());
-                }
-                if (reader.has("spell-book")) {
-                    player.setSpellbook(Spellbook.valueOf(reader.get(
-                        "spell-book").getAsString()));
+                // Import the character file if it hasn't been converted to
+                // the binary format yet.
+                if (json.exists()) {
+                    logger.info(player + " is importing a JSON character file!");
+                    return importJson(player, json);
                 }
-                if (reader.has("is-banned")) {
-                    boolean banned = reader.get("is-banned").getAsBoolean();
 
-                    if (banned) {
-                        return Utility.LOGIN_RESPONSE_ACCOUNT_DISABLED;
-                    }
-                    player.setBanned(banned);
-                }
-                if (reader.has("auto-retaliate")) {
-                    player.setAutoRetaliate(reader.get("auto-retaliate")
-                        .getAsBoolean());
-                }
-                if (reader.has("fight-type")) {
-                    player.setFightType(FightType.valueOf(reader.get(
-                        "fight-type").getAsString()));
-                }
-                if (reader.has("skull-timer")) {
-                    player.setSkullTimer(reader.get("skull-timer").getAsInt());
-                }
-                if (reader.has("accept-aid")) {
-                    player
-                        .setAcceptAid(reader.get("accept-aid").getAsBoolean());
-                }
-                if (reader.has("poison-damage")) {
-                    player.setPoisonDamage(reader.get("poison-damage")
-                        .getAsInt());
-                }
-                if (reader.has("teleblock-timer")) {
-                    player.setTeleblockTimer(reader.get("teleblock-timer")
-                        .getAsInt());
-                }
-                if (reader.has("special-amount")) {
-                    player.setSpecialPercentage(reader.get("special-amount")
-                        .getAsInt());
-                }
+                // If neither file exists, we're logging in for the first
+                // time and can skip all of this.
+                Skills.create(player);
+                logger.info(player + " is logging in for the first time!");
+                return Utility.LOGIN_RESPONSE_OK;
             } catch (Exception e) {
                 e.printStackTrace();
                 return Utility.LOGIN_RESPONSE_COULD_NOT_COMPLETE_LOGIN;
             }
-            return Utility.LOGIN_RESPONSE_OK;
         }
     }
 }
@@ -0,0 +1,387 @@
+package com.asteria.world.entity.player;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.asteria.world.entity.combat.weapon.FightType;
+import com.asteria.world.entity.player.content.Spellbook;
+import com.asteria.world.entity.player.skill.Skill;
+import com.asteria.world.item.Item;
+import com.asteria.world.item.ItemContainer;
+
+/**
+ * The sections that a binary character file is split into. Each section is
+ * encoded separately and written with its identifier and length, so sections
+ * that this version does not know about can be skipped and new sections can
+ * be added without breaking older files.
+ * <p>
+ * Tracked sections are only encoded again when their contents have changed
+ * since they were last encoded. Item containers and skills count every change
+ * made to them, so this is determined by comparing the
+ * {@link #modifications(Player)} of a section with the value it was last
+ * encoded with, without looking at the contents. The remaining sections are
+ * small and change constantly, so they are encoded on every save.
+ *
+ * @author lare96
+ */
+public enum PlayerSaveSection {
+    DETAILS(0, false) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            out.writeShort(player.getPosition().getX());
+            out.writeShort(player.getPosition().getY());
+            out.writeByte(player.getPosition().getZ());
+            out.writeUTF(player.getRights().name());
+            out.writeByte(player.getGender());
+            writeInts(player.getAppearance(), out);
+            writeInts(player.getColors(), out);
+            out.writeBoolean(player.getMovementQueue().isRunToggled());
+            out.writeBoolean(player.isNewPlayer());
+            out.writeByte(player.getRunEnergy());
+            out.writeUTF(player.getSpellbook().name());
+            out.writeBoolean(player.isBanned());
+            out.writeBoolean(player.isAutoRetaliate());
+            out.writeUTF(player.getFightType().name());
+            out.writeInt(player.getSkullTimer());
+            out.writeBoolean(player.isAcceptAid());
+            out.writeInt(player.getPoisonDamage());
+            out.writeInt(player.getTeleblockTimer());
+            out.writeByte(player.getSpecialPercentage());
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            player.getPosition().setX(in.readUnsignedShort());
+            player.getPosition().setY(in.readUnsignedShort());
+            player.getPosition().setZ(in.readUnsignedByte());
+            player.setRights(PlayerRights.valueOf(in.readUTF()));
+            player.setGender(in.readUnsignedByte());
+            player.setAppearance(readInts(in));
+            player.setColors(readInts(in));
+            player.getMovementQueue().setRunToggled(in.readBoolean());
+            player.setNewPlayer(in.readBoolean());
+            player.setRunEnergy(in.readUnsignedByte());
+            player.setSpellbook(Spellbook.valueOf(in.readUTF()));
+            player.setBanned(in.readBoolean());
+            player.setAutoRetaliate(in.readBoolean());
+            player.setFightType(FightType.valueOf(in.readUTF()));
+            player.setSkullTimer(in.readInt());
+            player.setAcceptAid(in.readBoolean());
+            player.setPoisonDamage(in.readInt());
+            player.setTeleblockTimer(in.readInt());
+            player.setSpecialPercentage(in.readUnsignedByte());
+        }
+    },
+    INVENTORY(1, true) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            writeItems(player.getInventory(), out);
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            readItems(player.getInventory(), in);
+        }
+
+        @Override
+        public long modifications(Player player) {
+            return player.getInventory().getModifications();
+        }
+    },
+    BANK(2, true) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            writeItems(player.getBank(), out);
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            readItems(player.getBank(), in);
+        }
+
+        @Override
+        public long modifications(Player player) {
+            return player.getBank().getModifications();
+        }
+    },
+    EQUIPMENT(3, true) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            writeItems(player.getEquipment(), out);
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            readItems(player.getEquipment(), in);
+        }
+
+        @Override
+        public long modifications(Player player) {
+            return player.getEquipment().getModifications();
+        }
+    },
+    SKILLS(4, true) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            Skill[] skills = player.getSkills();
+            out.writeByte(skills.length);
+
+            for (Skill skill : skills) {
+                out.writeByte(skill.getLevel());
+                out.writeInt(skill.getExperience());
+            }
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            Skill[] skills = new Skill[in.readUnsignedByte()];
+
+            for (int i = 0; i < skills.length; i++) {
+                skills[i] = new Skill();
+                skills[i].setLevel(in.readUnsignedByte(), false);
+                skills[i].setExperience(in.readInt());
+            }
+            player.setSkills(skills);
+        }
+
+        @Override
+        public long modifications(Player player) {
+            long modified = 0;
+
+            // Skills can be replaced as well as changed, so the newest stamp
+            // is used rather than a count. A replaced skill is always newer.
+            for (Skill skill : player.getSkills()) {
+                modified = Math.max(modified, skill.getModified());
+            }
+            return modified;
+        }
+    },
+    CONTACTS(5, false) {
+        @Override
+        public void encode(Player player, DataOutputStream out)
+            throws IOException {
+            out.writeShort(player.getFriends().size());
+
+            for (long name : player.getFriends().toArray()) {
+                out.writeLong(name);
+            }
+            out.writeShort(player.getIgnores().size());
+
+            for (long name : player.getIgnores().toArray()) {
+                out.writeLong(name);
+            }
+        }
+
+        @Override
+        public void decode(Player player, DataInputStream in)
+            throws IOException {
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                player.getFriends().add(in.readLong());
+            }
+            for (int i = in.readUnsignedShort(); i > 0; i--) {
+                player.getIgnores().add(in.readLong());
+            }
+        }
+    };
+
+    /** The sections mapped to their identifiers. */
+    private static final PlayerSaveSection[] SECTIONS = new PlayerSaveSection[values().length];
+
+    /** The identifier that this section is written with. */
+    private final int id;
+
+    /** If this section is only encoded when its contents change. */
+    private final boolean tracked;
+
+    /**
+     * Create a new {@link PlayerSaveSection}.
+     *
+     * @param id
+     *            the identifier that this section is written with.
+     * @param tracked
+     *            if this section is only encoded when its contents change.
+     */
+    private PlayerSaveSection(int id, boolean tracked) {
+        this.id = id;
+        this.tracked = tracked;
+    }
+
+    /**
+     * Writes the data for this section.
+     *
+     * @param player
+     *            the player to write the data of.
+     * @param out
+     *            the stream to write the data to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    public abstract void encode(Player player, DataOutputStream out)
+        throws IOException;
+
+    /**
+     * Reads the data for this section.
+     *
+     * @param player
+     *            the player to read the data into.
+     * @param in
+     *            the stream to read the data from.
+     * @throws IOException
+     *             if any errors occur while reading.
+     */
+    public abstract void decode(Player player, DataInputStream in)
+        throws IOException;
+
+    /**
+     * Gets a value that changes every time the contents of this section
+     * change. This is only used by tracked sections.
+     *
+     * @param player
+     *            the player to get the value for.
+     * @return the modifications of the contents.
+     */
+    public long modifications(Player player) {
+        return 0;
+    }
+
+    /**
+     * Gets the section with the argued identifier.
+     *
+     * @param id
+     *            the identifier of the section.
+     * @return the section, or <code>null</code> if no section has the
+     *         identifier.
+     */
+    public static PlayerSaveSection forId(int id) {
+        return id < 0 || id >= SECTIONS.length ? null : SECTIONS[id];
+    }
+
+    /**
+     * Writes the items in the argued container.
+     *
+     * @param container
+     *            the container to write the items of.
+     * @param out
+     *            the stream to write the items to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private static void writeItems(ItemContainer container, DataOutputStream out)
+        throws IOException {
+        out.writeShort(container.capacity());
+
+        for (int i = 0; i < container.capacity(); i++) {
+            Item item = container.get(i);
+
+            if (item == null) {
+                out.writeShort(0);
+                continue;
+            }
+            out.writeShort(item.getId() + 1);
+            out.writeInt(item.getAmount());
+        }
+    }
+
+    /**
+     * Reads the items for the argued container.
+     *
+     * @param container
+     *            the container to read the items into.
+     * @param in
+     *            the stream to read the items from.
+     * @throws IOException
+     *             if any errors occur while reading.
+     */
+    private static void readItems(ItemContainer container, DataInputStream in)
+        throws IOException {
+        Item[] items = new Item[container.capacity()];
+        int length = in.readUnsignedShort();
+
+        for (int i = 0; i < length; i++) {
+            int id = in.readUnsignedShort() - 1;
+
+            if (id == -1) {
+                continue;
+            }
+            Item item = new Item(id, in.readInt());
+
+            if (i < items.length) {
+                items[i] = item;
+            }
+        }
+        container.setItems(items);
+    }
+
+    /**
+     * Writes an array of values that all fit within a byte.
+     *
+     * @param values
+     *            the values to write.
+     * @param out
+     *            the stream to write the values to.
+     * @throws IOException
+     *             if any errors occur while writing.
+     */
+    private static void writeInts(int[] values, DataOutputStream out)
+        throws IOException {
+        out.writeByte(values.length);
+
+        for (int value : values) {
+            out.writeByte(value);
+        }
+    }
+
+    /**
+     * Reads an array of values written by {@link #writeInts}.
+     *
+     * @param in
+     *            the stream to read the values from.
+     * @return the values that were read.
+     * @throws IOException
+     *             if any errors occur while reading.
+     */
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readUnsignedByte()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUnsignedByte();
+        }
+        return values;
+    }
+
+    /**
+     * Gets the identifier that this section is written with.
+     *
+     * @return the identifier.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Determines if this section is only encoded when its contents change.
+     *
+     * @return <code>true</code> if this section is tracked, <code>false</code>
+     *         otherwise.
+     */
+    public boolean isTracked() {
+        return tracked;
+    }
+
+    static {
+        for (PlayerSaveSection section : values()) {
+            SECTIONS[section.id] = section;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.asteria.world.entity.player;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 import com.asteria.engine.net.ProtocolBuffer;
@@ -11,7 +12,6 @@ import com.asteria.util.Utility;
 import com.asteria.world.World;
 import com.asteria.world.entity.UpdateFlags.Flag;
 import com.asteria.world.entity.player.skill.Skills;
-import com.asteria.world.map.Position;
 
 /**
  * Provides static utility methods for updating {@link Player}s.
@@ -21,6 +21,22 @@ import com.asteria.world.map.Position;
  */
 public final class PlayerUpdating {
 
+    /** The reusable buffers for the update packet of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> packetBuffer = ProtocolBuffer
+        .newThreadLocal(16384);
+
+    /** The reusable buffers for the update blocks of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> blockBuffer = ProtocolBuffer
+        .newThreadLocal(8192);
+
+    /** The reusable buffers for single update states of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> stateBuffer = ProtocolBuffer
+        .newThreadLocal(300);
+
+    /** The reusable buffers for appearance blocks of each update thread. */
+    private static final ThreadLocal<ProtocolBuffer> appearanceBuffer = ProtocolBuffer
+        .newThreadLocal(128);
+
     /**
      * Updates the argued {@link Player}.
      * 
@@ -29,8 +45,8 @@ public final class PlayerUpdating {
      */
     public static void update(Player player) throws Exception {
 
-        ProtocolBuffer out = new ProtocolBuffer(16384);
-        ProtocolBuffer block = new ProtocolBuffer(8192);
+        ProtocolBuffer out = packetBuffer.get().clear();
+        ProtocolBuffer block = blockBuffer.get().clear();
 
         // Initialize the update packet.
         out.buildVarShort(81, player.getSession());
@@ -66,14 +82,14 @@ public final class PlayerUpdating {
         int added = 0;
 
         // Update the local player list.
-        for (int i = 0; i < World.getPlayers().capacity(); i++) {
+        for (Player other : World.getPlayers().getRegions().viewableFrom(
+            player.getPosition())) {
             if (added == 15 || player.getLocalPlayers().size() >= 255) {
 
                 // Player limit has been reached.
                 break;
             }
-            Player other = World.getPlayers().get(i);
-            if (other == null || other == player || other.getSession()
+            if (other == player || other.getSession()
                 .getStage() != Session.Stage.LOGGED_IN) {
                 continue;
             }
@@ -126,7 +142,7 @@ public final class PlayerUpdating {
      *            the buffer.
      */
     public static void appendAppearance(Player player, ProtocolBuffer out) {
-        ProtocolBuffer block = new ProtocolBuffer(128);
+        ProtocolBuffer block = appearanceBuffer.get().clear();
 
         block.writeByte(player.getGender());
         block.writeByte(player.getHeadIcon());
@@ -286,10 +302,10 @@ public final class PlayerUpdating {
         out.writeBit(true); // Discard walking queue(?)
 
         // Write the relative position.
-        Position delta = Utility.delta(player.getPosition(), other
-            .getPosition());
-        out.writeBits(5, delta.getY());
-        out.writeBits(5, delta.getX());
+        out.writeBits(5, other.getPosition().getY() - player.getPosition()
+            .getY());
+        out.writeBits(5, other.getPosition().getX() - player.getPosition()
+            .getX());
     }
 
     /**
@@ -391,13 +407,16 @@ public final class PlayerUpdating {
         }
 
         // Send the cached update block if we are able to.
-        if (player.getCachedUpdateBlock() != null && player != thisPlayer && !forceAppearance && !noChat) {
-            block.getBuffer().put(player.getCachedUpdateBlock().array());
+        ByteBuffer cachedBlock = player.getCachedUpdateBlock();
+
+        if (cachedBlock != null && player != thisPlayer && !forceAppearance && !noChat) {
+            block.writeBytes(cachedBlock);
             return;
         }
 
-        // Create the buffer we are going to cache.
-        ProtocolBuffer cachedBuffer = new ProtocolBuffer(300);
+        // Build the state in the reusable buffer, it's only copied if it needs
+        // to be cached.
+        ProtocolBuffer cachedBuffer = stateBuffer.get().clear();
 
         // First we build the update mask.
         int mask = 0x0;
@@ -469,8 +488,10 @@ public final class PlayerUpdating {
 
         // Cache the block if possible.
         if (player != thisPlayer && !forceAppearance && !noChat) {
-            player.setCachedUpdateBlock(cachedBuffer.getBuffer());
-
+            ByteBuffer buf = cachedBuffer.getBuffer();
+            cachedBlock = ByteBuffer.allocate(buf.position());
+            cachedBlock.put(buf.array(), 0, buf.position());
+            player.setCachedUpdateBlock(cachedBlock);
         }
 
         // Add the cached block to the update block.
@@ -0,0 +1,523 @@
+package com.asteria.world.entity.player.content;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import com.asteria.engine.task.Task;
+import com.asteria.engine.task.TaskManager;
+import com.asteria.util.Utility;
+import com.asteria.world.entity.combat.magic.CombatSpells;
+import com.asteria.world.entity.combat.prayer.CombatPrayer;
+import com.asteria.world.entity.combat.weapon.FightType;
+import com.asteria.world.entity.player.Player;
+import com.asteria.world.entity.player.content.TradeSession.TradeStage;
+import com.asteria.world.entity.player.minigame.Minigame;
+import com.asteria.world.entity.player.minigame.Minigames;
+import com.asteria.world.map.Position;
+
+/**
+ * The registry of actions performed when a {@link Player} clicks an action
+ * button. Actions are registered by button ID when the server starts, and
+ * are kept in an array indexed by the button ID so a click is dispatched with
+ * a single array access.
+ *
+ * @author lare96
+ */
+public final class ActionButtons {
+
+    /** The registered actions, indexed by their button ID. */
+    private static ButtonAction[] actions = new ButtonAction[0];
+
+    /**
+     * Registers the argued action for all of the argued buttons.
+     *
+     * @param action
+     *            the action performed when one of the buttons is clicked.
+     * @param buttonIds
+     *            the buttons to register the action for.
+     * @throws IllegalStateException
+     *             if an action is already registered for one of the buttons.
+     */
+    public static void register(ButtonAction action, int... buttonIds) {
+        for (int id : buttonIds) {
+            if (id >= actions.length) {
+                actions = Arrays.copyOf(actions, id + 1);
+            }
+            if (actions[id] != null) {
+                throw new IllegalStateException(
+                    "Action already registered for button: " + id);
+            }
+            actions[id] = action;
+        }
+    }
+
+    /**
+     * Performs the action registered for the argued button.
+     *
+     * @param player
+     *            the player that clicked the button.
+     * @param buttonId
+     *            the button that was clicked.
+     * @return <code>true</code> if an action was registered for the button,
+     *         <code>false</code> otherwise.
+     */
+    public static boolean click(Player player, int buttonId) {
+        ButtonAction action = buttonId >= 0 && buttonId < actions.length ? actions[buttonId]
+            : null;
+
+        if (action == null) {
+            return false;
+        }
+        action.click(player);
+        return true;
+    }
+
+    /**
+     * Registers the actions for all of the buttons that are handled by the
+     * server. This should only be called once, when the server starts.
+     */
+    public static void load() {
+        loadTeleports();
+        loadPrayers();
+        loadSettings();
+        loadTrading();
+        loadFightTypes();
+        loadAutocasting();
+        loadSpecials();
+    }
+
+    /** Registers the actions for the teleport buttons. */
+    private static void loadTeleports() {
+        register(player -> player.teleport(new Position(3094, 3243)), 50235,
+            4140);
+    }
+
+    /** Registers the actions for the prayer buttons. */
+    private static void loadPrayers() {
+        prayer(21233, CombatPrayer.THICK_SKIN);
+        prayer(21234, CombatPrayer.BURST_OF_STRENGTH);
+        prayer(21235, CombatPrayer.CLARITY_OF_THOUGHT);
+        prayer(21236, CombatPrayer.ROCK_SKIN);
+        prayer(21237, CombatPrayer.SUPERHUMAN_STRENGTH);
+        prayer(21238, CombatPrayer.IMPROVED_REFLEXES);
+        prayer(21239, CombatPrayer.RAPID_RESTORE);
+        prayer(21240, CombatPrayer.RAPID_HEAL);
+        prayer(21241, CombatPrayer.PROTECT_ITEM);
+        prayer(21242, CombatPrayer.STEEL_SKIN);
+        prayer(21243, CombatPrayer.ULTIMATE_STRENGTH);
+        prayer(21244, CombatPrayer.INCREDIBLE_REFLEXES);
+        prayer(21245, CombatPrayer.PROTECT_FROM_MAGIC);
+        prayer(21246, CombatPrayer.PROTECT_FROM_MISSILES);
+        prayer(21247, CombatPrayer.PROTECT_FROM_MELEE);
+        prayer(2171, CombatPrayer.RETRIBUTION);
+        prayer(2172, CombatPrayer.REDEMPTION);
+        prayer(2173, CombatPrayer.SMITE);
+    }
+
+    /**
+     * Registers the action for a button that activates a prayer.
+     *
+     * @param buttonId
+     *            the button to register the action for.
+     * @param prayer
+     *            the prayer activated by the button.
+     */
+    private static void prayer(int buttonId, CombatPrayer prayer) {
+        register(player -> prayer.activate(player, true), buttonId);
+    }
+
+    /**
+     * Registers the actions for the buttons that toggle settings, and for
+     * the logout button.
+     */
+    private static void loadSettings() {
+        register(player -> {
+            if (player.isAcceptAid()) {
+                player.getPacketBuilder().sendMessage(
+                    "Accept aid has been turned off.");
+                player.setAcceptAid(false);
+            }
+        }, 48177);
+        register(player -> {
+            if (!player.isAcceptAid()) {
+                player.getPacketBuilder().sendMessage(
+                    "Accept aid has been turned on.");
+                player.setAcceptAid(true);
+            }
+        }, 48176);
+        register(player -> {
+            if (!player.isAutoRetaliate()) {
+                player.setAutoRetaliate(true);
+                player.getPacketBuilder().sendMessage(
+                    "Auto retaliate has been turned on!");
+            }
+        }, 150);
+        register(player -> {
+            if (player.isAutoRetaliate()) {
+                player.setAutoRetaliate(false);
+                player.getPacketBuilder().sendMessage(
+                    "Auto retaliate has been turned off!");
+            }
+        }, 151);
+        register(player -> {
+            Optional<Minigame> optional = Minigames.get(player);
+            if (optional.isPresent()) {
+                if (!optional.get().canFormalLogout(player)) {
+                    return;
+                }
+            }
+
+            if (player.getLastCombat().elapsed() <= 10000) {
+                player
+                    .getPacketBuilder()
+                    .sendMessage(
+                        "You must wait 10 seconds after combat before logging out.");
+                return;
+            }
+
+            player.logout();
+        }, 9154);
+        register(player -> {
+            if (player.getRunEnergy() == 0) {
+                return;
+            }
+
+            player.getMovementQueue().setRunToggled(true);
+            player.getPacketBuilder().sendConfig(173, 1);
+        }, 153);
+        register(player -> {
+            player.getMovementQueue().setRunToggled(false);
+            player.getPacketBuilder().sendConfig(173, 0);
+        }, 152);
+        register(player -> player.setWithdrawAsNote(false), 21011);
+        register(player -> player.setWithdrawAsNote(true), 21010);
+        register(player -> player.setInsertItem(true), 31195);
+        register(player -> player.setInsertItem(false), 31194);
+        register(player -> player.getPacketBuilder().sendSidebarInterface(0,
+            player.getWeapon().getInterfaceId()), 24017, 7212);
+    }
+
+    /** Registers the actions for the trade accept buttons. */
+    private static void loadTrading() {
+        register(player -> {
+            if (player.getTradeSession().inTrade()) {
+                Player partner = player.getTradeSession().getPartner();
+
+                if (partner.getInventory().getRemainingSlots() < player
+                    .getTradeSession().getOffering().size()) {
+                    player
+                        .getPacketBuilder()
+                        .sendMessage(
+                            partner.getCapitalizedUsername() + " does not have enough free slots for this many items.");
+                    return;
+                }
+
+                player.getTradeSession().setStage(TradeStage.FIRST_ACCEPT);
+                player.getPacketBuilder().sendString(
+                    "Waiting for other player...", 3431);
+                partner.getPacketBuilder().sendString(
+                    "Other player has accepted", 3431);
+
+                if (player.getTradeSession().getStage() == TradeStage.FIRST_ACCEPT && partner
+                    .getTradeSession().getStage() == TradeStage.FIRST_ACCEPT) {
+                    player.getTradeSession().openTradeConfirm();
+                    partner.getTradeSession().openTradeConfirm();
+                }
+            }
+        }, 13092);
+        register(player -> {
+            if (player.getTradeSession().inTrade()) {
+                Player partner = player.getTradeSession().getPartner();
+
+                player.getTradeSession().setStage(TradeStage.FINAL_ACCEPT);
+                partner.getPacketBuilder().sendString(
+                    "Other player has accepted.", 3535);
+                player.getPacketBuilder().sendString(
+                    "Waiting for other player...", 3535);
+
+                if (player.getTradeSession().getStage() == TradeStage.FINAL_ACCEPT && partner
+                    .getTradeSession().getStage() == TradeStage.FINAL_ACCEPT) {
+                    player.getTradeSession().distributeItems();
+                }
+            }
+        }, 13218);
+    }
+
+    /** Registers the actions for the fight type buttons. */
+    private static void loadFightTypes() {
+
+        // Staff.
+        fightType(1080, FightType.STAFF_BASH);
+        fightType(1079, FightType.STAFF_POUND);
+        fightType(1078, FightType.STAFF_FOCUS);
+
+        // Warhammer.
+        fightType(1177, FightType.WARHAMMER_POUND);
+        fightType(1176, FightType.WARHAMMER_PUMMEL);
+        fightType(1175, FightType.WARHAMMER_BLOCK);
+
+        // Scythe.
+        fightType(3014, FightType.SCYTHE_REAP);
+        fightType(3017, FightType.SCYTHE_CHOP);
+        fightType(3016, FightType.SCYTHE_JAB);
+        fightType(3015, FightType.SCYTHE_BLOCK);
+
+        // Battle axe.
+        fightType(6168, FightType.BATTLEAXE_CHOP);
+        fightType(6171, FightType.BATTLEAXE_HACK);
+        fightType(6170, FightType.BATTLEAXE_SMASH);
+        fightType(6169, FightType.BATTLEAXE_BLOCK);
+
+        // Crossbow.
+        fightType(6221, FightType.CROSSBOW_ACCURATE);
+        fightType(6220, FightType.CROSSBOW_RAPID);
+        fightType(6219, FightType.CROSSBOW_LONGRANGE);
+
+        // Shortbow and longbow.
+        fightType(6236, FightType.SHORTBOW_ACCURATE,
+            FightType.LONGBOW_ACCURATE);
+        fightType(6235, FightType.SHORTBOW_RAPID, FightType.LONGBOW_RAPID);
+        fightType(6234, FightType.SHORTBOW_LONGRANGE,
+            FightType.LONGBOW_LONGRANGE);
+
+        // Dagger and sword.
+        fightType(8234, FightType.DAGGER_STAB, FightType.SWORD_STAB);
+        fightType(8237, FightType.DAGGER_LUNGE, FightType.SWORD_LUNGE);
+        fightType(8236, FightType.DAGGER_SLASH, FightType.SWORD_SLASH);
+        fightType(8235, FightType.DAGGER_BLOCK, FightType.SWORD_BLOCK);
+
+        // Scimitar and longsword.
+        fightType(9125, FightType.SCIMITAR_CHOP, FightType.LONGSWORD_CHOP);
+        fightType(9128, FightType.SCIMITAR_SLASH, FightType.LONGSWORD_SLASH);
+        fightType(9127, FightType.SCIMITAR_LUNGE, FightType.LONGSWORD_LUNGE);
+        fightType(9126, FightType.SCIMITAR_BLOCK, FightType.LONGSWORD_BLOCK);
+
+        // Mace.
+        fightType(14218, FightType.MACE_POUND);
+        fightType(14221, FightType.MACE_PUMMEL);
+        fightType(14220, FightType.MACE_SPIKE);
+        fightType(14219, FightType.MACE_BLOCK);
+
+        // Knife, thrownaxe, dart and javelin.
+        fightType(17102, FightType.KNIFE_ACCURATE,
+            FightType.THROWNAXE_ACCURATE, FightType.DART_ACCURATE,
+            FightType.JAVELIN_ACCURATE);
+        fightType(17101, FightType.KNIFE_RAPID, FightType.THROWNAXE_RAPID,
+            FightType.DART_RAPID, FightType.JAVELIN_RAPID);
+        fightType(17100, FightType.KNIFE_LONGRANGE,
+            FightType.THROWNAXE_LONGRANGE, FightType.DART_LONGRANGE,
+            FightType.JAVELIN_LONGRANGE);
+
+        // Spear.
+        fightType(18077, FightType.SPEAR_LUNGE);
+        fightType(18080, FightType.SPEAR_SWIPE);
+        fightType(18079, FightType.SPEAR_POUND);
+        fightType(18078, FightType.SPEAR_BLOCK);
+
+        // Two handed sword.
+        fightType(18103, FightType.TWOHANDEDSWORD_CHOP);
+        fightType(15106, FightType.TWOHANDEDSWORD_SLASH);
+        fightType(18105, FightType.TWOHANDEDSWORD_SMASH);
+        fightType(18104, FightType.TWOHANDEDSWORD_BLOCK);
+
+        // Pickaxe.
+        fightType(21200, FightType.PICKAXE_SPIKE);
+        fightType(21203, FightType.PICKAXE_IMPALE);
+        fightType(21202, FightType.PICKAXE_SMASH);
+        fightType(21201, FightType.PICKAXE_BLOCK);
+
+        // Claws.
+        fightType(30088, FightType.CLAWS_CHOP);
+        fightType(30091, FightType.CLAWS_SLASH);
+        fightType(30090, FightType.CLAWS_LUNGE);
+        fightType(30089, FightType.CLAWS_BLOCK);
+
+        // Halberd.
+        fightType(33018, FightType.HALBERD_JAB);
+        fightType(33020, FightType.HALBERD_SWIPE);
+        fightType(33016, FightType.HALBERD_FEND);
+
+        // Unarmed.
+        fightType(22228, FightType.UNARMED_PUNCH);
+        fightType(22230, FightType.UNARMED_KICK);
+        fightType(22229, FightType.UNARMED_BLOCK);
+
+        // Whip.
+        fightType(48010, FightType.WHIP_FLICK);
+        fightType(48009, FightType.WHIP_LASH);
+        fightType(48008, FightType.WHIP_DEFLECT);
+    }
+
+    /**
+     * Registers the action for a button that selects a fight type. When a
+     * button is shared by several weapon interfaces, the fight type that
+     * belongs to the interface the player has open is selected.
+     *
+     * @param buttonId
+     *            the button to register the action for.
+     * @param fightTypes
+     *            the fight types selected by the button.
+     */
+    private static void fightType(int buttonId, FightType... fightTypes) {
+        if (fightTypes.length == 1) {
+            register(player -> player.setFightType(fightTypes[0]), buttonId);
+            return;
+        }
+        register(player -> {
+            for (FightType fightType : fightTypes) {
+                for (FightType other : player.getWeapon().getFightType()) {
+                    if (fightType == other) {
+                        player.setFightType(fightType);
+                        return;
+                    }
+                }
+            }
+        }, buttonId);
+    }
+
+    /** Registers the actions for the autocast buttons. */
+    private static void loadAutocasting() {
+        register(player -> {
+            if (player.isAutocast()) {
+                player.setCastSpell(null);
+                player.setAutocastSpell(null);
+                player.setAutocast(false);
+                player.getPacketBuilder().sendConfig(108, 0);
+            } else if (!player.isAutocast()) {
+                if (player.getEquipment().getItemId(
+                    Utility.EQUIPMENT_SLOT_WEAPON) == 4675) {
+                    if (player.getSpellbook() != Spellbook.ANCIENT) {
+                        player
+                            .getPacketBuilder()
+                            .sendMessage(
+                                "You can only autocast ancient magics with this staff.");
+                        return;
+                    }
+
+                    player.getPacketBuilder().sendSidebarInterface(0, 1689);
+                } else {
+                    if (player.getSpellbook() != Spellbook.NORMAL) {
+                        player
+                            .getPacketBuilder()
+                            .sendMessage(
+                                "You can only autocast standard magics with this staff.");
+                        return;
+                    }
+
+                    player.getPacketBuilder().sendSidebarInterface(0, 1829);
+                }
+            }
+        }, 1093, 1094, 1097);
+
+        // Ancient magics.
+        autocast(51133, CombatSpells.SMOKE_RUSH);
+        autocast(51185, CombatSpells.SHADOW_RUSH);
+        autocast(51091, CombatSpells.BLOOD_RUSH);
+        autocast(24018, CombatSpells.ICE_RUSH);
+        autocast(51159, CombatSpells.SMOKE_BURST);
+        autocast(51211, CombatSpells.SHADOW_BURST);
+        autocast(51111, CombatSpells.BLOOD_BURST);
+        autocast(51069, CombatSpells.ICE_BURST);
+        autocast(51146, CombatSpells.SMOKE_BLITZ);
+        autocast(51198, CombatSpells.SHADOW_BLITZ);
+        autocast(51102, CombatSpells.BLOOD_BLITZ);
+        autocast(51058, CombatSpells.ICE_BLITZ);
+        autocast(51172, CombatSpells.SMOKE_BARRAGE);
+        autocast(51224, CombatSpells.SHADOW_BARRAGE);
+        autocast(51122, CombatSpells.BLOOD_BARRAGE);
+        autocast(51080, CombatSpells.ICE_BARRAGE);
+
+        // Standard magics.
+        autocast(7038, CombatSpells.WIND_STRIKE);
+        autocast(7039, CombatSpells.WATER_STRIKE);
+        autocast(7040, CombatSpells.EARTH_STRIKE);
+        autocast(7041, CombatSpells.FIRE_STRIKE);
+        autocast(7042, CombatSpells.WIND_BOLT);
+        autocast(7043, CombatSpells.WATER_BOLT);
+        autocast(7044, CombatSpells.EARTH_BOLT);
+        autocast(7045, CombatSpells.FIRE_BOLT);
+        autocast(7046, CombatSpells.WIND_BLAST);
+        autocast(7047, CombatSpells.WATER_BLAST);
+        autocast(7048, CombatSpells.EARTH_BLAST);
+        autocast(7049, CombatSpells.FIRE_BLAST);
+        autocast(7050, CombatSpells.WIND_WAVE);
+        autocast(7051, CombatSpells.WATER_WAVE);
+        autocast(7052, CombatSpells.EARTH_WAVE);
+        autocast(7053, CombatSpells.FIRE_WAVE);
+    }
+
+    /**
+     * Registers the action for a button that selects a spell to autocast.
+     *
+     * @param buttonId
+     *            the button to register the action for.
+     * @param spell
+     *            the spell selected by the button.
+     */
+    private static void autocast(int buttonId, CombatSpells spell) {
+        register(player -> {
+            player.setAutocastSpell(spell.getSpell());
+            player.setAutocast(true);
+            player.getPacketBuilder().sendSidebarInterface(0,
+                player.getWeapon().getInterfaceId());
+            player.getPacketBuilder().sendConfig(108, 3);
+        }, buttonId);
+    }
+
+    /** Registers the actions for the special attack bars. */
+    private static void loadSpecials() {
+        register(player -> {
+            if (player.getCombatSpecial() == null) {
+                return;
+            }
+
+            if (player.isSpecialActivated()) {
+                player.getPacketBuilder().sendConfig(301, 0);
+                player.setSpecialActivated(false);
+            } else {
+                if (player.getSpecialPercentage() < player.getCombatSpecial()
+                    .getDrainAmount()) {
+                    player.getPacketBuilder().sendMessage(
+                        "You do not have enough special energy left!");
+                    return;
+                }
+
+                player.getPacketBuilder().sendConfig(301, 1);
+                player.setSpecialActivated(true);
+
+                TaskManager.submit(new Task(1, false) {
+                    @Override
+                    public void execute() {
+                        if (!player.isSpecialActivated()) {
+                            this.cancel();
+                            return;
+                        }
+
+                        player.getCombatSpecial().onActivation(player,
+                            player.getCombatBuilder().getVictim());
+                    }
+                }.bind(player));
+            }
+        }, 29138, 29038, 29063, 29113, 29163, 29188, 29213, 29238, 30007,
+            48023, 33033, 30108);
+    }
+
+    private ActionButtons() {}
+
+    /**
+     * An action performed when a {@link Player} clicks an action button.
+     *
+     * @author lare96
+     */
+    @FunctionalInterface
+    public interface ButtonAction {
+
+        /**
+         * Performs this action for the argued player.
+         *
+         * @param player
+         *            the player that clicked the button.
+         */
+        void click(Player player);
+    }
+}
@@ -1,9 +1,8 @@
 package com.asteria.world.entity.player.content;
 
-import java.util.EnumSet;
 import java.util.Optional;
-import java.util.Set;
 
+import com.asteria.util.IdTable;
 import com.asteria.util.Utility;
 import com.asteria.world.entity.Animation;
 import com.asteria.world.entity.player.Player;
@@ -216,10 +215,10 @@ public enum FoodConsumable {
     private final int[] ids;
 
     /**
-     * A set of consumable foods.
+     * The consumable foods indexed by their ids.
      */
-    private static final Set<FoodConsumable> ALL_FOOD = EnumSet
-        .allOf(FoodConsumable.class);
+    private static final IdTable<FoodConsumable> ALL_FOOD = IdTable.forIds(
+        values(), FoodConsumable::getIds);
 
     /**
      * Constructs a new {@link FoodConsumable} with the specified heal amount
@@ -328,14 +327,7 @@ public enum FoodConsumable {
      * @return The food consumable, or null if it does not exist.
      */
     private static Optional<FoodConsumable> forId(int id) {
-        for (FoodConsumable food : ALL_FOOD) {
-            for (int foodId : food.getIds()) {
-                if (id == foodId) {
-                    return Optional.of(food);
-                }
-            }
-        }
-        return Optional.empty();
+        return ALL_FOOD.get(id);
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.asteria.world.entity.player.content;
 
+import com.asteria.util.IdTable;
+import com.asteria.util.Utility;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.entity.player.content.WeaponInterfaces.WeaponInterface;
 import com.asteria.world.item.Item;
@@ -19,6 +21,10 @@ public enum PlayerMagicStaff {
     MUD(new int[] { 6562, 6563 }, new int[] { 555, 557 }),
     LAVA(new int[] { 3053, 3054 }, new int[] { 554, 557 });
 
+    /** The staff constants indexed by the staves they represent. */
+    private static final IdTable<PlayerMagicStaff> STAVES = IdTable.forIds(
+        values(), m -> m.staves);
+
     /** The staves that can be used in place of runes. */
     private int[] staves;
 
@@ -49,20 +55,23 @@ public enum PlayerMagicStaff {
      * @return the new array of items with suppressed runes removed.
      */
     public static Item[] suppressRunes(Player player, Item[] runesRequired) {
-        if (player.getWeapon() == WeaponInterface.STAFF) {
-            for (PlayerMagicStaff m : values()) {
-                if (player.getEquipment().containsAny(m.staves)) {
-                    for (int id : m.runes) {
-                        for (int i = 0; i < runesRequired.length; i++) {
-                            if (runesRequired[i] != null && runesRequired[i]
-                                .getId() == id) {
-                                runesRequired[i] = null;
-                            }
-                        }
+        if (player.getWeapon() != WeaponInterface.STAFF) {
+            return runesRequired;
+        }
+
+        // Staves can only be wielded in the weapon slot.
+        PlayerMagicStaff m = STAVES.get(
+            player.getEquipment().getItemId(Utility.EQUIPMENT_SLOT_WEAPON))
+            .orElse(null);
+
+        if (m != null) {
+            for (int id : m.runes) {
+                for (int i = 0; i < runesRequired.length; i++) {
+                    if (runesRequired[i] != null && runesRequired[i].getId() == id) {
+                        runesRequired[i] = null;
                     }
                 }
             }
-            return runesRequired;
         }
         return runesRequired;
     }
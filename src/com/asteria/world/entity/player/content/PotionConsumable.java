@@ -8,12 +8,11 @@ import static com.asteria.world.entity.player.skill.Skills.PRAYER;
 import static com.asteria.world.entity.player.skill.Skills.RANGED;
 import static com.asteria.world.entity.player.skill.Skills.STRENGTH;
 
-import java.util.EnumSet;
 import java.util.Optional;
-import java.util.Set;
 
 import com.asteria.engine.task.Task;
 import com.asteria.engine.task.TaskManager;
+import com.asteria.util.IdTable;
 import com.asteria.world.entity.Animation;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.entity.player.skill.Skill;
@@ -151,9 +150,9 @@ public enum PotionConsumable {
     /** All of the id's for the different potion doses. */
     private final int[] ids;
 
-    /** The enum set of potions. */
-    private static final Set<PotionConsumable> ALL_POTIONS = EnumSet
-        .allOf(PotionConsumable.class);
+    /** The potions indexed by the id's of their doses. */
+    private static final IdTable<PotionConsumable> ALL_POTIONS = IdTable
+        .forIds(values(), PotionConsumable::getIds);
 
     /**
      * Create a new {@link PotionConsumable}.
@@ -175,14 +174,7 @@ public enum PotionConsumable {
      * @return the potion consumable instance.
      */
     private static Optional<PotionConsumable> forId(int id) {
-        for (PotionConsumable potion : ALL_POTIONS) {
-            for (int potionId : potion.getIds()) {
-                if (id == potionId) {
-                    return Optional.of(potion);
-                }
-            }
-        }
-        return Optional.empty();
+        return ALL_POTIONS.get(id);
     }
 
     /**
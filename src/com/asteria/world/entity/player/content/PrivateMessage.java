@@ -1,17 +1,34 @@
 package com.asteria.world.entity.player.content;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import com.asteria.util.LongSet;
 import com.asteria.world.World;
 import com.asteria.world.entity.player.Player;
 
 /**
  * Manages friend/ignore lists as well as the sending of private messages.
+ * <p>
+ * A reverse index of the online players that have each name on their friends
+ * list is kept, so when a player logs in or out only the players that have
+ * them added are updated. These updates are batched and sent once per cycle
+ * by {@link #flushPresence()}.
  * 
  * @author lare96
  */
 public final class PrivateMessage {
 
+    /** The online players that have each name hash on their friends list. */
+    private static final Map<Long, Set<Player>> followers = new HashMap<>();
+
+    /** The name hashes of the players that logged in or out this cycle. */
+    private static final LongSet presence = new LongSet(64);
+
     /** The player instance. */
     private Player player;
 
@@ -35,7 +52,7 @@ public final class PrivateMessage {
     public void updateThisList() {
 
         // Loop through all of your friends and update their statuses.
-        for (long name : player.getFriends()) {
+        for (long name : player.getFriends().toArray()) {
             if (name == 0) {
                 continue;
 
@@ -49,7 +66,9 @@ public final class PrivateMessage {
 
     /**
      * Updates everyone else's friends list with whether this player is online
-     * or offline.
+     * or offline. This also adds or removes this player from the index of
+     * players interested in the status of the names on their friends list.
+     * The status itself is sent by {@link #flushPresence()}.
      * 
      * @param online
      *            <code>true</code> if the player should be updated on their
@@ -58,16 +77,62 @@ public final class PrivateMessage {
      */
     public void updateOtherList(boolean online) {
 
-        // Loop through everyone and update them with your status.
-        for (Player players : World.getPlayers()) {
-            if (players == null) {
-                continue;
+        // Add or remove ourselves as a follower of everyone on our list.
+        for (int i = 0; i < player.getFriends().size(); i++) {
+            if (online) {
+                follow(player.getFriends().get(i));
+            } else {
+                unfollow(player.getFriends().get(i));
             }
+        }
+
+        // Queue our status to be sent to everyone who follows us.
+        presence.add(player.getUsernameHash());
+    }
+
+    /**
+     * Sends the status of every player that logged in or out this cycle to
+     * the players that have them on their friends list. This should only ever
+     * be called on the game thread.
+     */
+    public static void flushPresence() {
+        for (int i = 0; i < presence.size(); i++) {
+            long name = presence.get(i);
+            Set<Player> set = followers.get(name);
 
-            if (players.getFriends().contains(player.getUsernameHash())) {
-                players.getPacketBuilder().loadPrivateMessage(
-                    player.getUsernameHash(), !online ? 0 : 1);
+            if (set == null) {
+                continue;
             }
+            int status = World.getPlayerByHash(name).isPresent() ? 1 : 0;
+            set.forEach(p -> p.getPacketBuilder().loadPrivateMessage(name,
+                status));
+        }
+        presence.clear();
+    }
+
+    /**
+     * Adds this player as a follower of the argued name.
+     * 
+     * @param name
+     *            the name hash to follow.
+     */
+    private void follow(long name) {
+        followers.computeIfAbsent(name,
+            n -> Collections.newSetFromMap(new IdentityHashMap<>())).add(
+            player);
+    }
+
+    /**
+     * Removes this player as a follower of the argued name.
+     * 
+     * @param name
+     *            the name hash to stop following.
+     */
+    private void unfollow(long name) {
+        Set<Player> set = followers.get(name);
+
+        if (set != null && set.remove(player) && set.isEmpty()) {
+            followers.remove(name);
         }
     }
 
@@ -98,6 +163,7 @@ public final class PrivateMessage {
         Optional<Player> p = World.getPlayerByHash(name);
 
         player.getFriends().add(name);
+        follow(name);
         player.getPacketBuilder().loadPrivateMessage(name,
             !p.isPresent() ? 0 : 1);
     }
@@ -137,8 +203,8 @@ public final class PrivateMessage {
     public void removeFriend(long name) {
 
         // Remove the person from your friends list.
-        if (player.getFriends().contains(name)) {
-            player.getFriends().remove(name);
+        if (player.getFriends().remove(name)) {
+            unfollow(name);
         } else {
             player.getPacketBuilder().sendMessage(
                 "They are not on your friends list.");
@@ -154,9 +220,7 @@ public final class PrivateMessage {
     public void removeIgnore(long name) {
 
         // Remove the person from your ignores list.
-        if (player.getIgnores().contains(name)) {
-            player.getIgnores().remove(name);
-        } else {
+        if (!player.getIgnores().remove(name)) {
             player.getPacketBuilder().sendMessage(
                 "They are not on your ignores list.");
         }
@@ -1,5 +1,7 @@
 package com.asteria.world.entity.player.skill;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.asteria.world.entity.player.Player;
 
 /**
@@ -9,6 +11,23 @@ import com.asteria.world.entity.player.Player;
  */
 public class Skill {
 
+    /** The highest level that can be reached through experience. */
+    public static final int MAXIMUM_LEVEL = 99;
+
+    /**
+     * The experience needed to reach the level after every level, indexed by
+     * level. This table is calculated once so the experience curve does not
+     * have to be calculated every time a level is needed.
+     */
+    private static final int[] EXPERIENCE_TABLE = new int[MAXIMUM_LEVEL + 1];
+
+    /**
+     * The counter that every skill takes its modification stamp from. Skills
+     * are created on the login threads and changed on the game thread, so the
+     * counter is shared between them.
+     */
+    private static final AtomicLong MODIFICATIONS = new AtomicLong();
+
     /** The level of this skill. */
     private int level;
 
@@ -18,6 +37,13 @@ public class Skill {
     /** The real level for this skill. */
     private int realLevel;
 
+    /**
+     * The stamp of the last change to this skill. Stamps only ever increase,
+     * so a skill that is created or changed always has a higher stamp than
+     * any skill had before it.
+     */
+    private long modified;
+
     /**
      * Create a new {@link Skill}.
      */
@@ -25,6 +51,7 @@ public class Skill {
         this.realLevel = 1;
         this.level = 1;
         this.experience = 0;
+        this.modified = MODIFICATIONS.incrementAndGet();
     }
 
     /**
@@ -42,23 +69,8 @@ public class Skill {
      * @return the level based on how much experience you have.
      */
     public int calculateLevelForExperience() {
-        int points = 0;
-        int output = 0;
-
-        if (realLevel >= 99) {
-            return 99;
-        }
-
-        for (int lvl = 1; lvl <= 99; lvl++) {
-            points += Math.floor(lvl + 300.0 * Math.pow(2.0, lvl / 7.0));
-            output = (int) Math.floor(points / 4);
-            if (output >= this.getExperience()) {
-                realLevel = lvl;
-                return lvl;
-            }
-        }
-        realLevel = 99;
-        return 99;
+        realLevel = levelForExperience(experience);
+        return realLevel;
     }
 
     /**
@@ -67,17 +79,33 @@ public class Skill {
      * @return the amount of experience needed for the next level.
      */
     public int getExperienceForNextLevel() {
-        int points = 0;
-        int output = 0;
+        return realLevel <= level ? EXPERIENCE_TABLE[realLevel] : 0;
+    }
 
-        for (int lvl = 1; lvl <= (this.getLevel() + 1); lvl++) {
-            points += Math.floor(lvl + 300.0 * Math.pow(2.0, lvl / 7.0));
-            if (lvl >= (this.getLevelForExperience() + 1))
-                return output;
-            output = (int) Math.floor(points / 4);
-        }
+    /**
+     * Determines the level for the argued amount of experience, by searching
+     * the experience table.
+     * 
+     * @param experience
+     *            the amount of experience.
+     * @return the level for the experience.
+     */
+    public static int levelForExperience(int experience) {
+        int low = 1;
+        int high = MAXIMUM_LEVEL;
+
+        // Find the lowest level where the experience needed for the next
+        // level is at least the argued experience.
+        while (low < high) {
+            int middle = (low + high) >>> 1;
 
-        return 0;
+            if (EXPERIENCE_TABLE[middle] >= experience) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
     }
 
     /**
@@ -98,6 +126,8 @@ public class Skill {
      *            the amount to increase this level by.
      */
     public void increaseLevel(int amount) {
+        modified = MODIFICATIONS.incrementAndGet();
+
         if ((level + amount) > 120) {
             level = 120;
             return;
@@ -115,6 +145,8 @@ public class Skill {
      *            the maximum level to increase this to.
      */
     public void increaseLevel(int amount, int maximum) {
+        modified = MODIFICATIONS.incrementAndGet();
+
         if ((level + amount) > maximum) {
             level = maximum;
             return;
@@ -130,6 +162,8 @@ public class Skill {
      *            the amount to decrease this level by.
      */
     public void decreaseLevel(int amount) {
+        modified = MODIFICATIONS.incrementAndGet();
+
         if ((level - amount) < 1) {
             level = 0;
             return;
@@ -145,6 +179,8 @@ public class Skill {
      *            the amount to decrease this level by.
      */
     public void decreaseLevel(int amount, int minimum) {
+        modified = MODIFICATIONS.incrementAndGet();
+
         if ((level - amount) < minimum) {
             level = minimum;
             return;
@@ -181,6 +217,7 @@ public class Skill {
      */
     public void setLevel(int level, boolean restriction) {
         this.level = level;
+        this.modified = MODIFICATIONS.incrementAndGet();
 
         if (restriction) {
             if (this.level < 0) {
@@ -191,6 +228,15 @@ public class Skill {
         }
     }
 
+    /**
+     * Gets the stamp of the last change to this skill.
+     * 
+     * @return the modification stamp.
+     */
+    public long getModified() {
+        return modified;
+    }
+
     /**
      * Set a new real level for this skill.
      * 
@@ -209,9 +255,20 @@ public class Skill {
      */
     public void setExperience(int experience) {
         this.experience = experience;
+        this.modified = MODIFICATIONS.incrementAndGet();
 
         if (this.experience > 2000000000) {
             this.experience = 2000000000;
         }
+        calculateLevelForExperience();
+    }
+
+    static {
+        int points = 0;
+
+        for (int lvl = 1; lvl <= MAXIMUM_LEVEL; lvl++) {
+            points += Math.floor(lvl + 300.0 * Math.pow(2.0, lvl / 7.0));
+            EXPERIENCE_TABLE[lvl] = points / 4;
+        }
     }
 }
@@ -68,8 +68,7 @@ public final class Skills {
 
         // Check if we are able to level up and do so if needed.
         if (!(oldLevel >= 99)) {
-            int newLevel = player.getSkills()[skill]
-                .calculateLevelForExperience();
+            int newLevel = player.getSkills()[skill].getLevelForExperience();
 
             if (oldLevel < newLevel) {
                 if (skill != 3) {
@@ -2,9 +2,11 @@ package com.asteria.world.item;
 
 import java.util.AbstractCollection;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -14,16 +16,57 @@ import com.asteria.world.entity.player.Player;
  * A collection of items that can be manipulated through the functions contained
  * in this, or the {@link Collections} class. Other classes may also extend this
  * class to inherit, and/or build on its functions.
- * 
+ * <p>
+ * The items are stored as two primitive arrays of identifiers and amounts
+ * rather than as {@link Item} objects, so adding, removing and moving items
+ * around does not create any garbage. {@link Item}s are only created when
+ * they are requested through {@link #get(int)}, {@link #toArray()} or the
+ * iterator, and these are snapshots of the slot that do not write back to this
+ * container when they are changed. The amounts in a slot should be changed
+ * through {@link #incrementAmount(int, int)} and
+ * {@link #decrementAmount(int, int)} instead.
+ * <p>
+ * Every slot that is changed is also marked as dirty, so that a refresh only
+ * has to send the slots that have changed since the last refresh. Refreshes
+ * can be queued with {@link #queueRefresh(int)}, so that any amount of changes
+ * made during a cycle are sent with a single packet for each widget.
+ *
  * @author lare96
  */
 public class ItemContainer extends AbstractCollection<Item> {
 
+    /** The identifier stored in slots that do not have an item. */
+    private static final int EMPTY = -1;
+
     /** The maximum amount of items that can be put into this container. */
     private int capacity;
 
-    /** The array of items in this container. */
-    private Item[] items;
+    /** The identifiers of the items in this container. */
+    private int[] ids;
+
+    /** The amounts of the items in this container. */
+    private int[] amounts;
+
+    /** The amount of slots in this container that have an item. */
+    private int size;
+
+    /** The slots that have changed since this container was last refreshed. */
+    private BitSet dirty;
+
+    /** The widgets that are waiting to be refreshed. */
+    private int[] queuedWidgets = new int[2];
+
+    /** The amount of widgets that are waiting to be refreshed. */
+    private int queuedCount;
+
+    /** The widgets that were refreshed by the last flush. */
+    private int[] syncedWidgets = new int[2];
+
+    /** The amount of widgets that were refreshed by the last flush. */
+    private int syncedCount;
+
+    /** The amount of times the contents of this container have changed. */
+    private int modifications;
 
     /** The policy of this container */
     private Policy policy;
@@ -31,7 +74,7 @@ public class ItemContainer extends AbstractCollection<Item> {
     /**
      * A set of constants that define how items will be stacked in this
      * collection.
-     * 
+     *
      * @author lare96
      */
     public enum Policy {
@@ -42,7 +85,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Create a new {@link ItemContainer}.
-     * 
+     *
      * @param policy
      *            the policy of this container.
      * @param capacity
@@ -51,12 +94,15 @@ public class ItemContainer extends AbstractCollection<Item> {
     public ItemContainer(Policy policy, int capacity) {
         this.policy = policy;
         this.capacity = capacity;
-        this.items = new Item[capacity];
+        this.ids = new int[capacity];
+        this.amounts = new int[capacity];
+        this.dirty = new BitSet(capacity);
+        Arrays.fill(ids, EMPTY);
     }
 
     /**
      * Create a new {@link ItemContainer} with the argued collection.
-     * 
+     *
      * @param policy
      *            the policy of this container.
      * @param collection
@@ -69,7 +115,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Adds an item to the argued slot in this container.
-     * 
+     *
      * @param item
      *            the item to add to this container.
      * @param slot
@@ -79,55 +125,77 @@ public class ItemContainer extends AbstractCollection<Item> {
      *         the call, <code>false</code> otherwise.
      */
     public boolean add(Item item, int slot) {
-        if (item == null || item.getId() < 1 || item.getAmount() < 1 || item
-            .getAmount() > Integer.MAX_VALUE) {
+        if (item == null) {
             return false;
         }
+        return add(item.getId(), item.getAmount(), slot);
+    }
 
-        int newSlot = (slot > -1) ? slot : getFreeSlot();
-        if ((item.getDefinition().isStackable() || policy
-            .equals(Policy.STACK_ALWAYS)) && !policy.equals(Policy.STACK_NEVER)) {
-            if (totalAmount(item.getId()) > 0) {
-                newSlot = getSlot(item.getId());
-            }
-        }
-        if (newSlot == -1) {
+    /**
+     * Adds an amount of the argued item to the argued slot in this container.
+     * Items that do not stack are placed in as many free slots as are needed
+     * in a single pass over this container, or as many as there are if there
+     * are not enough.
+     *
+     * @param id
+     *            the identifier of the item to add.
+     * @param amount
+     *            the amount of the item to add.
+     * @param slot
+     *            the preferred slot to add this item in, -1 will add the item
+     *            in any free slot.
+     * @return <code>true</code> if the container was modified as a result of
+     *         the call, <code>false</code> otherwise.
+     */
+    public boolean add(int id, int amount, int slot) {
+        if (id < 1 || amount < 1) {
             return false;
         }
-        if (get(newSlot) != null) {
-            newSlot = getFreeSlot();
-        }
 
-        if (item.getDefinition().isStackable() || policy == Policy.STACK_ALWAYS && policy != Policy.STACK_NEVER) {
-            for (int i = 0; i < items.length; i++) {
-                if (items[i] != null && items[i].getId() == item.getId()) {
-                    set(i, new Item(items[i].getId(),
-                        items[i].getAmount() + item.getAmount()));
-                    return true;
+        if (stacks(id)) {
+            int existing = getSlot(id);
+
+            if (existing != -1) {
+                if ((long) amounts[existing] + amount > Integer.MAX_VALUE) {
+                    return false;
                 }
+                write(existing, id, amounts[existing] + amount);
+                return true;
             }
+            int newSlot = validSlot(slot) && ids[slot] == EMPTY ? slot
+                : getFreeSlot();
+
             if (newSlot == -1) {
                 return false;
             }
-            set(slot > -1 ? newSlot : getFreeSlot(), item);
+            write(newSlot, id, amount);
             return true;
         }
 
-        int remainingSlots = getRemainingSlots();
-        if (item.getAmount() > remainingSlots && !item.getDefinition()
-            .isStackable()) {
-            item.setAmount(remainingSlots);
+        int remaining = Math.min(amount, getRemainingSlots());
+
+        if (remaining == 0) {
+            return false;
         }
 
-        for (int i = 0; i < item.getAmount(); i++) {
-            set(slot > -1 ? newSlot : getFreeSlot(), new Item(item.getId(), 1));
+        // Place the first item in the preferred slot if it is free, then fill
+        // the free slots from the start of the container.
+        if (validSlot(slot) && ids[slot] == EMPTY) {
+            write(slot, id, 1);
+            remaining--;
+        }
+        for (int i = 0; i < capacity && remaining > 0; i++) {
+            if (ids[i] == EMPTY) {
+                write(i, id, 1);
+                remaining--;
+            }
         }
         return true;
     }
 
     /**
      * Removes the argued item from the argued slot in this container.
-     * 
+     *
      * @param item
      *            the item to remove from this container.
      * @param slot
@@ -137,48 +205,70 @@ public class ItemContainer extends AbstractCollection<Item> {
      *         the call, <code>false</code> otherwise.
      */
     public boolean remove(Item item, int slot) {
-        if (item == null || item.getId() < 1 || item.getAmount() < 1 || item
-            .getAmount() > Integer.MAX_VALUE) {
+        if (item == null) {
             return false;
         }
-        if ((item.getDefinition().isStackable() || policy
-            .equals(Policy.STACK_ALWAYS)) && !policy.equals(Policy.STACK_NEVER)) {
-            int slotHolder = getSlot(item.getId());
-            Item stack = get(slotHolder);
-            if (stack == null) {
+        return remove(item.getId(), item.getAmount(), slot);
+    }
+
+    /**
+     * Removes an amount of the argued item from the argued slot in this
+     * container. Items that do not stack are removed from as many slots as are
+     * needed in a single pass over this container.
+     *
+     * @param id
+     *            the identifier of the item to remove.
+     * @param amount
+     *            the amount of the item to remove.
+     * @param slot
+     *            the preferred slot to remove this item from, -1 will remove
+     *            the item from the first slot the item is found in.
+     * @return <code>true</code> if the container was modified as a result of
+     *         the call, <code>false</code> otherwise.
+     */
+    public boolean remove(int id, int amount, int slot) {
+        if (id < 1 || amount < 1) {
+            return false;
+        }
+        boolean preferred = validSlot(slot) && ids[slot] == id;
+
+        if (stacks(id)) {
+            int stack = preferred ? slot : getSlot(id);
+
+            if (stack == -1) {
                 return false;
             }
-            if (stack.getAmount() > item.getAmount()) {
-                set(slotHolder, new Item(stack.getId(),
-                    stack.getAmount() - item.getAmount()));
+            if (amounts[stack] > amount) {
+                write(stack, id, amounts[stack] - amount);
             } else {
-                set(slotHolder, null);
+                write(stack, EMPTY, 0);
             }
-        } else {
-            for (int i = 0; i < item.getAmount(); i++) {
-                int slotHolder = getSlot(item.getId());
-                if (i == 0 && slot != -1) {
-                    Item inSlot = get(slot);
-                    if (inSlot == null) {
-                        return false;
-                    }
-                    if (inSlot.getId() == item.getId()) {
-                        slotHolder = slot;
-                    }
-                }
-                if (slotHolder != -1) {
-                    set(slotHolder, null);
-                } else {
-                    break;
-                }
+            return true;
+        }
+
+        if (slot != -1 && (!validSlot(slot) || ids[slot] == EMPTY)) {
+            return false;
+        }
+        int remaining = amount;
+
+        // Remove the item in the preferred slot first, then the rest from the
+        // start of the container.
+        if (preferred) {
+            write(slot, EMPTY, 0);
+            remaining--;
+        }
+        for (int i = 0; i < capacity && remaining > 0; i++) {
+            if (ids[i] == id) {
+                write(i, EMPTY, 0);
+                remaining--;
             }
         }
-        return true;
+        return remaining < amount;
     }
 
     /**
      * Removes the argued item from this container.
-     * 
+     *
      * @param item
      *            the item to remove from this container.
      * @return <code>true</code> if the container was modified as a result of
@@ -190,52 +280,74 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Transfers an existing item in the argued slot to the argued new slot. If
-     * an item is present in the argued new slot, all of the items in this
-     * container will be shifted to accommodate for the transfer.
-     * 
+     * an item is present in the argued new slot, the items in between the two
+     * slots will be shifted up to the first free slot to accommodate for the
+     * transfer.
+     *
      * @param slot
      *            the slot the existing item is in.
      * @param newSlot
      *            the new slot to move the existing item to.
      */
     public void transfer(int slot, int newSlot) {
-        Item from = items[slot];
-        if (from == null) {
+        if (!validSlot(slot) || !validSlot(newSlot) || slot == newSlot
+            || ids[slot] == EMPTY) {
             return;
         }
-        items[slot] = null;
-        if (slot > newSlot) {
-            int shiftFrom = newSlot;
-            int shiftTo = slot;
-            for (int i = (newSlot + 1); i < slot; i++) {
-                if (items[i] == null) {
-                    shiftTo = i;
-                    break;
+        int id = ids[slot];
+        int amount = amounts[slot];
+        write(slot, EMPTY, 0);
+
+        if (ids[newSlot] != EMPTY) {
+
+            // Shift the items between the new slot and the closest free slot
+            // towards the free slot, which frees up the new slot.
+            int free = slot;
+
+            if (slot > newSlot) {
+                for (int i = newSlot + 1; i < slot; i++) {
+                    if (ids[i] == EMPTY) {
+                        free = i;
+                        break;
+                    }
                 }
-            }
-            Item[] slice = new Item[shiftTo - shiftFrom];
-            System.arraycopy(items, shiftFrom, slice, 0, slice.length);
-            System.arraycopy(slice, 0, items, shiftFrom + 1, slice.length);
-        } else {
-            int sliceStart = slot + 1;
-            int sliceEnd = newSlot;
-            for (int i = (sliceEnd - 1); i >= sliceStart; i--) {
-                if (items[i] == null) {
-                    sliceStart = i;
-                    break;
+                move(newSlot, newSlot + 1, free - newSlot);
+            } else {
+                for (int i = newSlot - 1; i > slot; i--) {
+                    if (ids[i] == EMPTY) {
+                        free = i;
+                        break;
+                    }
                 }
+                move(free + 1, free, newSlot - free);
             }
-            Item[] slice = new Item[sliceEnd - sliceStart + 1];
-            System.arraycopy(items, sliceStart, slice, 0, slice.length);
-            System.arraycopy(slice, 0, items, sliceStart - 1, slice.length);
+            size++;
+            dirty.set(Math.min(free, newSlot), Math.max(free, newSlot) + 1);
         }
-        items[newSlot] = from;
+        write(newSlot, id, amount);
+    }
+
+    /**
+     * Moves a range of slots within this container. The slots that the range
+     * is moved out of are left as they are.
+     *
+     * @param from
+     *            the first slot of the range.
+     * @param to
+     *            the slot to move the first slot of the range to.
+     * @param length
+     *            the amount of slots in the range.
+     */
+    private void move(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(amounts, from, amounts, to, length);
+        modifications++;
     }
 
     /**
      * Determines if there is enough space in this container to add the argued
      * item.
-     * 
+     *
      * @param item
      *            the item to determine if there is enough space in this
      *            container for.
@@ -243,27 +355,36 @@ public class ItemContainer extends AbstractCollection<Item> {
      *         <code>false</code> otherwise.
      */
     public boolean spaceFor(Item item) {
-        if (item.getDefinition().isStackable() || policy == Policy.STACK_ALWAYS && policy != Policy.STACK_NEVER) {
-            for (int i = 0; i < items.length; i++) {
-                if (items[i] != null && items[i].getId() == item.getId()) {
-                    int totalCount = item.getAmount() + items[i].getAmount();
-                    if (totalCount >= Integer.MAX_VALUE || totalCount < 1) {
-                        return false;
-                    }
-                    return true;
-                }
+        return spaceFor(item.getId(), item.getAmount());
+    }
+
+    /**
+     * Determines if there is enough space in this container to add the argued
+     * amount of an item.
+     *
+     * @param id
+     *            the identifier of the item.
+     * @param amount
+     *            the amount of the item.
+     * @return <code>true</code> if there is enough space to add the item,
+     *         <code>false</code> otherwise.
+     */
+    public boolean spaceFor(int id, int amount) {
+        if (stacks(id)) {
+            int slot = getSlot(id);
+
+            if (slot != -1) {
+                long total = (long) amounts[slot] + amount;
+                return total < Integer.MAX_VALUE && total > 0;
             }
-            int slot = getFreeSlot();
-            return slot != -1;
+            return size < capacity;
         }
-
-        int slots = getRemainingSlots();
-        return slots >= item.getAmount();
+        return getRemainingSlots() >= amount;
     }
 
     /**
      * Determines if this container has any items with the argued ID.
-     * 
+     *
      * @param id
      *            the ID to check this container for.
      * @return <code>true</code> if this container has at least one item with
@@ -275,7 +396,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Determines if this container has any items with all of the argued ID's.
-     * 
+     *
      * @param ids
      *            the ID's to check this container for.
      * @return <code>true</code> if this container has at least one item with
@@ -287,7 +408,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Determines if this container has any items with any of the argued ID's.
-     * 
+     *
      * @param ids
      *            the ID's to check this container for.
      * @return <code>true</code> if this container has at least one item with
@@ -299,7 +420,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Determines if this container has any items with all of the argued ID's.
-     * 
+     *
      * @param ids
      *            the ID's to check this container for.
      * @return <code>true</code> if this container has at least one item with
@@ -311,7 +432,7 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Determines if this container has any items with all of the argued ID's.
-     * 
+     *
      * @param ids
      *            the ID's to check this container for.
      * @return <code>true</code> if this container has at least one item with
@@ -323,19 +444,19 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /***
      * Determines if the argued slot does not have an item.
-     * 
+     *
      * @param slot
      *            the slot to determine is free or not.
      * @return <code>true</code> if the argued slot has no item,
      *         <code>false</code> otherwise.
      */
     public boolean isSlotFree(int slot) {
-        return items[slot] == null;
+        return ids[slot] == EMPTY;
     }
 
     /***
      * Determines if the argued slot has an item.
-     * 
+     *
      * @param slot
      *            the slot to determine is used or not.
      * @return <code>true</code> if the argued slot has an item,
@@ -348,21 +469,69 @@ public class ItemContainer extends AbstractCollection<Item> {
     /**
      * Places the argued item on the argued slot. This method does not take into
      * account the existing item on the argued slot.
-     * 
+     *
      * @param slot
      *            the slot to place the item in.
      * @param item
      *            the item to place.
      */
     public void set(int slot, Item item) {
-        items[slot] = item;
+        if (item == null) {
+            write(slot, EMPTY, 0);
+            return;
+        }
+        write(slot, item.getId(), item.getAmount());
+    }
+
+    /**
+     * Places an amount of the argued item on the argued slot. This method does
+     * not take into account the existing item on the argued slot.
+     *
+     * @param slot
+     *            the slot to place the item in.
+     * @param id
+     *            the identifier of the item to place.
+     * @param amount
+     *            the amount of the item to place.
+     */
+    public void set(int slot, int id, int amount) {
+        write(slot, id, amount);
+    }
+
+    /**
+     * Increments the amount of the item on the argued slot.
+     *
+     * @param slot
+     *            the slot of the item.
+     * @param amount
+     *            the amount to increment by.
+     */
+    public void incrementAmount(int slot, int amount) {
+        if (ids[slot] != EMPTY) {
+            write(slot, ids[slot], amounts[slot] + amount);
+        }
+    }
+
+    /**
+     * Decrements the amount of the item on the argued slot. The item is kept
+     * on the slot even if its amount reaches zero.
+     *
+     * @param slot
+     *            the slot of the item.
+     * @param amount
+     *            the amount to decrement by.
+     */
+    public void decrementAmount(int slot, int amount) {
+        if (ids[slot] != EMPTY) {
+            write(slot, ids[slot], Math.max(0, amounts[slot] - amount));
+        }
     }
 
     /**
      * Sets the backing array of items to the argued array of items. <b>The
      * backing array will not hold any references to the argued array when this
      * method completes.</b>
-     * 
+     *
      * @param items
      *            the new array of items to use as the backing array, the length
      *            of the array must be equal to the capacity of this container.
@@ -370,7 +539,7 @@ public class ItemContainer extends AbstractCollection<Item> {
     public void setItems(Item[] items) {
         clear();
         for (int i = 0; i < items.length; i++) {
-            this.items[i] = items[i] == null ? null : items[i].clone();
+            set(i, items[i]);
         }
     }
 
@@ -379,120 +548,227 @@ public class ItemContainer extends AbstractCollection<Item> {
      * <code>null</code> elements.
      */
     public void shift() {
-        Item[] previousItems = items;
-        items = new Item[capacity];
         int newIndex = 0;
-        for (int i = 0; i < items.length; i++) {
-            if (previousItems[i] != null) {
-                items[newIndex] = previousItems[i];
-                newIndex++;
+
+        for (int i = 0; i < capacity; i++) {
+            if (ids[i] == EMPTY) {
+                continue;
             }
+            if (i != newIndex) {
+                write(newIndex, ids[i], amounts[i]);
+                write(i, EMPTY, 0);
+            }
+            newIndex++;
         }
     }
 
     /**
      * Swaps the position of two different items.
-     * 
+     *
      * @param slot
      *            the slot that will be switched.
      * @param switchSlot
      *            the other slot that will be switched.
      */
     public void swap(int slot, int switchSlot) {
-        Item temp = get(slot);
-        set(slot, get(switchSlot));
-        set(switchSlot, temp);
+        if (!validSlot(slot) || !validSlot(switchSlot)) {
+            return;
+        }
+        int id = ids[slot];
+        int amount = amounts[slot];
+        write(slot, ids[switchSlot], amounts[switchSlot]);
+        write(switchSlot, id, amount);
     }
 
     /**
-     * Refreshes the contents of this container to the argued widget.
-     * 
+     * Refreshes the contents of this container to the argued widget right
+     * away, along with any other widgets that a refresh was queued for.
+     *
      * @param widget
      *            the widget to refresh the contents of this container on.
      */
     public void refresh(int widget, Player player) {
-        player.getPacketBuilder().sendUpdateItems(widget, toArray());
+        queueRefresh(widget);
+        flushRefresh(player);
+    }
+
+    /**
+     * Queues a refresh of the contents of this container to the argued
+     * widget, which will be sent on the next {@link #flushRefresh(Player)}.
+     * Queueing the same widget several times before it is flushed only sends
+     * it once.
+     *
+     * @param widget
+     *            the widget to refresh the contents of this container on.
+     */
+    public void queueRefresh(int widget) {
+        for (int i = 0; i < queuedCount; i++) {
+            if (queuedWidgets[i] == widget) {
+                return;
+            }
+        }
+        if (queuedCount == queuedWidgets.length) {
+            queuedWidgets = Arrays.copyOf(queuedWidgets, queuedCount * 2);
+        }
+        queuedWidgets[queuedCount++] = widget;
+    }
+
+    /**
+     * Sends the contents of this container to every widget that a refresh was
+     * queued for. Widgets that were also refreshed by the last flush only get
+     * the slots that have changed since, unless so many slots have changed
+     * that sending all of them is cheaper. Every other widget gets the entire
+     * container.
+     *
+     * @param player
+     *            the player to send the contents to.
+     */
+    public void flushRefresh(Player player) {
+        if (queuedCount > 0) {
+            flushRefresh(Collections.singleton(player));
+        }
+    }
+
+    /**
+     * Sends the contents of this container to every widget that a refresh was
+     * queued for, for each of the argued players. This is used for containers
+     * that several players are viewing at once, which must all have been sent
+     * the same contents beforehand.
+     *
+     * @param players
+     *            the players to send the contents to.
+     */
+    public void flushRefresh(Iterable<Player> players) {
+        if (queuedCount == 0) {
+            return;
+        }
+        int changed = dirty.cardinality();
+
+        for (int i = 0; i < queuedCount; i++) {
+            int widget = queuedWidgets[i];
+            boolean synced = false;
+
+            for (int j = 0; j < syncedCount; j++) {
+                if (syncedWidgets[j] == widget) {
+                    synced = true;
+                    break;
+                }
+            }
+
+            for (Player player : players) {
+                if (!synced || changed > capacity / 2) {
+                    player.getPacketBuilder().sendUpdateItems(widget, ids,
+                        amounts, capacity);
+                } else if (changed > 0) {
+                    player.getPacketBuilder().sendUpdateItemSlots(widget, ids,
+                        amounts, dirty);
+                }
+            }
+        }
+
+        // The widgets that were just refreshed are now the only ones that are
+        // in sync, since the changes are forgotten.
+        int[] swap = syncedWidgets;
+        syncedWidgets = queuedWidgets;
+        syncedCount = queuedCount;
+        queuedWidgets = swap;
+        queuedCount = 0;
+        dirty.clear();
     }
 
     /**
      * Gets the first item found in this container with the argued item ID.
-     * 
+     *
      * @param itemId
      *            the item ID to retrieve an item in this container with.
      * @return the first item found in this container with the argued item ID,
      *         or <code>null</code> if no item was found.
      */
     public Optional<Item> getItem(int itemId) {
-        return Arrays.stream(items).filter(
-            item -> item != null && itemId == item.getId()).findFirst();
+        return Optional.ofNullable(get(getSlot(itemId)));
     }
 
     /**
      * Gets the item ID of the item on the argued slot.
-     * 
+     *
      * @param slot
      *            the slot to get the item ID from.
-     * @return the item ID of the item on this slot, or will throw a
-     *         {@link NullPointerException} if no items are on this slot.
+     * @return the item ID of the item on this slot, or -1 if no items are on
+     *         this slot.
      */
     public int getItemId(int slot) {
-        if (items[slot] == null)
-            return -1;
+        return ids[slot];
+    }
 
-        return items[slot].getId();
+    /**
+     * Gets the amount of the item on the argued slot.
+     *
+     * @param slot
+     *            the slot to get the amount from.
+     * @return the amount of the item on this slot, or 0 if no items are on
+     *         this slot.
+     */
+    public int getAmount(int slot) {
+        return amounts[slot];
     }
 
     /**
-     * Gets the item on the argued slot.
-     * 
+     * Gets a snapshot of the item on the argued slot.
+     *
      * @param slot
      *            the slot to get the item from.
      * @return the item on the argued slot, or <code>null</code> if no item
      *         exists on this slot.
      */
     public Item get(int slot) {
-        if (slot == -1 || slot >= items.length)
+        if (!validSlot(slot) || ids[slot] == EMPTY)
             return null;
-        return items[slot];
+        return new Item(ids[slot], amounts[slot]);
     }
 
     /**
      * Gets the slot of the first item found with the argued item ID.
-     * 
+     *
      * @param itemId
      *            the item ID of the item to get the slot from.
      * @return the slot of the first item found, or -1 if it was not found.
      */
     public int getSlot(int itemId) {
-        for (int i = 0; i < items.length; i++) {
-            if (items[i] == null || items[i].getId() != itemId)
-                continue;
-            return i;
+        for (int i = 0; i < capacity; i++) {
+            if (ids[i] == itemId && itemId != EMPTY)
+                return i;
         }
         return -1;
     }
 
     /**
      * Gets the total amount of items with the argued item ID.
-     * 
+     *
      * @param itemId
      *            the item ID to get the total amount of.
      * @return the total amount of items with the argued item ID.
      */
     public int totalAmount(int itemId) {
-        return Arrays.stream(items).filter(
-            item -> item != null && item.getId() == itemId).mapToInt(
-            item -> item.getAmount()).sum();
+        int total = 0;
+
+        for (int i = 0; i < capacity; i++) {
+            if (ids[i] == itemId && itemId != EMPTY)
+                total += amounts[i];
+        }
+        return total;
     }
 
     /**
      * Gets an empty slot from this container.
-     * 
+     *
      * @return the empty slot, or -1 if this container is full.
      */
     public int getFreeSlot() {
-        for (int i = 0; i < items.length; i++) {
-            if (items[i] == null) {
+        if (size == capacity) {
+            return -1;
+        }
+        for (int i = 0; i < capacity; i++) {
+            if (ids[i] == EMPTY) {
                 return i;
             }
         }
@@ -501,22 +777,91 @@ public class ItemContainer extends AbstractCollection<Item> {
 
     /**
      * Gets the amount of free remaining slots in this container.
-     * 
+     *
      * @return the amount of free remaining slots in this container
      */
     public int getRemainingSlots() {
-        return capacity - size();
+        return capacity - size;
+    }
+
+    /**
+     * Gets the amount of times the contents of this container have changed.
+     * Comparing this with an earlier value shows if the contents have changed
+     * since then, without looking at any of the items.
+     *
+     * @return the amount of modifications.
+     */
+    public int getModifications() {
+        return modifications;
     }
 
     /**
      * Gets the capacity of the backing array.
-     * 
+     *
      * @return the capacity of the backing array.
      */
     public int capacity() {
         return capacity;
     }
 
+    /**
+     * Determines if items with the argued identifier stack in this container.
+     *
+     * @param id
+     *            the identifier of the item.
+     * @return <code>true</code> if the items stack, <code>false</code>
+     *         otherwise.
+     */
+    private boolean stacks(int id) {
+        if (policy == Policy.STACK_NEVER) {
+            return false;
+        }
+        return policy == Policy.STACK_ALWAYS || ItemDefinition
+            .getDefinitions()[id].isStackable();
+    }
+
+    /**
+     * Determines if the argued slot is within this container.
+     *
+     * @param slot
+     *            the slot to determine this for.
+     * @return <code>true</code> if the slot is within this container,
+     *         <code>false</code> otherwise.
+     */
+    private boolean validSlot(int slot) {
+        return slot > -1 && slot < capacity;
+    }
+
+    /**
+     * Writes the argued item to the argued slot, keeping the size up to date
+     * and marking the slot as dirty if it has changed.
+     *
+     * @param slot
+     *            the slot to write to.
+     * @param id
+     *            the identifier of the item, or -1 for no item.
+     * @param amount
+     *            the amount of the item.
+     */
+    private void write(int slot, int id, int amount) {
+        if (id < 0) {
+            id = EMPTY;
+            amount = 0;
+        }
+        if (ids[slot] == id && amounts[slot] == amount) {
+            return;
+        }
+        if (ids[slot] == EMPTY && id != EMPTY) {
+            size++;
+        } else if (ids[slot] != EMPTY && id == EMPTY) {
+            size--;
+        }
+        ids[slot] = id;
+        amounts[slot] = amount;
+        dirty.set(slot);
+        modifications++;
+    }
+
     @Override
     public boolean add(Item item) {
         return add(item, -1);
@@ -537,26 +882,35 @@ public class ItemContainer extends AbstractCollection<Item> {
         if (!(o instanceof Item))
             return false;
 
-        Item $item = (Item) o;
-        return Arrays.stream(items).filter(Objects::nonNull).anyMatch(
-            item -> item.getId() == $item.getId() && item.getAmount() >= $item
-                .getAmount());
+        Item item = (Item) o;
+
+        for (int i = 0; i < capacity; i++) {
+            if (ids[i] == item.getId() && amounts[i] >= item.getAmount())
+                return true;
+        }
+        return false;
     }
 
     @Override
     public void clear() {
-        items = new Item[capacity];
+        for (int i = 0; i < capacity; i++) {
+            write(i, EMPTY, 0);
+        }
     }
 
     @Override
     public int size() {
-        return Arrays.stream(items).filter(Objects::nonNull)
-            .mapToInt(item -> 1).sum();
+        return size;
     }
 
     @Override
     public Item[] toArray() {
-        return items.clone();
+        Item[] items = new Item[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            items[i] = get(i);
+        }
+        return items;
     }
 
     @Override
@@ -577,19 +931,16 @@ public class ItemContainer extends AbstractCollection<Item> {
 
             @Override
             public boolean hasNext() {
-                return currentIndex++ < items.length;
+                return currentIndex < capacity;
             }
 
             @Override
             public Item next() {
-                if (currentIndex >= items.length) {
-                    throw new ArrayIndexOutOfBoundsException(
+                if (currentIndex >= capacity) {
+                    throw new NoSuchElementException(
                         "Nothing left to iterate over!");
                 }
-
-                int i = currentIndex;
-                currentIndex++;
-                return items[lastElementIndex = i];
+                return get(lastElementIndex = currentIndex++);
             }
 
             @Override
@@ -599,9 +950,8 @@ public class ItemContainer extends AbstractCollection<Item> {
                         "Can only call 'remove()' once in call to 'next()'.");
                 }
 
-                ItemContainer.this.remove(items[lastElementIndex],
-                    lastElementIndex);
-                currentIndex = lastElementIndex;
+                ItemContainer.this.remove(ids[lastElementIndex],
+                    amounts[lastElementIndex], lastElementIndex);
                 lastElementIndex = -1;
             }
         };
@@ -610,7 +960,10 @@ public class ItemContainer extends AbstractCollection<Item> {
     @Override
     public ItemContainer clone() {
         ItemContainer c = new ItemContainer(policy, capacity);
-        c.items = items.clone();
+        c.ids = ids.clone();
+        c.amounts = amounts.clone();
+        c.size = size;
+        c.dirty.set(0, capacity);
         return c;
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import java.util.Collection;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.item.Item;
 import com.asteria.world.item.ItemContainer;
+import com.asteria.world.item.ItemDefinition;
 
 /**
  * An {@link ItemContainer} implementation that will manage items stored in a
@@ -34,13 +35,15 @@ public class BankContainer extends ItemContainer {
         player.getPacketBuilder().sendConfig(115, 0);
         player.getPacketBuilder().sendInventoryInterface(5292, 5063);
         refresh();
-        player.getPacketBuilder().sendUpdateItems(5064,
-            player.getInventory().toArray());
+        player.getInventory().queueRefresh(5064);
     }
 
-    /** Refreshes the contents of this container to the banking interface. */
+    /**
+     * Refreshes the contents of this container to the banking interface at the
+     * end of the cycle.
+     */
     public void refresh() {
-        refresh(5382, player);
+        queueRefresh(5382);
     }
 
     /**
@@ -56,19 +59,24 @@ public class BankContainer extends ItemContainer {
      *         the call, <code>false</code> otherwise.
      */
     public boolean depositFromInventory(int inventorySlot, int amount) {
-        Item item = new Item(player.getInventory().get(inventorySlot).getId(),
-            amount);
-        int count = player.getInventory().totalAmount(item.getId());
+        InventoryContainer inventory = player.getInventory();
+
+        if (inventorySlot < 0 || inventorySlot >= inventory.capacity() || inventory
+            .isSlotFree(inventorySlot)) {
+            return false;
+        }
+
+        int id = inventory.getItemId(inventorySlot);
+        int count = inventory.totalAmount(id);
 
-        if (item.getAmount() > count) {
-            item.setAmount(count);
+        if (amount > count) {
+            amount = count;
         }
 
-        if (deposit(item.clone())) {
-            player.getInventory().remove(item, inventorySlot);
+        if (deposit(id, amount)) {
+            inventory.remove(id, amount, inventorySlot);
             refresh();
-            player.getPacketBuilder().sendUpdateItems(5064,
-                player.getInventory().toArray());
+            inventory.queueRefresh(5064);
             return true;
         }
         return false;
@@ -84,25 +92,35 @@ public class BankContainer extends ItemContainer {
      *         the call, <code>false</code> otherwise.
      */
     public boolean deposit(Item item) {
-        item.setId(item.getDefinition().isNoted() ? item.getDefinition()
-            .getUnNotedId() : item.getId());
-        int slot = getFreeSlot();
-        boolean contains = contains(item.getId());
-
-        if (slot == -1 && !contains) {
-            player.getPacketBuilder().sendMessage(
-                "You don't have enough space to deposit this item!");
-            return false;
-        }
+        return deposit(item.getId(), item.getAmount());
+    }
 
-        int itemId = item.getDefinition().isNoted() ? item.getDefinition()
-            .getUnNotedId() : item.getId();
+    /**
+     * Deposits an amount of an item to the container, noted items are
+     * deposited as their unnoted counterparts.
+     * 
+     * @param id
+     *            the identifier of the item to deposit.
+     * @param amount
+     *            the amount of the item to deposit.
+     * @return <code>true</code> if the container was modified as a result of
+     *         the call, <code>false</code> otherwise.
+     */
+    public boolean deposit(int id, int amount) {
+        ItemDefinition definition = ItemDefinition.getDefinitions()[id];
+        int itemId = definition.isNoted() ? definition.getUnNotedId() : id;
+        int slot = getSlot(itemId);
 
-        if (!contains) {
-            return super.add(new Item(itemId, item.getAmount()), slot);
+        if (slot == -1) {
+            if (getFreeSlot() == -1) {
+                player.getPacketBuilder().sendMessage(
+                    "You don't have enough space to deposit this item!");
+                return false;
+            }
+            return super.add(itemId, amount, -1);
         }
 
-        get(getSlot(itemId)).incrementAmountBy(item.getAmount());
+        incrementAmount(slot, amount);
         return true;
     }
 
@@ -121,36 +139,35 @@ public class BankContainer extends ItemContainer {
      *         the call, <code>false</code> otherwise.
      */
     public boolean withdraw(int bankSlot, int amount, boolean addItem) {
-
-        Item item = new Item(get(bankSlot).getId(), amount);
-        boolean withdrawItemNoted = item.getDefinition().isNoteable();
-        int withdrawAmount = totalAmount(item.getId());
-
-        if (isSlotFree(bankSlot)) {
+        if (bankSlot < 0 || bankSlot >= capacity() || isSlotFree(bankSlot)) {
             return false;
         }
 
-        if (item.getAmount() > withdrawAmount) {
-            item.setAmount(withdrawAmount);
+        InventoryContainer inventory = player.getInventory();
+        int id = getItemId(bankSlot);
+        ItemDefinition definition = ItemDefinition.getDefinitions()[id];
+        boolean withdrawItemNoted = definition.isNoteable();
+        int withdrawAmount = totalAmount(id);
+
+        if (amount > withdrawAmount) {
+            amount = withdrawAmount;
         }
 
-        if (item.getAmount() > player.getInventory().getRemainingSlots() && !item
-            .getDefinition().isStackable() && !player.isWithdrawAsNote()) {
-            item.setAmount(player.getInventory().getRemainingSlots());
+        if (amount > inventory.getRemainingSlots() && !definition
+            .isStackable() && !player.isWithdrawAsNote()) {
+            amount = inventory.getRemainingSlots();
         }
 
-        if (!item.getDefinition().isStackable() && !item.getDefinition()
-            .isNoted() && !player.isWithdrawAsNote()) {
-            if (player.getInventory().getRemainingSlots() < item.getAmount()) {
+        if (!definition.isStackable() && !definition.isNoted() && !player
+            .isWithdrawAsNote()) {
+            if (inventory.getRemainingSlots() < amount) {
                 player.getPacketBuilder().sendMessage(
                     "You do not have enough space in your inventory!");
                 return false;
             }
         } else {
-            if (player.getInventory().getRemainingSlots() < 1 && !player
-                .getInventory().contains(
-                    !player.isWithdrawAsNote() ? item.getId()
-                        : item.getId() + 1)) {
+            if (inventory.getRemainingSlots() < 1 && !inventory
+                .contains(!player.isWithdrawAsNote() ? id : id + 1)) {
                 player.getPacketBuilder().sendMessage(
                     "You do not have enough space in your inventory!");
                 return false;
@@ -164,19 +181,14 @@ public class BankContainer extends ItemContainer {
             player.getPacketBuilder().sendConfig(115, 0);
         }
 
-        super.remove(item, bankSlot);
-
-        if (player.isWithdrawAsNote()) {
-            item.setId(item.getId() + 1);
-        }
+        super.remove(id, amount, bankSlot);
 
         if (addItem)
-            player.getInventory().add(item);
+            inventory.add(player.isWithdrawAsNote() ? id + 1 : id, amount, -1);
 
         shift();
         refresh();
-        player.getPacketBuilder().sendUpdateItems(5064,
-            player.getInventory().toArray());
+        inventory.queueRefresh(5064);
         return true;
     }
 
@@ -196,6 +208,16 @@ public class BankContainer extends ItemContainer {
         return withdraw(getSlot(item.getId()), item.getAmount(), addItem);
     }
 
+    /**
+     * This method is not supported by this container implementation. It will
+     * always throw an {@link UnsupportedOperationException}.
+     */
+    @Override
+    public final boolean add(int id, int amount, int slot) {
+        throw new UnsupportedOperationException(
+            "This method is not supported by this container implementation.");
+    }
+
     /**
      * This method is not supported by this container implementation. It will
      * always throw an {@link UnsupportedOperationException}.
@@ -226,6 +248,16 @@ public class BankContainer extends ItemContainer {
             "This method is not supported by this container implementation.");
     }
 
+    /**
+     * This method is not supported by this container implementation. It will
+     * always throw an {@link UnsupportedOperationException}.
+     */
+    @Override
+    public final boolean remove(int id, int amount, int slot) {
+        throw new UnsupportedOperationException(
+            "This method is not supported by this container implementation.");
+    }
+
     /**
      * This method is not supported by this container implementation. It will
      * always throw an {@link UnsupportedOperationException}.
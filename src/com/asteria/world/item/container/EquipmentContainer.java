@@ -37,9 +37,12 @@ public class EquipmentContainer extends ItemContainer {
         this.player = player;
     }
 
-    /** Refreshes the items displayed on the equipment interface. */
+    /**
+     * Refreshes the items displayed on the equipment interface at the end of
+     * the cycle.
+     */
     public void refresh() {
-        refresh(1688, player);
+        queueRefresh(1688);
     }
 
     /**
@@ -175,7 +178,7 @@ public class EquipmentContainer extends ItemContainer {
             return false;
         }
 
-        super.remove(item, equipmentSlot);
+        super.remove(item.getId(), item.getAmount(), equipmentSlot);
 
         if (addItem)
             player.getInventory().add(new Item(item.getId(), item.getAmount()));
@@ -216,6 +219,16 @@ public class EquipmentContainer extends ItemContainer {
         return unequipItem(slot, addItem);
     }
 
+    /**
+     * This method is not supported by this container implementation. It will
+     * always throw an {@link UnsupportedOperationException}.
+     */
+    @Override
+    public final boolean add(int id, int amount, int slot) {
+        throw new UnsupportedOperationException(
+            "This method is not supported by this container implementation.");
+    }
+
     /**
      * This method is not supported by this container implementation. It will
      * always throw an {@link UnsupportedOperationException}.
@@ -246,6 +259,16 @@ public class EquipmentContainer extends ItemContainer {
             "This method is not supported by this container implementation.");
     }
 
+    /**
+     * This method is not supported by this container implementation. It will
+     * always throw an {@link UnsupportedOperationException}.
+     */
+    @Override
+    public final boolean remove(int id, int amount, int slot) {
+        throw new UnsupportedOperationException(
+            "This method is not supported by this container implementation.");
+    }
+
     /**
      * This method is not supported by this container implementation. It will
      * always throw an {@link UnsupportedOperationException}.
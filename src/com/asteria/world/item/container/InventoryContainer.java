@@ -5,6 +5,7 @@ import java.util.Arrays;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.item.Item;
 import com.asteria.world.item.ItemContainer;
+import com.asteria.world.item.ItemDefinition;
 
 /**
  * An {@link ItemContainer} implementation that will manage items in a player's
@@ -48,18 +49,18 @@ public class InventoryContainer extends ItemContainer {
         Arrays.stream(items).forEach(item -> remove(item));
     }
 
-    /** Refreshes the contents of this container to the inventory. */
+    /**
+     * Refreshes the contents of this container to the inventory at the end of
+     * the cycle.
+     */
     public void refresh() {
-        refresh(3214, player);
+        queueRefresh(3214);
     }
 
     @Override
-    public boolean add(Item item, int slot) {
-        if (item == null) {
-            return false;
-        }
-
-        if (!contains(item.getId()) && !item.getDefinition().isStackable()) {
+    public boolean add(int id, int amount, int slot) {
+        if (!contains(id) && !ItemDefinition.getDefinitions()[id]
+            .isStackable()) {
             if (getFreeSlot() == -1) {
 
                 player.getPacketBuilder().sendMessage(
@@ -68,25 +69,15 @@ public class InventoryContainer extends ItemContainer {
             }
         }
 
-        boolean modified = super.add(item, slot);
+        boolean modified = super.add(id, amount, slot);
         refresh();
         return modified;
     }
 
     @Override
-    public boolean add(Item item) {
-        return add(item, -1);
-    }
-
-    @Override
-    public boolean remove(Item item, int slot) {
-        boolean modified = super.remove(item, slot);
+    public boolean remove(int id, int amount, int slot) {
+        boolean modified = super.remove(id, amount, slot);
         refresh();
         return modified;
     }
-
-    @Override
-    public boolean remove(Item item) {
-        return remove(item, -1);
-    }
-}
\ No newline at end of file
+}
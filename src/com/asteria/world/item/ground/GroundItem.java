@@ -1,6 +1,8 @@
 package com.asteria.world.item.ground;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import com.asteria.world.World;
 import com.asteria.world.entity.player.Player;
@@ -26,8 +28,15 @@ public class GroundItem {
     /** The current {@link ItemState} of this item. */
     private ItemState state;
 
-    /** The amount of ticks this item holds. */
-    protected int ticks;
+    /** The players who currently have the image of this item. */
+    final Set<Player> viewers = Collections
+        .newSetFromMap(new IdentityHashMap<>());
+
+    /** If this item is registered with the {@link GroundItemManager}. */
+    boolean registered;
+
+    /** The tick that the next processing event will be fired on. */
+    long processTick;
 
     /**
      * All of the possible states this item can be in.
@@ -66,64 +75,32 @@ public class GroundItem {
     /** An event fired when this ground item is unregistered. */
     protected final void fireOnUnregister() {
 
-        // Removes the ground item image based on the state of the item.
-        switch (state) {
-        case SEEN_BY_EVERYONE:
-            for (Player player : World.getPlayers()) {
-                if (player == null) {
-                    continue;
-                }
-
-                if (player.getPosition().withinDistance(getPosition(), 60)) {
-                    player.getPacketBuilder().sendRemoveGroundItem(this);
-                }
-            }
-            break;
-        case SEEN_BY_OWNER:
-            World.getPlayerByHash(player.getUsernameHash()).ifPresent(
-                p -> p.getPacketBuilder().sendRemoveGroundItem(this));
-            break;
-        default:
-            throw new IllegalStateException(
-                "Invalid ground item state: " + state.name());
-        }
+        // Removes the ground item image for everyone who can see it.
+        GroundItemManager.hideFromViewers(this);
     }
 
     /** An event fired upon registration of this item. */
     protected void fireOnRegister() {
 
         // Send the ground item image.
-        player.getPacketBuilder().sendGroundItem(this);
+        GroundItemManager.showToViewers(this);
     }
 
     /**
      * An event fired by the {@link GroundItemManager} every minute.
-     * 
-     * @param it
-     *            the iterator being used to iterate through the ground items.
      */
-    protected void fireOnProcess(Iterator<GroundItem> it) {
+    protected void fireOnProcess() {
 
         // After 1 minute show the item for everyone, and after two minutes
         // remove the item.
         switch (state) {
         case SEEN_BY_OWNER:
-            for (Player p : World.getPlayers()) {
-                if (p == null || p.equals(player)) {
-                    continue;
-                }
-
-                if (p.getPosition().withinDistance(getPosition(), 60)) {
-                    p.getPacketBuilder().sendGroundItem(
-                        new GroundItem(item, position, null));
-                }
-            }
             player = null;
             state = ItemState.SEEN_BY_EVERYONE;
+            GroundItemManager.showToViewers(this);
             break;
         case SEEN_BY_EVERYONE:
-            fireOnUnregister();
-            it.remove();
+            GroundItemManager.unregister(this);
             break;
         default:
             throw new IllegalStateException(
@@ -131,6 +108,26 @@ public class GroundItem {
         }
     }
 
+    /**
+     * Determines if the image of this item should be displayed for the argued
+     * player, based on the state of this item.
+     * 
+     * @param other
+     *            the player to determine this for.
+     * @return <code>true</code> if the player should see this item,
+     *         <code>false</code> otherwise.
+     */
+    public boolean isVisibleTo(Player other) {
+        switch (state) {
+        case SEEN_BY_EVERYONE:
+            return true;
+        case SEEN_BY_OWNER:
+            return player != null && player.equals(other);
+        default:
+            return false;
+        }
+    }
+
     /**
      * An event fired when this item is picked up.
      * 
@@ -146,7 +143,7 @@ public class GroundItem {
     public boolean equals(Object obj) {
         if (obj instanceof GroundItem) {
             GroundItem w = (GroundItem) obj;
-            if (w.item.equals(item) && w.position.equals(position) && w.state == state && w.ticks == ticks) {
+            if (w.item.equals(item) && w.position.equals(position) && w.state == state) {
                 return true;
             }
         }
@@ -155,7 +152,7 @@ public class GroundItem {
 
     @Override
     public String toString() {
-        return "GROUND ITEM[item= " + item + ", position= " + position + ", player= " + player + ", state= " + state + ", ticks= " + ticks + "]";
+        return "GROUND ITEM[item= " + item + ", position= " + position + ", player= " + player + ", state= " + state + "]";
     }
 
     /**
@@ -251,35 +248,19 @@ public class GroundItem {
         }
 
         @Override
-        protected void fireOnRegister() {
-
-            // Send the item image for everyone.
-            for (Player p : World.getPlayers()) {
-                if (p == null) {
-                    continue;
-                }
-
-                if (p.getPosition().withinDistance(getPosition(), 60)) {
-                    p.getPacketBuilder().sendGroundItem(this);
-                }
-            }
-        }
-
-        @Override
-        protected void fireOnProcess(Iterator<GroundItem> it) {
+        protected void fireOnProcess() {
 
             // Process the item based on its policy: either remove this item
             // from or add it back to the ground item database.
             switch (policy) {
             case REMOVE:
-                fireOnUnregister();
-                it.remove();
+                GroundItemManager.unregister(this);
                 break;
             case RESPAWN:
                 if (needsRespawn) {
-                    fireOnRegister();
                     needsRespawn = false;
                     super.state = ItemState.SEEN_BY_EVERYONE;
+                    fireOnRegister();
                 }
                 break;
             }
@@ -294,9 +275,9 @@ public class GroundItem {
                 GroundItemManager.unregister(this);
                 break;
             case RESPAWN:
-                fireOnUnregister();
                 needsRespawn = true;
                 super.state = ItemState.HIDDEN;
+                fireOnUnregister();
                 break;
             }
 
@@ -1,8 +1,15 @@
 package com.asteria.world.item.ground;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 
 import com.asteria.engine.task.Task;
 import com.asteria.util.JsonLoader;
@@ -16,8 +23,16 @@ import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 /**
- * Manages every single {@link GroundItem} registered to the
- * <code>itemList</code> database.
+ * Manages every single {@link GroundItem} registered in the world. Items are
+ * indexed by the 8x8 chunk and then the tile that they are on, so looking up
+ * the items on a tile or around a player only has to touch the chunks that
+ * are actually involved. Processing events are fired from an expiry queue
+ * ordered by the tick they are due on, so only the items that are due are
+ * touched every tick.
+ * <p>
+ * Every player keeps track of the ground items that its client currently has
+ * the image of, which allows the images to be updated by sending only the
+ * differences rather than removing and resending every item.
  * 
  * @author lare96
  */
@@ -27,44 +42,55 @@ public final class GroundItemManager extends Task implements
     /** How often processing events will be fired. */
     public static final int FIRE_PROCESSING_EVENTS = 100;
 
-    /** A database that holds every single registered {@link GroundItem}. */
-    private static final LinkedList<GroundItem> itemList = new LinkedList<>();
+    /** The size of the map area that the client has loaded in tiles. */
+    private static final int MAP_SIZE = 104;
+
+    /** The ground items mapped to the key of the chunk they are on. */
+    private static final Map<Integer, Chunk> chunks = new HashMap<>();
+
+    /** The processing events that are waiting to be fired, soonest first. */
+    private static final Queue<Expiry> expiries = new PriorityQueue<>(
+        Comparator.comparingLong(e -> e.tick));
+
+    /** The tick that this manager is currently on. */
+    private static long tick;
+
+    /** The amount of registered ground items. */
+    private static int size;
 
     /** Create a new {@link GroundItemManager}. */
     public GroundItemManager() {
-
-        // Every 10 ticks so not as stressful on the server, items may be off by
-        // a few ticks but it won't be noticeable at all so its fine.
-        super(10, true);
+        super(1, true);
     }
 
     @Override
     public void execute() {
+        tick++;
 
-        // Iterate through all of the ground items.
-        for (Iterator<GroundItem> it = itemList.listIterator(); it.hasNext();) {
-            GroundItem item = it.next();
+        // Fire the processing events that are due this tick.
+        while (!expiries.isEmpty() && expiries.peek().tick <= tick) {
+            Expiry expiry = expiries.poll();
+            GroundItem item = expiry.item;
 
-            // Skip all of the null values.
-            if (item == null) {
+            // Skip events for items that have since been unregistered or
+            // registered again.
+            if (!item.registered || item.processTick != expiry.tick) {
                 continue;
             }
+            item.fireOnProcess();
 
-            // Increment the ticks and fire the processing event.
-            item.ticks += 10;
-
-            // Fire the processing event for this item if enough time has
-            // passed.
-            if (item.ticks >= FIRE_PROCESSING_EVENTS) {
-                item.fireOnProcess(it);
-                item.ticks = 0;
+            // Queue the next event if the item is still registered.
+            if (item.registered) {
+                schedule(item);
             }
         }
     }
 
     @Override
     public Iterator<GroundItem> iterator() {
-        return itemList.iterator();
+        List<GroundItem> items = new ArrayList<>(size);
+        chunks.values().forEach(c -> c.addTo(items));
+        return items.iterator();
     }
 
     /**
@@ -75,11 +101,15 @@ public final class GroundItemManager extends Task implements
      */
     public static void register(GroundItem item) {
 
+        // Add the item to the database.
+        chunks.computeIfAbsent(key(item.getPosition()), k -> new Chunk()).add(
+            item);
+        item.registered = true;
+        size++;
+        schedule(item);
+
         // Fire the item's registration event.
         item.fireOnRegister();
-
-        // Add the item to the database.
-        itemList.add(item);
     }
 
     /**
@@ -94,28 +124,22 @@ public final class GroundItemManager extends Task implements
         // The item count holder.
         int count = 0;
 
-        // Iterate through the items to increment the count.
-        for (Iterator<GroundItem> iterator = itemList.iterator(); iterator
-            .hasNext();) {
-            GroundItem next = iterator.next();
-
-            if (next == null) {
-                continue;
-            }
+        // Iterate through the items on the same tile to increment the count.
+        List<GroundItem> tile = tile(item.getPosition());
 
-            if (next.getItem().getId() == item.getItem().getId() && next
-                .getPosition().equals(item.getPosition()) && next.getPlayer()
-                .equals(item.getPlayer())) {
-                count += next.getItem().getAmount();
-                next.fireOnUnregister();
-                iterator.remove();
+        if (tile != null) {
+            for (GroundItem next : new ArrayList<>(tile)) {
+                if (next.getItem().getId() == item.getItem().getId() && Objects
+                    .equals(next.getPlayer(), item.getPlayer())) {
+                    count += next.getItem().getAmount();
+                    unregister(next);
+                }
             }
         }
 
         // Then register the item.
         item.getItem().incrementAmountBy(count);
-        item.fireOnRegister();
-        itemList.add(item);
+        register(item);
     }
 
     /**
@@ -126,49 +150,165 @@ public final class GroundItemManager extends Task implements
      */
     public static void unregister(GroundItem item) {
 
-        // Fire the item's unregistration event if this list has the item.
-        if (itemList.remove(item)) {
-            item.fireOnUnregister();
+        // Fire the item's unregistration event if the database has the item.
+        if (!item.registered) {
+            return;
+        }
+        int key = key(item.getPosition());
+        Chunk chunk = chunks.get(key);
+        chunk.remove(item);
+
+        if (chunk.size == 0) {
+            chunks.remove(key);
         }
+        item.registered = false;
+        size--;
+        item.fireOnUnregister();
     }
 
     /**
      * Loads the images of {@link GroundItem}s for the argued player when they
-     * enter a new region.
+     * enter a new region. Only the differences between what the client
+     * already has and what it should have are sent.
      * 
      * @param player
      *            the player loading the new region.
      */
     public static void load(Player player) {
 
-        // Iterate through the ground items.
-        for (GroundItem item : itemList) {
-            if (item == null || item.getState() == ItemState.HIDDEN) {
-                continue;
+        // Forget the items the client has dropped along with the old map area,
+        // and remove the ones that should no longer be seen.
+        for (Iterator<GroundItem> it = player.getLocalGroundItems().iterator(); it
+            .hasNext();) {
+            GroundItem item = it.next();
+
+            if (!inMapArea(player, item.getPosition())) {
+                item.viewers.remove(player);
+                it.remove();
+            } else if (!item.registered || !item.isVisibleTo(player)) {
+                player.getPacketBuilder().sendRemoveGroundItem(item);
+                item.viewers.remove(player);
+                it.remove();
             }
+        }
 
-            // Remove the image of the ground item.
-            player.getPacketBuilder().sendRemoveGroundItem(item);
+        // Send the items in the chunks of the map area that the client does
+        // not have yet.
+        Position base = player.getCurrentRegion();
+        int chunkX = base.getRegionX();
+        int chunkY = base.getRegionY();
+        int z = player.getPosition().getZ();
 
-            // Check if we're even in the right distance.
-            if (item.getPosition().withinDistance(player.getPosition(), 60)) {
+        for (int x = chunkX; x < chunkX + (MAP_SIZE >> 3); x++) {
+            for (int y = chunkY; y < chunkY + (MAP_SIZE >> 3); y++) {
+                Chunk chunk = chunks.get(key(x, y, z));
 
-                // Send the image to the player if the item is seen by everyone.
-                if (item.getPlayer() == null && item.getState() == ItemState.SEEN_BY_EVERYONE) {
-                    player.getPacketBuilder().sendGroundItem(item);
+                if (chunk == null) {
                     continue;
                 }
-
-                // Send the image to player if the ground item belongs to the
-                // player.
-                if (item.getPlayer().equals(player) && item.getState() == ItemState.SEEN_BY_OWNER) {
-                    player.getPacketBuilder().sendGroundItem(item);
-                    continue;
+                for (List<GroundItem> tile : chunk.tiles) {
+                    if (tile == null) {
+                        continue;
+                    }
+                    for (GroundItem item : tile) {
+                        if (item.isVisibleTo(player) && !item.viewers
+                            .contains(player)) {
+                            show(player, item);
+                        }
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Forgets every ground item image that the argued player had, should be
+     * called when the player logs out.
+     * 
+     * @param player
+     *            the player logging out.
+     */
+    public static void unload(Player player) {
+        player.getLocalGroundItems().forEach(i -> i.viewers.remove(player));
+        player.getLocalGroundItems().clear();
+    }
+
+    /**
+     * Sends the image of the argued item to every player that should see it
+     * and does not have it yet.
+     * 
+     * @param item
+     *            the item to send the image of.
+     */
+    static void showToViewers(GroundItem item) {
+        for (Player player : World.getPlayers().getRegions().within(
+            item.getPosition(), MAP_SIZE)) {
+            if (item.isVisibleTo(player) && !item.viewers.contains(player)
+                && inMapArea(player, item.getPosition())) {
+                show(player, item);
+            }
+        }
+    }
+
+    /**
+     * Removes the image of the argued item for every player that has it.
+     * 
+     * @param item
+     *            the item to remove the image of.
+     */
+    static void hideFromViewers(GroundItem item) {
+        for (Player player : item.viewers) {
+            if (player.getPosition().getZ() == item.getPosition().getZ()) {
+                player.getPacketBuilder().sendRemoveGroundItem(item);
+            }
+            player.getLocalGroundItems().remove(item);
+        }
+        item.viewers.clear();
+    }
+
+    /**
+     * Sends the image of the argued item to the argued player.
+     * 
+     * @param player
+     *            the player to send the image to.
+     * @param item
+     *            the item to send the image of.
+     */
+    private static void show(Player player, GroundItem item) {
+        player.getPacketBuilder().sendGroundItem(item);
+        player.getLocalGroundItems().add(item);
+        item.viewers.add(player);
+    }
+
+    /**
+     * Determines if the argued position is within the map area that the
+     * argued player's client has loaded.
+     * 
+     * @param player
+     *            the player to determine this for.
+     * @param position
+     *            the position to determine this for.
+     * @return <code>true</code> if the position is within the map area,
+     *         <code>false</code> otherwise.
+     */
+    private static boolean inMapArea(Player player, Position position) {
+        int x = position.getX() - player.getCurrentRegion().getRegionX() * 8;
+        int y = position.getY() - player.getCurrentRegion().getRegionY() * 8;
+        return position.getZ() == player.getPosition().getZ() && x >= 0
+            && y >= 0 && x < MAP_SIZE && y < MAP_SIZE;
+    }
+
+    /**
+     * Queues the next processing event for the argued item.
+     * 
+     * @param item
+     *            the item to queue the event for.
+     */
+    private static void schedule(GroundItem item) {
+        item.processTick = tick + FIRE_PROCESSING_EVENTS;
+        expiries.add(new Expiry(item, item.processTick));
+    }
+
     /**
      * Gets the first occurrence of the argued item on the argued position.
      * 
@@ -180,19 +320,66 @@ public final class GroundItemManager extends Task implements
      *         not exist.
      */
     public static Optional<GroundItem> getItem(int id, Position position) {
-        for (GroundItem item : itemList) {
-            if (item == null || item.getState() == ItemState.HIDDEN) {
-                continue;
+        List<GroundItem> tile = tile(position);
 
-            }
-            if (item.getItem().getId() == id && item.getPosition().equals(
-                position)) {
+        if (tile == null) {
+            return Optional.empty();
+        }
+        for (GroundItem item : tile) {
+            if (item.getState() != ItemState.HIDDEN && item.getItem().getId() == id) {
                 return Optional.of(item);
             }
         }
         return Optional.empty();
     }
 
+    /**
+     * Gets the items on the tile of the argued position.
+     * 
+     * @param position
+     *            the position of the tile.
+     * @return the items on the tile, or <code>null</code> if there are none.
+     */
+    private static List<GroundItem> tile(Position position) {
+        Chunk chunk = chunks.get(key(position));
+        return chunk == null ? null : chunk.tiles[Chunk.index(position)];
+    }
+
+    /**
+     * Calculates the key of the chunk that the argued position is on.
+     * 
+     * @param position
+     *            the position to calculate the key for.
+     * @return the key of the chunk.
+     */
+    private static int key(Position position) {
+        return key(position.getX() >> 3, position.getY() >> 3, position.getZ());
+    }
+
+    /**
+     * Calculates the key of the argued chunk.
+     * 
+     * @param chunkX
+     *            the x coordinate of the chunk.
+     * @param chunkY
+     *            the y coordinate of the chunk.
+     * @param z
+     *            the height level of the chunk.
+     * @return the key of the chunk.
+     */
+    private static int key(int chunkX, int chunkY, int z) {
+        return z << 24 | (chunkX & 0xfff) << 12 | (chunkY & 0xfff);
+    }
+
+    /**
+     * Gets the amount of registered ground items.
+     * 
+     * @return the amount of ground items.
+     */
+    public static int getSize() {
+        return size;
+    }
+
     /**
      * Prepares the dynamic json loader for loading world items.
      * 
@@ -217,4 +404,111 @@ public final class GroundItemManager extends Task implements
             }
         };
     }
+
+    /**
+     * The ground items on a single 8x8 chunk, grouped by the tile they are on.
+     * 
+     * @author lare96
+     */
+    private static final class Chunk {
+
+        /** The items on every tile of this chunk, created when needed. */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private final List<GroundItem>[] tiles = new List[64];
+
+        /** The amount of items on this chunk. */
+        private int size;
+
+        /**
+         * Adds an item to this chunk.
+         * 
+         * @param item
+         *            the item to add.
+         */
+        public void add(GroundItem item) {
+            int index = index(item.getPosition());
+
+            if (tiles[index] == null) {
+                tiles[index] = new ArrayList<>(2);
+            }
+            tiles[index].add(item);
+            size++;
+        }
+
+        /**
+         * Removes an item from this chunk.
+         * 
+         * @param item
+         *            the item to remove.
+         */
+        public void remove(GroundItem item) {
+            int index = index(item.getPosition());
+            List<GroundItem> tile = tiles[index];
+
+            // Removed by identity, as equal items can be on the same tile.
+            for (int i = 0; i < tile.size(); i++) {
+                if (tile.get(i) == item) {
+                    tile.remove(i);
+                    size--;
+                    break;
+                }
+            }
+            if (tile.isEmpty()) {
+                tiles[index] = null;
+            }
+        }
+
+        /**
+         * Adds every item on this chunk to the argued list.
+         * 
+         * @param items
+         *            the list to add the items to.
+         */
+        public void addTo(List<GroundItem> items) {
+            for (List<GroundItem> tile : tiles) {
+                if (tile != null) {
+                    items.addAll(tile);
+                }
+            }
+        }
+
+        /**
+         * Calculates the index of the tile of the argued position within its
+         * chunk.
+         * 
+         * @param position
+         *            the position to calculate the index for.
+         * @return the index of the tile.
+         */
+        public static int index(Position position) {
+            return (position.getX() & 7) << 3 | (position.getY() & 7);
+        }
+    }
+
+    /**
+     * A processing event waiting in the expiry queue.
+     * 
+     * @author lare96
+     */
+    private static final class Expiry {
+
+        /** The item that the event will be fired for. */
+        private final GroundItem item;
+
+        /** The tick that the event is due on. */
+        private final long tick;
+
+        /**
+         * Create a new {@link Expiry}.
+         * 
+         * @param item
+         *            the item that the event will be fired for.
+         * @param tick
+         *            the tick that the event is due on.
+         */
+        public Expiry(GroundItem item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+    }
 }
@@ -0,0 +1,341 @@
+package com.asteria.world.map;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import com.asteria.world.World;
+import com.asteria.world.object.WorldObject;
+
+/**
+ * The collision flags of every tile in the {@link World}, used to determine
+ * where entities can walk. The flags of each tile are bit-packed into a single
+ * <code>short</code>, and the flags are stored per map region and height
+ * level, so regions without any collision have no flags allocated and every
+ * tile in them is walkable. The regions are kept in a table indexed by the
+ * key of the region, so finding the flags of a tile never allocates or hashes
+ * anything.
+ * <p>
+ * The flags are loaded on startup from <tt>./data/collision.dat</tt>, which is
+ * a gzipped file made up of a magic number and the amount of regions,
+ * followed by the region id, height level and the <tt>64x64</tt> flags of
+ * every region. Every {@link WorldObject} that is registered also flags the
+ * tile it is on, so walls and solid objects block movement even when the file
+ * does not exist.
+ * 
+ * @author lare96
+ */
+public final class CollisionMap {
+
+    /** The flag for a wall on the north side of a tile. */
+    public static final int WALL_NORTH = 0x1;
+
+    /** The flag for a wall on the east side of a tile. */
+    public static final int WALL_EAST = 0x2;
+
+    /** The flag for a wall on the south side of a tile. */
+    public static final int WALL_SOUTH = 0x4;
+
+    /** The flag for a wall on the west side of a tile. */
+    public static final int WALL_WEST = 0x8;
+
+    /** The flag for a tile that cannot be walked on at all. */
+    public static final int BLOCKED = 0x10;
+
+    /** The magic number at the start of the collision file. */
+    private static final int MAGIC = 0x434c4950;
+
+    /** The path to the collision file. */
+    private static final File FILE = new File("./data/collision.dat");
+
+    /** The wall flags for each rotation of a wall object. */
+    private static final int[] WALLS = { WALL_WEST, WALL_NORTH, WALL_EAST,
+            WALL_SOUTH };
+
+    /** The amount of tiles along each side of a region. */
+    private static final int REGION_SIZE = 64;
+
+    /** A logger for printing information. */
+    private static Logger logger = Logger.getLogger(CollisionMap.class
+        .getSimpleName());
+
+    /** The flags of every region, indexed by the key of the region. */
+    private static final short[][] regions = new short[4 << 16][];
+
+    /**
+     * Loads the collision flags from <tt>./data/collision.dat</tt>, if it
+     * exists.
+     * 
+     * @throws IOException
+     *             if any errors occur while reading the file.
+     */
+    public static void load() throws IOException {
+        if (!FILE.exists()) {
+            logger.warning("No collision file found, only world objects will "
+                + "block movement!");
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(
+            new BufferedInputStream(new FileInputStream(FILE))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Invalid collision file!");
+            }
+            int amount = in.readInt();
+
+            for (int i = 0; i < amount; i++) {
+                int region = in.readUnsignedShort();
+                int z = in.readUnsignedByte();
+                short[] flags = new short[REGION_SIZE * REGION_SIZE];
+
+                for (int j = 0; j < flags.length; j++) {
+                    flags[j] = in.readShort();
+                }
+                regions[key(region >> 8, region & 0xff, z)] = flags;
+            }
+            logger.info("Loaded collision flags for " + amount + " regions!");
+        }
+    }
+
+    /**
+     * Gets the collision flags of the argued tile.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @param z
+     *            the height level of the tile.
+     * @return the flags of the tile.
+     */
+    public static int getFlags(int x, int y, int z) {
+        short[] flags = regions[key(x >> 6, y >> 6, z)];
+        return flags == null ? 0 : flags[index(x, y)] & 0xffff;
+    }
+
+    /**
+     * Adds the argued flags to a tile.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @param z
+     *            the height level of the tile.
+     * @param flag
+     *            the flags to add.
+     */
+    public static void flag(int x, int y, int z, int flag) {
+        int key = key(x >> 6, y >> 6, z);
+
+        if (regions[key] == null) {
+            regions[key] = new short[REGION_SIZE * REGION_SIZE];
+        }
+        regions[key][index(x, y)] |= flag;
+    }
+
+    /**
+     * Removes the argued flags from a tile.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @param z
+     *            the height level of the tile.
+     * @param flag
+     *            the flags to remove.
+     */
+    public static void unflag(int x, int y, int z, int flag) {
+        short[] flags = regions[key(x >> 6, y >> 6, z)];
+
+        if (flags != null) {
+            flags[index(x, y)] &= ~flag;
+        }
+    }
+
+    /**
+     * Adds the collision flags of the argued object to the tile it is on.
+     * 
+     * @param object
+     *            the object to add the flags of.
+     */
+    public static void addObject(WorldObject object) {
+        int flag = flags(object);
+
+        if (flag != 0) {
+            flag(object.getPosition().getX(), object.getPosition().getY(),
+                object.getPosition().getZ(), flag);
+        }
+    }
+
+    /**
+     * Removes the collision flags of the argued object from the tile it is
+     * on.
+     * 
+     * @param object
+     *            the object to remove the flags of.
+     */
+    public static void removeObject(WorldObject object) {
+        int flag = flags(object);
+
+        if (flag != 0) {
+            unflag(object.getPosition().getX(), object.getPosition().getY(),
+                object.getPosition().getZ(), flag);
+        }
+    }
+
+    /**
+     * Determines the collision flags of the argued object from its type and
+     * rotation. The server has no object definitions, so every solid object
+     * is treated as a single blocked tile and objects that only block
+     * diagonal movement, such as wall corners, are not flagged.
+     * 
+     * @param object
+     *            the object to determine the flags of.
+     * @return the flags of the object.
+     */
+    private static int flags(WorldObject object) {
+        int rotation = object.getDirection().getId();
+
+        switch (object.getType()) {
+        case STRAIGHT_WALL:
+            return WALLS[rotation];
+        case ENTIRE_WALL:
+            return WALLS[rotation] | WALLS[(rotation + 1) & 3];
+        case DIAGONAL_WALL:
+        case DEFAULT:
+            return BLOCKED;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Determines if an entity of the argued size can take a single step in
+     * the argued direction.
+     * 
+     * @param x
+     *            the x coordinate of the south-west tile of the entity.
+     * @param y
+     *            the y coordinate of the south-west tile of the entity.
+     * @param z
+     *            the height level of the entity.
+     * @param dx
+     *            the change in x coordinate, either <tt>-1</tt>, <tt>0</tt> or
+     *            <tt>1</tt>.
+     * @param dy
+     *            the change in y coordinate, either <tt>-1</tt>, <tt>0</tt> or
+     *            <tt>1</tt>.
+     * @param size
+     *            the size of the entity.
+     * @return <code>true</code> if the step can be taken, <code>false</code>
+     *         otherwise.
+     */
+    public static boolean traversable(int x, int y, int z, int dx, int dy,
+        int size) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (!traversable(x + i, y + j, z, dx, dy)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines if a single tile can take a single step in the argued
+     * direction. Diagonal steps are only possible if both of the straight
+     * steps that make them up are possible.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @param z
+     *            the height level of the tile.
+     * @param dx
+     *            the change in x coordinate.
+     * @param dy
+     *            the change in y coordinate.
+     * @return <code>true</code> if the step can be taken, <code>false</code>
+     *         otherwise.
+     */
+    private static boolean traversable(int x, int y, int z, int dx, int dy) {
+        if (dx != 0 && dy != 0) {
+            return step(x, y, z, dx, 0) && step(x, y, z, 0, dy) && step(x
+                + dx, y, z, 0, dy) && step(x, y + dy, z, dx, 0);
+        }
+        return step(x, y, z, dx, dy);
+    }
+
+    /**
+     * Determines if a single tile can take a single straight step.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @param z
+     *            the height level of the tile.
+     * @param dx
+     *            the change in x coordinate.
+     * @param dy
+     *            the change in y coordinate.
+     * @return <code>true</code> if the step can be taken, <code>false</code>
+     *         otherwise.
+     */
+    private static boolean step(int x, int y, int z, int dx, int dy) {
+        int from = getFlags(x, y, z);
+        int to = getFlags(x + dx, y + dy, z);
+
+        if ((to & BLOCKED) != 0) {
+            return false;
+        }
+        if (dx > 0) {
+            return (from & WALL_EAST) == 0 && (to & WALL_WEST) == 0;
+        } else if (dx < 0) {
+            return (from & WALL_WEST) == 0 && (to & WALL_EAST) == 0;
+        } else if (dy > 0) {
+            return (from & WALL_NORTH) == 0 && (to & WALL_SOUTH) == 0;
+        } else if (dy < 0) {
+            return (from & WALL_SOUTH) == 0 && (to & WALL_NORTH) == 0;
+        }
+        return true;
+    }
+
+    /**
+     * Calculates the key of the argued region.
+     * 
+     * @param regionX
+     *            the x coordinate of the region.
+     * @param regionY
+     *            the y coordinate of the region.
+     * @param z
+     *            the height level of the region.
+     * @return the key of the region.
+     */
+    private static int key(int regionX, int regionY, int z) {
+        return (z & 3) << 16 | (regionX & 0xff) << 8 | (regionY & 0xff);
+    }
+
+    /**
+     * Calculates the index of the argued tile within its region.
+     * 
+     * @param x
+     *            the x coordinate of the tile.
+     * @param y
+     *            the y coordinate of the tile.
+     * @return the index of the tile.
+     */
+    private static int index(int x, int y) {
+        return (x & 63) << 6 | (y & 63);
+    }
+
+    private CollisionMap() {}
+}
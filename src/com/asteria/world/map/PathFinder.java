@@ -0,0 +1,230 @@
+package com.asteria.world.map;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.asteria.world.entity.Entity;
+
+/**
+ * Finds walkable paths through the {@link CollisionMap} for entities. A
+ * straight line towards the destination is tried first, and only if that runs
+ * into something is a breadth-first search done. Searches are bounded to a
+ * square of <code>SEARCH_RADIUS</code> tiles around the entity, and every
+ * search draws the tiles it visits from a budget that is refilled every
+ * cycle, so a burst of pathological searches can never take over a cycle.
+ * When the budget runs out, searches fail until the next cycle.
+ * <p>
+ * If the destination cannot be reached the path leads to the reachable tile
+ * that is closest to it. Searches may be done from several threads at once.
+ * 
+ * @author lare96
+ */
+public final class PathFinder {
+
+    /** How far away from the entity a search will look. */
+    public static final int SEARCH_RADIUS = 32;
+
+    /** The amount of tiles that can be visited by searches every cycle. */
+    public static final int NODES_PER_CYCLE = 50000;
+
+    /** The amount of tiles along each side of the search area. */
+    private static final int SEARCH_SIZE = SEARCH_RADIUS * 2 + 1;
+
+    /** The order that directions are searched in, straight steps first. */
+    private static final int[] DELTA_X = { -1, 1, 0, 0, -1, 1, -1, 1 };
+
+    /** The order that directions are searched in, straight steps first. */
+    private static final int[] DELTA_Y = { 0, 0, -1, 1, -1, -1, 1, 1 };
+
+    /** The amount of tiles that can still be visited this cycle. */
+    private static final AtomicInteger budget = new AtomicInteger(
+        NODES_PER_CYCLE);
+
+    /** The working memory of the searches done on each thread. */
+    private static final ThreadLocal<Search> searches = ThreadLocal
+        .withInitial(Search::new);
+
+    /** Refills the budget for searches, called once every cycle. */
+    public static void resetBudget() {
+        budget.set(NODES_PER_CYCLE);
+    }
+
+    /**
+     * Finds a path from the argued entity to the argued destination.
+     * 
+     * @param entity
+     *            the entity to find the path for.
+     * @param destination
+     *            the destination of the path.
+     * @return the positions of every step in the path in order, or
+     *         <code>null</code> if the budget for this cycle has run out.
+     */
+    public static Deque<Position> find(Entity entity, Position destination) {
+        Position start = entity.getPosition();
+        int size = entity.size();
+
+        // Try walking straight towards the destination first.
+        Deque<Position> path = new ArrayDeque<>();
+        int x = start.getX();
+        int y = start.getY();
+        int z = start.getZ();
+
+        while (x != destination.getX() || y != destination.getY()) {
+            int dx = Integer.signum(destination.getX() - x);
+            int dy = Integer.signum(destination.getY() - y);
+
+            if (!CollisionMap.traversable(x, y, z, dx, dy, size)) {
+                break;
+            }
+            x += dx;
+            y += dy;
+            path.add(new Position(x, y, z));
+        }
+        if (x == destination.getX() && y == destination.getY()) {
+            return path;
+        }
+
+        // Reserve the most that the search could use from the budget.
+        int area = SEARCH_SIZE * SEARCH_SIZE;
+
+        if (budget.addAndGet(-area) < 0) {
+            budget.addAndGet(area);
+            return null;
+        }
+        Search search = searches.get();
+        int visited = search.find(start, destination, size);
+        budget.addAndGet(area - visited);
+        return search.path;
+    }
+
+    /**
+     * The working memory of a breadth-first search, reused between searches
+     * on the same thread.
+     * 
+     * @author lare96
+     */
+    private static final class Search {
+
+        /** The direction taken to reach every tile in the search area. */
+        private final byte[] via = new byte[SEARCH_SIZE * SEARCH_SIZE];
+
+        /** The search that last visited every tile in the search area. */
+        private final int[] stamps = new int[SEARCH_SIZE * SEARCH_SIZE];
+
+        /** The tiles waiting to be visited. */
+        private final int[] queue = new int[SEARCH_SIZE * SEARCH_SIZE];
+
+        /** The identifier of the current search. */
+        private int stamp;
+
+        /** The path found by the last search. */
+        private Deque<Position> path;
+
+        /**
+         * Searches for a path and stores it in {@link #path}.
+         * 
+         * @param start
+         *            the position the path starts from.
+         * @param destination
+         *            the destination of the path.
+         * @param size
+         *            the size of the entity walking the path.
+         * @return the amount of tiles visited.
+         */
+        public int find(Position start, Position destination, int size) {
+            stamp++;
+            int baseX = start.getX() - SEARCH_RADIUS;
+            int baseY = start.getY() - SEARCH_RADIUS;
+            int z = start.getZ();
+            int targetX = destination.getX() - baseX;
+            int targetY = destination.getY() - baseY;
+            int head = 0;
+            int tail = 0;
+
+            int origin = index(SEARCH_RADIUS, SEARCH_RADIUS);
+            stamps[origin] = stamp;
+            queue[tail++] = origin;
+            int best = origin;
+            int bestDistance = distance(SEARCH_RADIUS, SEARCH_RADIUS, targetX,
+                targetY);
+
+            while (head < tail && bestDistance > 0) {
+                int current = queue[head++];
+                int x = current / SEARCH_SIZE;
+                int y = current % SEARCH_SIZE;
+
+                for (int i = 0; i < DELTA_X.length; i++) {
+                    int nextX = x + DELTA_X[i];
+                    int nextY = y + DELTA_Y[i];
+
+                    if (nextX < 0 || nextY < 0 || nextX >= SEARCH_SIZE
+                        || nextY >= SEARCH_SIZE) {
+                        continue;
+                    }
+                    int next = index(nextX, nextY);
+
+                    if (stamps[next] == stamp || !CollisionMap.traversable(
+                        baseX + x, baseY + y, z, DELTA_X[i], DELTA_Y[i], size)) {
+                        continue;
+                    }
+                    stamps[next] = stamp;
+                    via[next] = (byte) i;
+                    queue[tail++] = next;
+
+                    // Keep track of the tile closest to the destination.
+                    int distance = distance(nextX, nextY, targetX, targetY);
+
+                    if (distance < bestDistance) {
+                        best = next;
+                        bestDistance = distance;
+                    }
+                }
+            }
+
+            // Walk back from the closest tile to build the path.
+            path = new ArrayDeque<>();
+
+            for (int current = best; current != origin;) {
+                int x = current / SEARCH_SIZE;
+                int y = current % SEARCH_SIZE;
+                path.addFirst(new Position(baseX + x, baseY + y, z));
+                current = index(x - DELTA_X[via[current]], y
+                    - DELTA_Y[via[current]]);
+            }
+            return head;
+        }
+
+        /**
+         * Calculates the index of a tile within the search area.
+         * 
+         * @param x
+         *            the x coordinate within the search area.
+         * @param y
+         *            the y coordinate within the search area.
+         * @return the index of the tile.
+         */
+        private static int index(int x, int y) {
+            return x * SEARCH_SIZE + y;
+        }
+
+        /**
+         * Calculates the distance in steps between two tiles.
+         * 
+         * @param x
+         *            the x coordinate of the first tile.
+         * @param y
+         *            the y coordinate of the first tile.
+         * @param otherX
+         *            the x coordinate of the second tile.
+         * @param otherY
+         *            the y coordinate of the second tile.
+         * @return the distance between the tiles.
+         */
+        private static int distance(int x, int y, int otherX, int otherY) {
+            return Math.max(Math.abs(x - otherX), Math.abs(y - otherY));
+        }
+    }
+
+    private PathFinder() {}
+}
@@ -1,27 +1,41 @@
 package com.asteria.world.object;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Set;
 
 import com.asteria.util.JsonLoader;
 import com.asteria.world.World;
 import com.asteria.world.entity.player.Player;
+import com.asteria.world.map.CollisionMap;
 import com.asteria.world.map.Position;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
 /**
- * Manages every single {@link WorldObject} registered to the
- * <code>objectSet</code> database.
+ * Manages every single {@link WorldObject} registered in the world. Objects
+ * are stored by the tile they are on and indexed by the region that tile is
+ * in, so looking up the object on a tile is a single map lookup and loading
+ * the objects around a player only touches the regions that the client has
+ * loaded.
+ * <p>
+ * Every player keeps track of the objects that its client currently has, so
+ * when a new region is loaded only the objects that have changed are sent.
  * 
  * @author lare96
  */
 public class WorldObjectManager implements Iterable<WorldObject> {
 
-    /** A set to keep track of all of the objects in the game. */
-    private static final Set<WorldObject> objectSet = new HashSet<>();
+    /** The size of the map area that the client has loaded in tiles. */
+    private static final int MAP_SIZE = 104;
+
+    /** Every object in the game mapped to the key of the tile it is on. */
+    private static final Map<Integer, WorldObject> objects = new HashMap<>();
+
+    /** The objects in every region mapped to the key of the region. */
+    private static final Map<Integer, Map<Integer, WorldObject>> regions = new HashMap<>();
 
     /**
      * Registers a new {@link WorldObject} to the database.
@@ -31,27 +45,17 @@ public class WorldObjectManager implements Iterable<WorldObject> {
      */
     public static void register(WorldObject object) {
 
-        // Check if an object is already on this position and if so it removes
-        // the object from the database before spawning the new one over it.
-        for (Iterator<WorldObject> iter = objectSet.iterator(); iter.hasNext();) {
-            WorldObject next = iter.next();
-
-            if (next.getPosition().equals(object.getPosition())) {
-                iter.remove();
-            }
-        }
-
-        // Register object for future players.
-        objectSet.add(object);
+        // Spawn the new object over any object already on this position.
+        add(object);
 
         // Add object for existing players in the region.
-        for (Player player : World.getPlayers()) {
-            if (player == null) {
-                continue;
-            }
+        int key = key(object.getPosition());
 
-            if (player.getPosition().withinDistance(object.getPosition(), 60)) {
+        for (Player player : World.getPlayers().getRegions().within(
+            object.getPosition(), MAP_SIZE)) {
+            if (inMapArea(player, object.getPosition())) {
                 player.getPacketBuilder().sendObject(object);
+                player.getLocalObjects().put(key, object);
             }
         }
     }
@@ -63,13 +67,29 @@ public class WorldObjectManager implements Iterable<WorldObject> {
      *            the existing object to unregister.
      */
     public static void unregister(WorldObject registerable) {
+        int key = key(registerable.getPosition());
+        WorldObject object = objects.get(key);
 
         // Remove the object from the database.
-        if (objectSet.remove(registerable)) {
+        if (object == null || !object.equals(registerable)) {
+            return;
+        }
+        objects.remove(key);
+        CollisionMap.removeObject(object);
+        Map<Integer, WorldObject> region = regions.get(regionKey(object
+            .getPosition()));
+        region.remove(key);
+
+        if (region.isEmpty()) {
+            regions.remove(regionKey(object.getPosition()));
+        }
 
-            // Remove object for all existing players.
-            World.getPlayers().forEach(
-                p -> p.getPacketBuilder().sendRemoveObject(registerable));
+        // Remove object for all existing players that have it.
+        for (Player player : World.getPlayers().getRegions().within(
+            object.getPosition(), MAP_SIZE)) {
+            if (player.getLocalObjects().remove(key, object)) {
+                player.getPacketBuilder().sendRemoveObject(object);
+            }
         }
     }
 
@@ -81,8 +101,7 @@ public class WorldObjectManager implements Iterable<WorldObject> {
      * @return the object on the position.
      */
     public static Optional<WorldObject> getObjectOnPosition(Position position) {
-        return objectSet.stream().filter(o -> position.equals(o.getPosition()))
-            .findFirst();
+        return Optional.ofNullable(objects.get(key(position)));
     }
 
     /**
@@ -97,37 +116,142 @@ public class WorldObjectManager implements Iterable<WorldObject> {
      *         this position, <code>false</code> otherwise.
      */
     public static boolean valid(int objectId, Position position) {
-        return objectSet.stream().filter(
-            o -> position.equals(o.getPosition()) && o.getId() == objectId)
-            .findFirst().isPresent();
+        WorldObject object = objects.get(key(position));
+        return object != null && object.getId() == objectId;
     }
 
     /**
      * Loads the images of {@link WorldObject}s for the argued player when they
-     * enter a new region.
+     * enter a new region. Only the objects that differ from what the client
+     * already has are sent.
      * 
      * @param player
      *            the player loading the new region.
      */
     public static void load(Player player) {
+        Map<Integer, WorldObject> local = player.getLocalObjects();
+
+        // Forget the objects the client has dropped along with the old map
+        // area, and remove the ones that no longer exist.
+        for (Iterator<Entry<Integer, WorldObject>> it = local.entrySet()
+            .iterator(); it.hasNext();) {
+            Entry<Integer, WorldObject> entry = it.next();
+            WorldObject object = entry.getValue();
 
-        // Update existing objects for player in region.
-        for (WorldObject object : objectSet) {
-            if (object == null) {
-                continue;
+            if (!inMapArea(player, object.getPosition())) {
+                it.remove();
+            } else if (objects.get(entry.getKey()) == null) {
+                player.getPacketBuilder().sendRemoveObject(object);
+                it.remove();
             }
+        }
 
-            player.getPacketBuilder().sendRemoveObject(object);
+        // Send the objects in the map area that the client does not have.
+        Position base = player.getCurrentRegion();
+        int baseX = base.getRegionX() * 8;
+        int baseY = base.getRegionY() * 8;
+        int z = player.getPosition().getZ();
 
-            if (object.getPosition().withinDistance(player.getPosition(), 60)) {
-                player.getPacketBuilder().sendObject(object);
+        for (int x = baseX >> 6; x <= baseX + MAP_SIZE - 1 >> 6; x++) {
+            for (int y = baseY >> 6; y <= baseY + MAP_SIZE - 1 >> 6; y++) {
+                Map<Integer, WorldObject> region = regions.get(regionKey(x, y,
+                    z));
+
+                if (region == null) {
+                    continue;
+                }
+                for (Entry<Integer, WorldObject> entry : region.entrySet()) {
+                    WorldObject object = entry.getValue();
+
+                    if (local.get(entry.getKey()) != object && inMapArea(
+                        player, object.getPosition())) {
+                        player.getPacketBuilder().sendObject(object);
+                        local.put(entry.getKey(), object);
+                    }
+                }
             }
         }
     }
 
     @Override
     public Iterator<WorldObject> iterator() {
-        return objectSet.iterator();
+        return objects.values().iterator();
+    }
+
+    /**
+     * Adds the argued object to the database and flags it on the collision
+     * map, replacing any object already on the same position.
+     * 
+     * @param object
+     *            the object to add.
+     */
+    private static void add(WorldObject object) {
+        int key = key(object.getPosition());
+        WorldObject previous = objects.put(key, object);
+
+        if (previous != null) {
+            CollisionMap.removeObject(previous);
+        }
+        CollisionMap.addObject(object);
+        regions.computeIfAbsent(regionKey(object.getPosition()),
+            k -> new HashMap<>()).put(key, object);
+    }
+
+    /**
+     * Determines if the argued position is within the map area that the
+     * argued player's client has loaded.
+     * 
+     * @param player
+     *            the player to determine this for.
+     * @param position
+     *            the position to determine this for.
+     * @return <code>true</code> if the position is within the map area,
+     *         <code>false</code> otherwise.
+     */
+    private static boolean inMapArea(Player player, Position position) {
+        int x = position.getX() - player.getCurrentRegion().getRegionX() * 8;
+        int y = position.getY() - player.getCurrentRegion().getRegionY() * 8;
+        return position.getZ() == player.getPosition().getZ() && x >= 0
+            && y >= 0 && x < MAP_SIZE && y < MAP_SIZE;
+    }
+
+    /**
+     * Packs the coordinates of the argued position into the key of its tile.
+     * 
+     * @param position
+     *            the position to calculate the key for.
+     * @return the key of the tile.
+     */
+    private static int key(Position position) {
+        return (position.getZ() & 3) << 28 | (position.getX() & 0x3fff) << 14
+            | (position.getY() & 0x3fff);
+    }
+
+    /**
+     * Calculates the key of the region that the argued position is in.
+     * 
+     * @param position
+     *            the position to calculate the key for.
+     * @return the key of the region.
+     */
+    private static int regionKey(Position position) {
+        return regionKey(position.getX() >> 6, position.getY() >> 6, position
+            .getZ());
+    }
+
+    /**
+     * Calculates the key of the argued region.
+     * 
+     * @param regionX
+     *            the x coordinate of the region.
+     * @param regionY
+     *            the y coordinate of the region.
+     * @param z
+     *            the height level of the region.
+     * @return the key of the region.
+     */
+    private static int regionKey(int regionX, int regionY, int z) {
+        return z << 16 | (regionX & 0xff) << 8 | (regionY & 0xff);
     }
 
     /**
@@ -157,7 +281,7 @@ public class WorldObjectManager implements Iterable<WorldObject> {
                         "Invalid object type! for [id: " + id + " - " + position + "");
                 }
 
-                objectSet.add(new WorldObject(id, position, face, type));
+                add(new WorldObject(id, position, face, type));
             }
 
             @Override
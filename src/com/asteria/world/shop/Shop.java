@@ -1,14 +1,16 @@
 package com.asteria.world.shop;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import com.asteria.engine.task.Task;
 import com.asteria.engine.task.TaskManager;
 import com.asteria.util.JsonLoader;
-import com.asteria.world.World;
 import com.asteria.world.entity.player.Player;
 import com.asteria.world.item.Item;
 import com.asteria.world.item.ItemContainer;
@@ -19,14 +21,16 @@ import com.google.gson.JsonObject;
 
 /**
  * A shop from which any {@link Player} may buy items.
+ * <p>
+ * Every shop keeps track of the players that currently have it open. Changes
+ * to the stock are not sent right away, instead all of the changes made
+ * during a cycle are sent to those players at once by
+ * {@link #flushUpdates()}, and only for the slots that changed.
  * 
  * @author lare96
  */
 public class Shop {
 
-    // TODO: Set of players currently viewing the shop to avoid looping through
-    // everyone online.
-
     /** Items that are not allowed to be in a shop. */
     public static final int[] NO_SHOP_ITEMS = { 995 };
 
@@ -58,6 +62,10 @@ public class Shop {
     /** A {@link Task} that will re-stock this shop. */
     private Task processor;
 
+    /** The players that currently have this shop open. */
+    private final Set<Player> viewers = Collections
+        .newSetFromMap(new IdentityHashMap<>());
+
     /**
      * Create a new {@link Shop}.
      * 
@@ -94,11 +102,13 @@ public class Shop {
      *            the player to open the shop for.
      */
     public void openShop(Player player) {
+        closeShop(player);
         player.getPacketBuilder().sendUpdateItems(3823,
             player.getInventory().toArray());
         player.getPacketBuilder().sendUpdateItems(3900, container.toArray(),
             container.size());
         player.setOpenShopId(index);
+        viewers.add(player);
         player.getPacketBuilder().sendInventoryInterface(3824, 3822);
         player.getPacketBuilder().sendString(name, 3901);
     }
@@ -172,8 +182,8 @@ public class Shop {
             .isStackable()) {
 
             if (shopMap.containsKey(item.getId())) {
-                container.getItem(item.getId()).ifPresent(
-                    i -> i.decrementAmountBy(item.getAmount()));
+                container.decrementAmount(container.getSlot(item.getId()),
+                    item.getAmount());
             } else if (!shopMap.containsKey(item.getId())) {
                 container.remove(item);
             }
@@ -202,17 +212,7 @@ public class Shop {
             player.getInventory().toArray());
 
         // Update the shop for anyone who has it open.
-        int size = container.size();
-        for (Player p : World.getPlayers()) {
-            if (p == null) {
-                continue;
-            }
-
-            if (p.getOpenShopId() == index) {
-                p.getPacketBuilder().sendUpdateItems(3900, container.toArray(),
-                    size);
-            }
-        }
+        container.queueRefresh(3900);
 
         // Check if this shop needs to be restocked and do so if needed.
         fireRestock();
@@ -306,8 +306,8 @@ public class Shop {
         // Add on to the item if its in the shop already or add it to a whole
         // new slot if its not.
         if (container.contains(item.getId())) {
-            container.getItem(item.getId()).ifPresent(
-                i -> i.incrementAmountBy(item.getAmount()));
+            container.incrementAmount(container.getSlot(item.getId()),
+                item.getAmount());
         } else if (!container.contains(item.getId())) {
             container.add(item);
         }
@@ -317,17 +317,7 @@ public class Shop {
             player.getInventory().toArray());
 
         // Update the shop for anyone who has it open.
-        int size = container.size();
-        for (Player p : World.getPlayers()) {
-            if (p == null) {
-                continue;
-            }
-
-            if (p.getOpenShopId() == index) {
-                p.getPacketBuilder().sendUpdateItems(3900, container.toArray(),
-                    size);
-            }
-        }
+        container.queueRefresh(3900);
     }
 
     /**
@@ -414,11 +404,40 @@ public class Shop {
             .getDefinition().getSpecialStorePrice() / 2)));
     }
 
+    /**
+     * Closes the shop that the argued {@link Player} has open, if they have
+     * one open.
+     * 
+     * @param player
+     *            the player to close the shop for.
+     */
+    public static void closeShop(Player player) {
+        int id = player.getOpenShopId();
+
+        if (id >= 0 && id < shops.length && shops[id] != null) {
+            shops[id].viewers.remove(player);
+        }
+        player.setOpenShopId(-1);
+    }
+
+    /**
+     * Sends the changes made to the stock of every shop this cycle to the
+     * players that have it open. This should only ever be called on the game
+     * thread.
+     */
+    public static void flushUpdates() {
+        for (Shop shop : shops) {
+            if (shop != null) {
+                shop.container.flushRefresh(shop.viewers);
+            }
+        }
+    }
+
     /** Submits a {@link Task} to re-stock this shop if needed. */
     private void fireRestock() {
 
         // If this shop does not need re-stocking then return.
-        if (!needRestockFire() || !restockItems) {
+        if (!restockItems || isFullyRestocked()) {
             return;
         }
 
@@ -433,27 +452,6 @@ public class Shop {
         TaskManager.submit(processor);
     }
 
-    /**
-     * Determines if this shops needs to re-stock its {@link Item}s.
-     * 
-     * @return <code>true</code> if it needs to re-stock, <code>false</code>
-     *         otherwise.
-     */
-    private boolean needRestockFire() {
-        for (Item item : container) {
-            if (item == null) {
-                continue;
-            }
-
-            // Return if the item is a part of the original shop and out of
-            // stock.
-            if (item.getAmount() <= 0 && shopMap.containsKey(item.getId())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Determines if the current shop is fully restocked.
      * 
@@ -461,15 +459,11 @@ public class Shop {
      *         <code>false</code> otherwise.
      */
     private boolean isFullyRestocked() {
-        for (Item item : container) {
-            if (item == null) {
-                continue;
-            }
+        for (int slot = 0; slot < container.capacity(); slot++) {
+            Integer amount = shopMap.get(container.getItemId(slot));
 
-            if (shopMap.containsKey(item.getId())) {
-                if (item.getAmount() < shopMap.get(item.getId())) {
-                    return false;
-                }
+            if (amount != null && container.getAmount(slot) < amount) {
+                return false;
             }
         }
         return true;
@@ -617,33 +611,27 @@ public class Shop {
             }
 
             // Iterate through the shops items.
-            for (Item item : shop.getShopContainer()) {
-                if (item == null) {
+            ItemContainer container = shop.getShopContainer();
+
+            for (int slot = 0; slot < container.capacity(); slot++) {
+                int id = container.getItemId(slot);
+
+                if (id == -1) {
                     continue;
                 }
 
                 // If this item is not at its original amount...
-                if (shop.getShopMap().containsKey(item.getId())) {
-                    if (item.getAmount() < shop.getShopMap().get(item.getId())) {
+                if (shop.getShopMap().containsKey(id)) {
+                    if (container.getAmount(slot) < shop.getShopMap().get(id)) {
 
                         // Increment the item's amount by 1.
-                        item.incrementAmount();
-
-                        // And update it for every player viewing that shop!
-                        int size = shop.container.size();
-                        for (Player p : World.getPlayers()) {
-                            if (p == null) {
-                                continue;
-                            }
-
-                            if (p.getOpenShopId() == shop.index) {
-                                p.getPacketBuilder().sendUpdateItems(3900,
-                                    shop.container.toArray(), size);
-                            }
-                        }
+                        container.incrementAmount(slot, 1);
                     }
                 }
             }
+
+            // And update it for every player viewing that shop!
+            container.queueRefresh(3900);
         }
     }
 }